@@ -1,12 +1,10 @@
 package ch.epfl.rigel.astronomy;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * A loader for catalogues of asterisms.
@@ -24,25 +22,41 @@ public enum AsterismLoader implements StarCatalogue.Loader {
 
     @Override
     public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
-        final Map<Integer, Integer> indicesMap = new HashMap<>(builder.stars().size());
-        for (int i = 0; i < builder.stars().size(); i++) {
-            indicesMap.put(builder.stars().get(i).hipparcosId(), i);
+        // each entry holds a Hipparcos ID in its upper half, and the index of the star in its lower half,
+        // so that sorting the entries sorts the IDs (and then, the indices of equal IDs)
+        final long[] hipIndices = new long[builder.starCount()];
+        for (int i = 0; i < hipIndices.length; i++) {
+            hipIndices[i] = ((long) builder.hipparcosId(i) << Integer.SIZE) | i;
         }
-        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream,
-                StandardCharsets.US_ASCII))) {
-            String str;
-            while ((str = reader.readLine()) != null && !str.equals("")) {
-                // convert to a list of integers
-                final List<Integer> hipIndicesStars = Arrays.stream(str.split(","))
-                        .map(Integer::parseInt)
-                        .collect(Collectors.toUnmodifiableList());
-                final List<Star> asterismStars = hipIndicesStars.stream()
-                        .map(indicesMap::get)
-                        .map(builder.stars()::get)
-                        .collect(Collectors.toUnmodifiableList());
+        Arrays.sort(hipIndices);
+
+        try (inputStream) {
+            final CsvTokenizer tokenizer = new CsvTokenizer(inputStream);
+            while (tokenizer.hasRow()) {
+                final List<Star> asterismStars = new ArrayList<>();
+                do {
+                    asterismStars.add(builder.stars().get(indexOf(hipIndices, tokenizer.nextInt())));
+                } while (!tokenizer.atRowEnd());
                 builder.addAsterism(new Asterism(asterismStars));
+                tokenizer.skipRow();
             }
         }
     }
 
+    /**
+     * @param hipIndices the sorted (Hipparcos ID, index) entries of the stars
+     * @param hip        a Hipparcos ID
+     * @return the index of the last star of the catalogue with the provided Hipparcos ID.
+     * @throws IllegalArgumentException if there is no star with the provided Hipparcos ID
+     */
+    private static int indexOf(long[] hipIndices, int hip) {
+        // look for the first entry that is greater than all the entries of the ID
+        final int insertion = Arrays.binarySearch(hipIndices, ((long) hip << Integer.SIZE) | 0xFFFF_FFFFL);
+        final int upper = insertion >= 0 ? insertion + 1 : -insertion - 1;
+        if (upper == 0 || (int) (hipIndices[upper - 1] >>> Integer.SIZE) != hip) {
+            throw new IllegalArgumentException("no star with Hipparcos ID " + hip);
+        }
+        return (int) hipIndices[upper - 1];
+    }
+
 }
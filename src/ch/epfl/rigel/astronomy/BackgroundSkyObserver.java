@@ -0,0 +1,222 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Observes the sky on a background thread: the observations are requested with immutable
+ * snapshots of their parameters (moment, observer, projection and catalogue), and the finished
+ * skies are handed to a consumer through another executor (typically, the JavaFX application
+ * thread), so that the thread requesting them never computes a sky itself.
+ * <p>
+ * Only the latest request is computed: the requests made while the worker is busy replace each
+ * other, and the ones that were replaced are dropped. The skies are computed incrementally from
+ * the last one, as {@link ObservedSky#withCatalogue(StarCatalogue)} and
+ * {@link ObservedSky#withMoment(ZonedDateTime, Duration, ObservedSky)} do, and the buffers of the
+ * skies that are not used anymore are recycled (a delivered sky is not used anymore once the next
+ * one is delivered). The skies are also made ready to be picked (see
+ * {@link ObservedSky#objectClosestTo(ch.epfl.rigel.coordinates.CartesianCoordinates, double)}) before
+ * being delivered.
+ *
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public final class BackgroundSkyObserver {
+
+    private final Executor worker;
+    private final Executor delivery;
+    private final Consumer<ObservedSky> consumer;
+
+    // the latest request that is not computed yet, if any
+    private final AtomicReference<Request> pending = new AtomicReference<>();
+    // a sky that is neither delivered anymore nor the base of the next sky, whose buffers are recycled
+    private final AtomicReference<ObservedSky> released = new AtomicReference<>();
+    // the last computed sky (only written under the lock of the worker)
+    private volatile ObservedSky last;
+    // the last delivered sky (only accessed by the delivery executor)
+    private ObservedSky delivered;
+    private volatile Duration solarSystemPeriod = Duration.ZERO;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong computations = new AtomicLong();
+
+    /**
+     * The parameters of an observation.
+     */
+    private static final class Request {
+        private final ZonedDateTime moment;
+        private final GeographicCoordinates observer;
+        private final StereographicProjection projection;
+        private final StarCatalogue catalogue;
+
+        private Request(ZonedDateTime moment, GeographicCoordinates observer,
+                        StereographicProjection projection, StarCatalogue catalogue) {
+            this.moment = Objects.requireNonNull(moment);
+            this.observer = Objects.requireNonNull(observer);
+            this.projection = Objects.requireNonNull(projection);
+            this.catalogue = Objects.requireNonNull(catalogue);
+        }
+    }
+
+    /**
+     * Initializes an observer whose skies are computed by a background (daemon) thread.
+     *
+     * @param initial  the sky from which the first requested sky is computed, which is considered
+     *                 as delivered
+     * @param delivery the executor handing the skies to the consumer, in order
+     * @param consumer the consumer of the computed skies
+     * @throws NullPointerException if one of the parameters is {@code null}
+     */
+    public BackgroundSkyObserver(ObservedSky initial, Executor delivery, Consumer<ObservedSky> consumer) {
+        this(initial, Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Rigel sky observer");
+            thread.setDaemon(true);
+            return thread;
+        }), delivery, consumer);
+    }
+
+    /**
+     * @param initial  the sky from which the first requested sky is computed, which is considered
+     *                 as delivered
+     * @param worker   the executor computing the skies
+     * @param delivery the executor handing the skies to the consumer, in order
+     * @param consumer the consumer of the computed skies
+     */
+    BackgroundSkyObserver(ObservedSky initial, Executor worker, Executor delivery, Consumer<ObservedSky> consumer) {
+        this.last = Objects.requireNonNull(initial);
+        this.delivered = initial;
+        this.worker = Objects.requireNonNull(worker);
+        this.delivery = Objects.requireNonNull(delivery);
+        this.consumer = Objects.requireNonNull(consumer);
+    }
+
+    /**
+     * Requests the sky observed with the provided parameters, which replaces the pending request
+     * if the previous one is not computed yet. The sky is not delivered if it is the last computed
+     * one.
+     *
+     * @param moment     the moment at which the sky is observed
+     * @param observer   the position from which the sky is observed
+     * @param projection the projection to use
+     * @param catalogue  the catalogue of stars
+     * @throws NullPointerException if one of the parameters is {@code null}
+     */
+    public void request(ZonedDateTime moment, GeographicCoordinates observer,
+                        StereographicProjection projection, StarCatalogue catalogue) {
+        requests.incrementAndGet();
+        if (pending.getAndSet(new Request(moment, observer, projection, catalogue)) == null) {
+            worker.execute(this::computeLatest);
+        }
+    }
+
+    /**
+     * Changes the maximal age of the Sun, the Moon and the planets when only the moment of the
+     * observation changes (see {@link ObservedSky#withMoment(ZonedDateTime, Duration, ObservedSky)}).
+     *
+     * @param period the maximal age ({@link Duration#ZERO}, the default, to compute them for each sky)
+     * @throws NullPointerException     if the period is {@code null}
+     * @throws IllegalArgumentException if the period is negative
+     */
+    public void setSolarSystemPeriod(Duration period) {
+        Preconditions.checkArgument(!period.isNegative());
+        solarSystemPeriod = period;
+    }
+
+    /**
+     * @return the number of requested skies.
+     */
+    public long requests() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of computed skies, which is smaller than the number of requests when
+     * some of them were replaced before being computed, or did not change the sky.
+     */
+    public long computations() {
+        return computations.get();
+    }
+
+    /**
+     * Computes the sky of the latest request, if it has not been computed yet, and hands it
+     * over to the consumer.
+     */
+    private void computeLatest() {
+        final ObservedSky sky;
+        synchronized (this) {
+            final Request request = pending.getAndSet(null);
+            if (request == null) {
+                return;
+            }
+            try {
+                sky = observe(request);
+            } catch (RuntimeException e) {
+                Logger.getLogger("Rigel").log(Level.SEVERE, "Could not observe the sky, stack trace:", e);
+                return;
+            }
+            if (sky == last) {
+                return;
+            }
+            last = sky;
+            computations.incrementAndGet();
+        }
+        // the delivered skies are picked by the consumer (the object under the mouse), so their grid
+        // is built here rather than by the first pick, on the thread of the consumer
+        sky.starGrid();
+        delivery.execute(() -> deliver(sky));
+    }
+
+    /**
+     * Computes the sky of the provided request from the last one: only the stars of another
+     * catalogue, or only another moment, are handled incrementally.
+     *
+     * @param request the parameters of the observation
+     * @return the observed sky ({@code last} if the parameters did not change).
+     */
+    private ObservedSky observe(Request request) {
+        final boolean samePlace = request.projection == last.projection()
+                && request.observer.lon() == last.observer().lon()
+                && request.observer.lat() == last.observer().lat();
+        final boolean sameMoment = request.moment.equals(last.moment());
+        final boolean sameCatalogue = request.catalogue == last.catalogue();
+        if (samePlace && sameMoment) {
+            return last.withCatalogue(request.catalogue);
+        }
+        final ObservedSky recycled = released.getAndSet(null);
+        if (samePlace && sameCatalogue) {
+            return last.withMoment(request.moment, solarSystemPeriod, recycled);
+        }
+        return new ObservedSky(request.moment, request.observer, request.projection, request.catalogue, recycled);
+    }
+
+    /**
+     * Hands the provided sky over to the consumer, unless a later sky has been computed meanwhile
+     * (it is then delivered right after, and the provided one is released), and releases the
+     * previously delivered sky.
+     *
+     * @param sky a computed sky
+     */
+    private void deliver(ObservedSky sky) {
+        if (sky != last) {
+            released.set(sky);
+            return;
+        }
+        consumer.accept(sky);
+        released.set(delivered);
+        delivered = sky;
+    }
+
+}
@@ -0,0 +1,119 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * One-off converter from an HYG catalogue (CSV) to the binary format read by
+ * {@link BinaryDatabaseLoader}, or to a {@link TiledCatalogue} if the name of the output
+ * file ends with {@code .tiles}. With {@code --by-magnitude}, the stars of the binary catalogue
+ * are sorted by magnitude, so that it can be loaded brightest stars first (see
+ * {@link ProgressiveCatalogueLoader}).
+ * <p>
+ * Usage: {@code BinaryDatabaseConverter [--by-magnitude] <hyg csv file> <output file>}
+ *
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public final class BinaryDatabaseConverter {
+
+    /**
+     * The number of bands of declination of the tiled catalogues.
+     */
+    private static final int TILE_ROWS = 32;
+    /**
+     * The number of ranges of right ascension per band of the tiled catalogues (with
+     * {@link #TILE_ROWS}, each tile covers about 20 square degrees).
+     */
+    private static final int TILE_COLUMNS = 64;
+
+    /**
+     * The option sorting the stars of the binary catalogue by magnitude.
+     */
+    private static final String BY_MAGNITUDE_OPTION = "--by-magnitude";
+
+    public static void main(String[] args) throws IOException {
+        final boolean byMagnitude = args.length == 3 && args[0].equals(BY_MAGNITUDE_OPTION);
+        if (args.length != 2 && !byMagnitude) {
+            System.err.println("Usage: BinaryDatabaseConverter [" + BY_MAGNITUDE_OPTION + "] <hyg csv file> <output file>");
+            System.exit(1);
+        }
+        final Path hyg = Paths.get(args[args.length - 2]);
+        final Path out = Paths.get(args[args.length - 1]);
+        if (out.getFileName().toString().endsWith(".tiles")) {
+            convertToTiles(hyg, out, TILE_ROWS, TILE_COLUMNS);
+        } else {
+            convert(hyg, out, byMagnitude);
+        }
+    }
+
+    /**
+     * Reads the HYG catalogue at {@code hyg} and writes its binary version to {@code out}
+     * (which is overridden if it already exists).
+     *
+     * @param hyg the path to the HYG catalogue
+     * @param out the path to the binary catalogue to write
+     * @throws IOException if the HYG catalogue could not have been read, or if the binary
+     *                     catalogue could not have been written
+     */
+    public static void convert(Path hyg, Path out) throws IOException {
+        convert(hyg, out, false);
+    }
+
+    /**
+     * Reads the HYG catalogue at {@code hyg} and writes its binary version to {@code out}
+     * (which is overridden if it already exists).
+     *
+     * @param hyg         the path to the HYG catalogue
+     * @param out         the path to the binary catalogue to write
+     * @param byMagnitude whether the stars are sorted by magnitude
+     *                    (see {@link BinaryDatabaseLoader#writeByMagnitude(StarCatalogue, OutputStream)})
+     * @throws IOException if the HYG catalogue could not have been read, or if the binary
+     *                     catalogue could not have been written
+     */
+    public static void convert(Path hyg, Path out, boolean byMagnitude) throws IOException {
+        final StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        try (final InputStream in = Files.newInputStream(hyg)) {
+            builder.loadFrom(in, HygDatabaseLoader.INSTANCE);
+        }
+        try (final OutputStream os = new BufferedOutputStream(Files.newOutputStream(out))) {
+            if (byMagnitude) {
+                BinaryDatabaseLoader.writeByMagnitude(builder.build(), os);
+            } else {
+                BinaryDatabaseLoader.write(builder.stars(), os);
+            }
+        }
+    }
+
+    /**
+     * Reads the HYG catalogue at {@code hyg} and writes its tiled version to {@code out}
+     * (which is overridden if it already exists).
+     *
+     * @param hyg     the path to the HYG catalogue
+     * @param out     the path to the tiled catalogue to write
+     * @param rows    the number of bands of declination
+     * @param columns the number of ranges of right ascension per band
+     * @throws IOException if the HYG catalogue could not have been read, or if the tiled
+     *                     catalogue could not have been written
+     * @see TiledCatalogue#write(StarCatalogue, int, int, OutputStream)
+     */
+    public static void convertToTiles(Path hyg, Path out, int rows, int columns) throws IOException {
+        final StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        try (final InputStream in = Files.newInputStream(hyg)) {
+            builder.loadFrom(in, HygDatabaseLoader.INSTANCE);
+        }
+        try (final OutputStream os = new BufferedOutputStream(Files.newOutputStream(out))) {
+            TiledCatalogue.write(builder.build(), rows, columns, os);
+        }
+    }
+
+    private BinaryDatabaseConverter() {
+    }
+
+}
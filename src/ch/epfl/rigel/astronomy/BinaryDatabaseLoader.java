@@ -0,0 +1,301 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Loads an entire stars catalogue from the compact binary column format written
+ * by {@link #write(List, OutputStream)}. Contrary to {@link HygDatabaseLoader},
+ * no text is parsed: the columns are read directly from a (memory-mapped, whenever
+ * possible) {@link ByteBuffer}.
+ * <p>
+ * The file is made of a fixed-size header followed by the payload:
+ * <pre>
+ * header:  int magic | int version | int star count | int names length | long CRC32 of the payload
+ * payload: int[n] hip | float[n] magnitude | float[n] color index | double[n] ra | double[n] dec
+ *          | int[n] end offsets of the names | byte[names length] UTF-8 names
+ * </pre>
+ * All the values are stored in big-endian order.
+ *
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public enum BinaryDatabaseLoader implements StarCatalogue.Loader {
+
+    /**
+     * The single instance of the BinaryDatabaseLoader.
+     */
+    INSTANCE;
+
+    /**
+     * The first four bytes of any binary catalogue ("RGLB").
+     */
+    private static final int MAGIC = 0x52474C42;
+    /**
+     * The version of the format. It must be incremented whenever the layout changes,
+     * so that files written with an older layout get rejected.
+     */
+    public static final int VERSION = 1;
+    /**
+     * The size, in bytes, of the header.
+     */
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + Long.BYTES;
+    /**
+     * The size, in bytes, of the columns of a single star (names excluded).
+     */
+    private static final int STAR_SIZE = Integer.BYTES + 2 * Float.BYTES + 2 * Double.BYTES + Integer.BYTES;
+
+    @Override
+    public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
+        try (inputStream) {
+            if (inputStream instanceof FileInputStream) {
+                final FileChannel channel = ((FileInputStream) inputStream).getChannel();
+                read(channel.map(FileChannel.MapMode.READ_ONLY, channel.position(),
+                        channel.size() - channel.position()), builder);
+            } else {
+                read(ByteBuffer.wrap(inputStream.readAllBytes()), builder);
+            }
+        }
+    }
+
+    /**
+     * Memory-maps the binary catalogue at the provided path, and loads its stars into
+     * the provided builder.
+     *
+     * @param path    the path to the binary catalogue
+     * @param builder the builder in which the stars are loaded
+     * @throws IOException if the file could not have been read, or if it is not a valid
+     *                     binary catalogue of the current {@link #VERSION}
+     */
+    public void load(Path path, StarCatalogue.Builder builder) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), builder);
+        }
+    }
+
+    /**
+     * Checks the header of the provided buffer and adds all the stars it holds to
+     * the provided builder.
+     *
+     * @param buffer  the buffer holding the binary catalogue, positioned at its first byte
+     *                and limited to its last one
+     * @param builder the builder in which the stars are loaded
+     * @throws IOException if the buffer does not hold a valid binary catalogue
+     */
+    static void read(ByteBuffer buffer, StarCatalogue.Builder builder) throws IOException {
+        final Columns columns = new Columns(buffer);
+        columns.addStars(0, columns.count(), builder);
+    }
+
+    /**
+     * The columns of a binary catalogue whose header and checksum have been checked, from
+     * which any range of stars can be read.
+     */
+    static final class Columns {
+        private final ByteBuffer buffer;
+        private final int count;
+        // the offsets of the columns in the buffer
+        private final int hips;
+        private final int magnitudes;
+        private final int colorIndices;
+        private final int ras;
+        private final int decs;
+        private final int nameEnds;
+        private final int names;
+
+        /**
+         * @param buffer the buffer holding the binary catalogue, positioned at its first byte
+         *               and limited to its last one
+         * @throws IOException if the buffer does not hold a valid binary catalogue
+         */
+        Columns(ByteBuffer buffer) throws IOException {
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException("not a binary star catalogue");
+            }
+            final int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported binary catalogue version: " + version + " (expected " + VERSION + ")");
+            }
+            count = buffer.getInt();
+            final int namesLength = buffer.getInt();
+            final long checksum = buffer.getLong();
+            if (count < 0 || namesLength < 0 || buffer.remaining() != (long) count * STAR_SIZE + namesLength) {
+                throw new IOException("truncated binary star catalogue");
+            }
+            final CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if (crc.getValue() != checksum) {
+                throw new IOException("corrupt binary star catalogue: checksum mismatch");
+            }
+
+            this.buffer = buffer;
+            hips = buffer.position();
+            magnitudes = hips + count * Integer.BYTES;
+            colorIndices = magnitudes + count * Float.BYTES;
+            ras = colorIndices + count * Float.BYTES;
+            decs = ras + count * Double.BYTES;
+            nameEnds = decs + count * Double.BYTES;
+            names = nameEnds + count * Integer.BYTES;
+        }
+
+        /**
+         * @return the number of stars of the catalogue.
+         */
+        int count() {
+            return count;
+        }
+
+        /**
+         * @param index the index of a star
+         * @return the magnitude of the star.
+         */
+        float magnitude(int index) {
+            return buffer.getFloat(magnitudes + index * Float.BYTES);
+        }
+
+        /**
+         * Adds the stars of the provided range, in order, to the provided builder.
+         *
+         * @param from    the index of the first star to add
+         * @param to      the index following the last star to add
+         * @param builder the builder in which the stars are loaded
+         */
+        void addStars(int from, int to, StarCatalogue.Builder builder) {
+            // each column is read through its own view, starting at the first star of the range
+            final ByteBuffer hip = buffer.duplicate().position(hips + from * Integer.BYTES);
+            final ByteBuffer magnitude = buffer.duplicate().position(magnitudes + from * Float.BYTES);
+            final ByteBuffer colorIndex = buffer.duplicate().position(colorIndices + from * Float.BYTES);
+            final ByteBuffer ra = buffer.duplicate().position(ras + from * Double.BYTES);
+            final ByteBuffer dec = buffer.duplicate().position(decs + from * Double.BYTES);
+            final ByteBuffer nameEnd = buffer.duplicate().position(nameEnds + from * Integer.BYTES);
+            int nameStart = from == 0 ? 0 : buffer.getInt(nameEnds + (from - 1) * Integer.BYTES);
+            final int namesEnd = to == 0 ? 0 : buffer.getInt(nameEnds + (to - 1) * Integer.BYTES);
+            final byte[] nameBytes = new byte[namesEnd - nameStart];
+            buffer.duplicate().position(names + nameStart).get(nameBytes);
+
+            final int offset = nameStart;
+            for (int i = from; i < to; i++) {
+                final int end = nameEnd.getInt();
+                builder.addStar(
+                        hip.getInt(),
+                        new String(nameBytes, nameStart - offset, end - nameStart, StandardCharsets.UTF_8),
+                        ra.getDouble(),
+                        dec.getDouble(),
+                        magnitude.getFloat(),
+                        colorIndex.getFloat()
+                );
+                nameStart = end;
+            }
+        }
+    }
+
+    /**
+     * Writes the provided stars in the binary catalogue format read by this loader.
+     * The provided stream is not closed.
+     *
+     * @param stars the stars to write
+     * @param out   the stream to write to
+     * @throws IOException if the data could not have been written
+     */
+    public static void write(List<Star> stars, OutputStream out) throws IOException {
+        write(new StarCatalogue(stars, List.of()), out);
+    }
+
+    /**
+     * Writes the stars of the provided catalogue (its asterisms are ignored) in the binary
+     * catalogue format read by this loader, sorted by increasing magnitude (the stars of equal
+     * magnitudes keep their order). Such files can be loaded brightest stars first by
+     * {@link ProgressiveCatalogueLoader}. The provided stream is not closed.
+     *
+     * @param catalogue the catalogue whose stars are written
+     * @param out       the stream to write to
+     * @throws IOException if the data could not have been written
+     */
+    public static void writeByMagnitude(StarCatalogue catalogue, OutputStream out) throws IOException {
+        final long[] keys = new long[catalogue.starCount()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = StarTable.magnitudeOrderKey(catalogue.magnitude(i), i);
+        }
+        Arrays.sort(keys);
+        final StarCatalogue.Builder sorted = new StarCatalogue.Builder();
+        for (long key : keys) {
+            final int i = (int) key;
+            sorted.addStar(catalogue.hipparcosId(i), catalogue.starName(i), catalogue.ra(i), catalogue.dec(i),
+                    catalogue.magnitude(i), catalogue.colorIndex(i));
+        }
+        write(sorted.build(), out);
+    }
+
+    /**
+     * Writes the stars of the provided catalogue (its asterisms are ignored) in the binary
+     * catalogue format read by this loader, straight from the columns of the catalogue.
+     * The provided stream is not closed.
+     *
+     * @param catalogue the catalogue whose stars are written
+     * @param out       the stream to write to
+     * @throws IOException if the data could not have been written, or if the catalogue is too large
+     *                     to be held by a single binary catalogue (2 GiB)
+     */
+    public static void write(StarCatalogue catalogue, OutputStream out) throws IOException {
+        final int count = catalogue.starCount();
+        final byte[][] names = new byte[count][];
+        long namesLength = 0;
+        for (int i = 0; i < count; i++) {
+            names[i] = catalogue.starName(i).getBytes(StandardCharsets.UTF_8);
+            namesLength += names[i].length;
+        }
+        final long payloadSize = (long) count * STAR_SIZE + namesLength;
+        if (payloadSize > Integer.MAX_VALUE) {
+            throw new IOException("catalogue too large for a binary catalogue: " + payloadSize + " bytes");
+        }
+
+        final ByteBuffer payload = ByteBuffer.allocate((int) payloadSize);
+        for (int i = 0; i < count; i++) {
+            payload.putInt(catalogue.hipparcosId(i));
+        }
+        for (int i = 0; i < count; i++) {
+            payload.putFloat(catalogue.magnitude(i));
+        }
+        for (int i = 0; i < count; i++) {
+            payload.putFloat(catalogue.colorIndex(i));
+        }
+        for (int i = 0; i < count; i++) {
+            payload.putDouble(catalogue.ra(i));
+        }
+        for (int i = 0; i < count; i++) {
+            payload.putDouble(catalogue.dec(i));
+        }
+        int nameEnd = 0;
+        for (byte[] name : names) {
+            nameEnd += name.length;
+            payload.putInt(nameEnd);
+        }
+        for (byte[] name : names) {
+            payload.put(name);
+        }
+
+        final CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(count)
+                .putInt((int) namesLength)
+                .putLong(crc.getValue());
+        out.write(header.array());
+        out.write(payload.array());
+        out.flush();
+    }
+
+}
@@ -0,0 +1,252 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk snapshot of a fully built {@link StarCatalogue} (stars and resolved asterism
+ * indices), keyed by the fingerprints (length and CRC32) of the HYG and asterisms sources
+ * it has been built from.
+ * <p>
+ * {@link #load(InputStream, InputStream)} returns the snapshot if it matches the provided
+ * sources; otherwise, the sources are parsed as usual, and the snapshot is rebuilt in the
+ * background so that the next launch can use it.
+ * <p>
+ * The file is made of a header, the asterisms and the stars:
+ * <pre>
+ * header:    int magic | int version | int source count | (long length | int CRC32) per source
+ *            | int asterisms length | long CRC32 of the asterisms
+ * asterisms: int asterism count | (int star count | int[star count] star indices) per asterism
+ * stars:     binary star catalogue, as written by {@link BinaryDatabaseLoader} (up to the end of the file)
+ * </pre>
+ *
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public final class CatalogueCache {
+
+    /**
+     * The first four bytes of any catalogue snapshot ("RGLC").
+     */
+    private static final int MAGIC = 0x52474C43;
+    /**
+     * The version of the snapshot layout (the version of the stars section is the one of
+     * {@link BinaryDatabaseLoader}).
+     */
+    private static final int VERSION = 1;
+
+    private static final Logger LOGGER = Logger.getLogger("Rigel");
+
+    private final Path file;
+    private final Executor writer;
+
+    /**
+     * Initializes a cache whose snapshot is stored at the provided path, and rebuilt
+     * by a background (daemon) thread.
+     *
+     * @param file the path to the snapshot file (it does not need to exist)
+     */
+    public CatalogueCache(Path file) {
+        this(file, Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Rigel catalogue cache writer");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * @param file   the path to the snapshot file (it does not need to exist)
+     * @param writer the executor writing the snapshots
+     */
+    CatalogueCache(Path file, Executor writer) {
+        this.file = Objects.requireNonNull(file);
+        this.writer = Objects.requireNonNull(writer);
+    }
+
+    /**
+     * Loads the catalogue made of the provided HYG stars and asterisms: from the snapshot if
+     * it has been built from the exact same sources, by parsing the sources otherwise (then,
+     * a new snapshot is written in the background). Both streams are read entirely and closed.
+     *
+     * @param hygStream      the stream of the HYG catalogue
+     * @param asterismStream the stream of the asterisms catalogue
+     * @return the loaded catalogue.
+     * @throws IOException if one of the sources could not have been read or parsed
+     */
+    public StarCatalogue load(InputStream hygStream, InputStream asterismStream) throws IOException {
+        final byte[] hyg;
+        final byte[] asterisms;
+        try (hygStream; asterismStream) {
+            hyg = hygStream.readAllBytes();
+            asterisms = asterismStream.readAllBytes();
+        }
+        final long[] fingerprints = {hyg.length, crcOf(hyg), asterisms.length, crcOf(asterisms)};
+
+        final StarCatalogue cached = read(fingerprints);
+        if (cached != null) {
+            return cached;
+        }
+
+        final StarCatalogue catalogue = new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(hyg), HygDatabaseLoader.INSTANCE)
+                .loadFrom(new ByteArrayInputStream(asterisms), AsterismLoader.INSTANCE)
+                .build();
+        writer.execute(() -> {
+            try {
+                write(catalogue, fingerprints);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not write the catalogue cache, stack trace:", e);
+            }
+        });
+        return catalogue;
+    }
+
+    /**
+     * @param data some bytes
+     * @return the CRC32 of the provided bytes.
+     */
+    private static long crcOf(byte[] data) {
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        return crc.getValue();
+    }
+
+    /**
+     * @param fingerprints the (length, CRC32) pairs of the sources
+     * @return the catalogue held by the snapshot, or {@code null} if there is no snapshot,
+     * or if it is not a valid snapshot of the provided sources.
+     */
+    private StarCatalogue read(long[] fingerprints) {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), fingerprints);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // any inconsistency of the file only means it has to be rebuilt
+            LOGGER.log(Level.INFO, "Ignoring the invalid catalogue cache: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * @param buffer       the content of the snapshot file
+     * @param fingerprints the (length, CRC32) pairs of the sources
+     * @return the catalogue held by the snapshot, or {@code null} if it has been built from
+     * other sources.
+     * @throws IOException               if the snapshot is corrupt
+     * @throws BufferUnderflowException  if the snapshot is truncated
+     * @throws IllegalArgumentException  if the snapshot holds invalid stars or asterisms
+     * @throws IndexOutOfBoundsException if an asterism refers to a star that does not exist
+     */
+    private static StarCatalogue read(ByteBuffer buffer, long[] fingerprints) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        if (buffer.getInt() != fingerprints.length / 2) {
+            return null;
+        }
+        for (int i = 0; i < fingerprints.length; i += 2) {
+            final long length = buffer.getLong();
+            final long crc = buffer.getInt() & 0xFFFF_FFFFL;
+            if (length != fingerprints[i] || crc != fingerprints[i + 1]) {
+                return null;
+            }
+        }
+
+        final int asterismsLength = buffer.getInt();
+        final long asterismsCrc = buffer.getLong();
+        final ByteBuffer asterisms = buffer.slice().limit(asterismsLength);
+        final CRC32 crc = new CRC32();
+        crc.update(asterisms.duplicate());
+        if (crc.getValue() != asterismsCrc) {
+            throw new IOException("corrupt catalogue cache: checksum mismatch");
+        }
+
+        final StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        BinaryDatabaseLoader.read(buffer.position(buffer.position() + asterismsLength).slice(), builder);
+
+        final int asterismCount = asterisms.getInt();
+        for (int i = 0; i < asterismCount; i++) {
+            final List<Star> stars = new ArrayList<>();
+            final int starCount = asterisms.getInt();
+            for (int j = 0; j < starCount; j++) {
+                stars.add(builder.stars().get(asterisms.getInt()));
+            }
+            builder.addAsterism(new Asterism(stars));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Writes the snapshot of the provided catalogue. The snapshot is first written to
+     * a temporary file, which then replaces the current snapshot, so that a snapshot is
+     * never read while it is being written.
+     *
+     * @param catalogue    the catalogue to write
+     * @param fingerprints the (length, CRC32) pairs of the sources of the catalogue
+     * @throws IOException if the snapshot could not have been written
+     */
+    private void write(StarCatalogue catalogue, long[] fingerprints) throws IOException {
+        final ByteArrayOutputStream asterismBytes = new ByteArrayOutputStream();
+        final DataOutputStream asterisms = new DataOutputStream(asterismBytes);
+        asterisms.writeInt(catalogue.asterisms().size());
+        for (Asterism asterism : catalogue.asterisms()) {
+            final int[] indices = catalogue.asterismIndexArray(asterism);
+            asterisms.writeInt(indices.length);
+            for (int index : indices) {
+                asterisms.writeInt(index);
+            }
+        }
+        final byte[] asterismData = asterismBytes.toByteArray();
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(fingerprints.length / 2);
+        for (int i = 0; i < fingerprints.length; i += 2) {
+            out.writeLong(fingerprints[i]);
+            out.writeInt((int) fingerprints[i + 1]);
+        }
+        out.writeInt(asterismData.length);
+        out.writeLong(crcOf(asterismData));
+        out.write(asterismData);
+        BinaryDatabaseLoader.write(catalogue, out);
+
+        final Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        final Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, bytes.toByteArray());
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+}
@@ -0,0 +1,341 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming, byte-level tokenizer for simple (unquoted) US-ASCII CSV data.
+ * <p>
+ * Fields are consumed one after the other: the ones that are not needed are skipped
+ * without any allocation, numbers are parsed straight from the bytes, and a
+ * {@link String} is only built by {@link #nextString()}.
+ *
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+final class CsvTokenizer {
+
+    /**
+     * The size of the read buffer.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * The maximal number of significant digits accumulated in a long (10^18 < 2^63).
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+    /**
+     * The greatest mantissa that is exactly representable as a double.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    /**
+     * Powers of ten that are exactly representable as doubles.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    // the bytes of the current field, when it has to be looked at as a whole
+    private byte[] field = new byte[64];
+    private int fieldLength;
+    private int position;
+    private int limit;
+
+    /**
+     * @param in the stream to tokenize (it is not closed by the tokenizer)
+     */
+    CsvTokenizer(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * @return the next byte, without consuming it, or {@code -1} if the end of the
+     * input has been reached.
+     * @throws IOException if the underlying stream could not have been read
+     */
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = Math.max(in.read(buffer), 0);
+            position = 0;
+            if (limit == 0) {
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    /**
+     * @param b a byte, or {@code -1}
+     * @return {@code true} if the provided byte ends a field.
+     */
+    private static boolean isFieldEnd(int b) {
+        return b == ',' || b == '\n' || b == '\r' || b == -1;
+    }
+
+    /**
+     * @return {@code true} if the tokenizer is at the beginning of a non-empty row.
+     * @throws IOException if the underlying stream could not have been read
+     */
+    boolean hasRow() throws IOException {
+        final int b = peek();
+        return b != '\n' && b != '\r' && b != -1;
+    }
+
+    /**
+     * @return {@code true} if the whole input has been consumed.
+     * @throws IOException if the underlying stream could not have been read
+     */
+    boolean atEndOfInput() throws IOException {
+        return peek() == -1;
+    }
+
+    /**
+     * Moves to the beginning of the next row, ignoring what is left of the current one.
+     *
+     * @throws IOException if the underlying stream could not have been read
+     */
+    void skipRow() throws IOException {
+        int b;
+        while ((b = peek()) != '\n' && b != -1) {
+            position++;
+        }
+        if (b == '\n') {
+            position++;
+        }
+    }
+
+    /**
+     * Moves to the beginning of the next row, ignoring what is left of the current one.
+     *
+     * @return {@code true} if there is a non-empty row to read; {@code false} if the end
+     * of the input, or an empty line, has been reached.
+     * @throws IOException if the underlying stream could not have been read
+     */
+    boolean nextRow() throws IOException {
+        skipRow();
+        return hasRow();
+    }
+
+    /**
+     * Skips the current field, and the separator that follows it (if it is a comma).
+     *
+     * @throws IOException if the underlying stream could not have been read
+     */
+    void skipField() throws IOException {
+        int b;
+        while (!isFieldEnd(b = peek())) {
+            position++;
+        }
+        if (b == ',') {
+            position++;
+        }
+    }
+
+    /**
+     * Skips the provided number of fields.
+     *
+     * @param count the number of fields to skip
+     * @throws IOException if the underlying stream could not have been read
+     */
+    void skipFields(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            skipField();
+        }
+    }
+
+    /**
+     * Copies the current field into {@code field}, and consumes it.
+     *
+     * @throws IOException if the underlying stream could not have been read
+     */
+    private void readField() throws IOException {
+        fieldLength = 0;
+        int b;
+        while (!isFieldEnd(b = peek())) {
+            if (fieldLength == field.length) {
+                final byte[] larger = new byte[2 * field.length];
+                System.arraycopy(field, 0, larger, 0, fieldLength);
+                field = larger;
+            }
+            field[fieldLength++] = (byte) b;
+            position++;
+        }
+        if (b == ',') {
+            position++;
+        }
+    }
+
+    /**
+     * @return {@code true} if the last read field only contains white spaces.
+     */
+    private boolean isFieldBlank() {
+        for (int i = 0; i < fieldLength; i++) {
+            if (!Character.isWhitespace(field[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the current field as a String.
+     *
+     * @return the content of the current field (possibly empty).
+     * @throws IOException if the underlying stream could not have been read
+     */
+    String nextString() throws IOException {
+        readField();
+        return new String(field, 0, fieldLength, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return {@code true} if the tokenizer is at the end of a row (and therefore, there
+     * are no more fields to read in the current row).
+     * @throws IOException if the underlying stream could not have been read
+     */
+    boolean atRowEnd() throws IOException {
+        final int b = peek();
+        return b == '\n' || b == '\r' || b == -1;
+    }
+
+    /**
+     * Reads the current field as an integer.
+     *
+     * @param blank the value returned if the field is blank
+     * @return the parsed integer.
+     * @throws IOException           if the underlying stream could not have been read
+     * @throws NumberFormatException if the field is neither blank nor a valid integer
+     * @see #nextInt()
+     */
+    int nextInt(int blank) throws IOException {
+        readField();
+        return isFieldBlank() ? blank : parseInt();
+    }
+
+    /**
+     * Reads the current field as an integer, which must not be blank.
+     *
+     * @return the parsed integer.
+     * @throws IOException           if the underlying stream could not have been read
+     * @throws NumberFormatException if the field is not a valid integer
+     */
+    int nextInt() throws IOException {
+        readField();
+        return parseInt();
+    }
+
+    /**
+     * @return the last read field parsed as an integer.
+     * @throws NumberFormatException if the field is not a valid integer
+     */
+    private int parseInt() {
+        int i = 0;
+        final boolean negative = fieldLength > 0 && field[0] == '-';
+        if (negative || (fieldLength > 0 && field[0] == '+')) {
+            i++;
+        }
+        // more than 9 digits could overflow: let the JDK handle it
+        if (i == fieldLength || fieldLength - i > 9) {
+            return Integer.parseInt(new String(field, 0, fieldLength, StandardCharsets.US_ASCII));
+        }
+        int value = 0;
+        for (; i < fieldLength; i++) {
+            final int digit = field[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(new String(field, 0, fieldLength, StandardCharsets.US_ASCII));
+            }
+            value = 10 * value + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads the current field as a double.
+     *
+     * @param blank the value returned if the field is blank
+     * @return the parsed double.
+     * @throws IOException           if the underlying stream could not have been read
+     * @throws NumberFormatException if the field is neither blank nor a valid number
+     * @see #nextDouble()
+     */
+    double nextDouble(double blank) throws IOException {
+        readField();
+        return isFieldBlank() ? blank : parseDouble();
+    }
+
+    /**
+     * Reads the current field as a double, which must not be blank.
+     *
+     * @return the parsed double.
+     * @throws IOException           if the underlying stream could not have been read
+     * @throws NumberFormatException if the field is not a valid number
+     */
+    double nextDouble() throws IOException {
+        readField();
+        return parseDouble();
+    }
+
+    /**
+     * Parses the last read field as a double. The result is always exactly the one
+     * {@link Double#parseDouble(String)} would give: plain decimals whose digits form an
+     * integer mantissa of at most 2^53 (which is the case of all the HYG coordinates) are
+     * parsed directly from the bytes, since the division of two exactly represented doubles
+     * is correctly rounded; any other number goes through the JDK.
+     *
+     * @return the parsed double.
+     * @throws NumberFormatException if the field is not a valid number
+     */
+    private double parseDouble() {
+        if (fieldLength == 0) {
+            return slowDouble();
+        }
+        int i = 0;
+        final boolean negative = field[0] == '-';
+        if (negative || field[0] == '+') {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; i < fieldLength; i++) {
+            final byte b = field[i];
+            if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                // leading zeros are not significant
+                if (mantissa != 0 || b != '0') {
+                    digits++;
+                }
+                if (digits > MAX_LONG_DIGITS) {
+                    return slowDouble();
+                }
+                mantissa = 10 * mantissa + (b - '0');
+                if (seenPoint) {
+                    decimals++;
+                }
+            } else {
+                return slowDouble();
+            }
+        }
+        if (!seenDigit || mantissa > MAX_EXACT_MANTISSA || decimals >= POWERS_OF_TEN.length) {
+            return slowDouble();
+        }
+        final double value = mantissa / POWERS_OF_TEN[decimals];
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return the last read field parsed by {@link Double#parseDouble(String)}.
+     */
+    private double slowDouble() {
+        return Double.parseDouble(new String(field, 0, fieldLength, StandardCharsets.US_ASCII));
+    }
+
+}
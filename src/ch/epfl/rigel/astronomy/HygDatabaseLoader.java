@@ -1,12 +1,20 @@
 package ch.epfl.rigel.astronomy;
 
-import ch.epfl.rigel.coordinates.EquatorialCoordinates;
-
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Loads an entire stars catalogue (in this case, an HYG one), using an {@code InputStream}.
@@ -61,32 +69,187 @@ public enum HygDatabaseLoader implements StarCatalogue.Loader {
      */
     private static final int CON = 29;
 
+    /**
+     * The default size, in bytes, of the ranges of the file parsed by each worker
+     * in {@link #loadParallel(Path, StarCatalogue.Builder)}.
+     */
+    private static final int CHUNK_SIZE = 1 << 20;
+
     @Override
     public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
-        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream,
-                StandardCharsets.US_ASCII))) {
-            String str;
-            // skip the first line, since it provides the names of the columns
-            reader.readLine();
-            while ((str = reader.readLine()) != null && !str.equals("")) {
-                final String[] dataLine = str.split(",");
-                final String properName = dataLine[PROPER].isBlank()
-                        ? ((dataLine[BAYER].isBlank() ? "?" : dataLine[BAYER]))  // default bayer value = '?'
-                        + " " + dataLine[CON]
-                        : dataLine[PROPER];
-                builder.addStar(new Star(
-                        // Hipparcos ID
-                        (dataLine[HIP].isBlank() ? 0 : Integer.parseInt(dataLine[HIP])),
-                        // proper name
-                        properName,
-                        // coordinates
-                        EquatorialCoordinates.of(Double.parseDouble(dataLine[RARAD]), Double.parseDouble(dataLine[DECRAD])),
-                        // magnitude
-                        (dataLine[MAG].isBlank() ? 0f : (float) Double.parseDouble(dataLine[MAG])),
-                        // color index
-                        (dataLine[CI].isBlank() ? 0f : (float) Double.parseDouble(dataLine[CI]))
-                ));
+        try (inputStream) {
+            final CsvTokenizer tokenizer = new CsvTokenizer(inputStream);
+            // skip the first row, since it provides the names of the columns
+            tokenizer.skipRow();
+            readStars(tokenizer, builder);
+        }
+    }
+
+    /**
+     * Loads the HYG catalogue at the provided path in parallel: the file is split into
+     * ranges of lines, which are parsed on the workers of the common {@link ForkJoinPool}.
+     * The stars are then added to the builder in the exact order of the file, so that
+     * the result is the same as the one of {@link #load(InputStream, StarCatalogue.Builder)}.
+     * <p>
+     * If the common pool has a single worker, the file is simply loaded sequentially.
+     *
+     * @param path    the path to the HYG catalogue
+     * @param builder the builder in which the stars are loaded
+     * @throws IOException if the file could not have been read
+     */
+    public void loadParallel(Path path, StarCatalogue.Builder builder) throws IOException {
+        if (ForkJoinPool.getCommonPoolParallelism() < 2) {
+            load(Files.newInputStream(path), builder);
+        } else {
+            loadParallel(path, builder, CHUNK_SIZE);
+        }
+    }
+
+    /**
+     * @param path      the path to the HYG catalogue
+     * @param builder   the builder in which the stars are loaded
+     * @param chunkSize the approximate size, in bytes, of the range of lines parsed by each worker
+     * @throws IOException if the file could not have been read
+     * @see #loadParallel(Path, StarCatalogue.Builder)
+     */
+    void loadParallel(Path path, StarCatalogue.Builder builder, int chunkSize) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            // skip the first row, since it provides the names of the columns
+            final long first = nextLine(channel, 0);
+            final List<Long> bounds = new ArrayList<>();
+            bounds.add(first);
+            for (long bound = first + chunkSize; bound < size; bound += chunkSize) {
+                final long aligned = nextLine(channel, bound);
+                if (aligned > bounds.get(bounds.size() - 1) && aligned < size) {
+                    bounds.add(aligned);
+                }
+            }
+            bounds.add(size);
+
+            final List<Callable<Chunk>> tasks = new ArrayList<>(bounds.size() - 1);
+            for (int i = 0; i < bounds.size() - 1; i++) {
+                final long start = bounds.get(i);
+                final long end = bounds.get(i + 1);
+                tasks.add(() -> readChunk(channel, start, end));
+            }
+            // the futures are returned in the same order as the tasks
+            for (Future<Chunk> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                final Chunk chunk = future.get();
+                builder.addStars(chunk.stars);
+                if (chunk.stoppedEarly) {
+                    // an empty line ends the catalogue, as in the sequential mode
+                    break;
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while loading the HYG catalogue");
+        }
+    }
+
+    /**
+     * The stars parsed from a range of lines.
+     */
+    private static final class Chunk {
+        private final StarCatalogue.Builder stars;
+        // true if an empty line has been met in the range
+        private final boolean stoppedEarly;
+
+        /**
+         * @param stars        the stars of the range, in the order of the file
+         * @param stoppedEarly {@code true} if the range contains an empty line
+         */
+        private Chunk(StarCatalogue.Builder stars, boolean stoppedEarly) {
+            this.stars = stars;
+            this.stoppedEarly = stoppedEarly;
+        }
+    }
+
+    /**
+     * Parses the stars in the provided range of lines.
+     *
+     * @param channel the channel of the file (only accessed through absolute reads)
+     * @param start   the position of the first byte of the range, which starts a line
+     * @param end     the position following the last byte of the range, which ends a line
+     * @return the parsed stars.
+     * @throws IOException if the file could not have been read
+     */
+    private static Chunk readChunk(FileChannel channel, long start, long end) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) != -1) {
+            // keep on reading until the range is complete
+        }
+        final CsvTokenizer tokenizer = new CsvTokenizer(new ByteArrayInputStream(buffer.array(), 0, buffer.position()));
+        final StarCatalogue.Builder stars = new StarCatalogue.Builder();
+        readStars(tokenizer, stars);
+        return new Chunk(stars, !tokenizer.atEndOfInput());
+    }
+
+    /**
+     * @param channel  the channel of the file (only accessed through absolute reads)
+     * @param position a position in the file
+     * @return the position of the beginning of the first line that starts after
+     * {@code position}, or the size of the file if there is no such line.
+     * @throws IOException if the file could not have been read
+     */
+    private static long nextLine(FileChannel channel, long position) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        long offset = position;
+        int read;
+        while ((read = channel.read(buffer.clear(), offset)) > 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return channel.size();
+    }
+
+    /**
+     * Reads the rows of the tokenizer as stars until the end of the input, or until an
+     * empty line is met.
+     *
+     * @param tokenizer the tokenizer, at the beginning of a row
+     * @param builder   the builder to which the stars are added, in the order of the rows
+     * @throws IOException if the input could not have been read
+     */
+    private static void readStars(CsvTokenizer tokenizer, StarCatalogue.Builder builder) throws IOException {
+        while (tokenizer.hasRow()) {
+            // only the used columns are decoded, the others are skipped without any allocation
+            tokenizer.skipFields(HIP);
+            final int hip = tokenizer.nextInt(0);
+            tokenizer.skipFields(PROPER - HIP - 1);
+            final String proper = tokenizer.nextString();
+            tokenizer.skipFields(MAG - PROPER - 1);
+            final float magnitude = (float) tokenizer.nextDouble(0d);
+            tokenizer.skipFields(CI - MAG - 1);
+            final float colorIndex = (float) tokenizer.nextDouble(0d);
+            tokenizer.skipFields(RARAD - CI - 1);
+            final double ra = tokenizer.nextDouble();
+            final double dec = tokenizer.nextDouble();
+            final String name;
+            if (proper.isBlank()) {
+                tokenizer.skipFields(BAYER - DECRAD - 1);
+                final String bayer = tokenizer.nextString();
+                tokenizer.skipFields(CON - BAYER - 1);
+                // default bayer value = '?'
+                name = (bayer.isBlank() ? "?" : bayer) + " " + tokenizer.nextString();
+            } else {
+                name = proper;
             }
+            // the Star instances are only created on demand
+            builder.addStar(hip, name, ra, dec, magnitude, colorIndex);
+            tokenizer.skipRow();
         }
     }
 
@@ -1,11 +1,16 @@
 package ch.epfl.rigel.astronomy;
 
+import ch.epfl.rigel.Preconditions;
 import ch.epfl.rigel.coordinates.*;
 
+import java.nio.DoubleBuffer;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * This class represents the sky at a certain moment in time, containing
@@ -49,10 +54,58 @@ public class ObservedSky {
         }
     }
 
-    private final List<CelestialPair> allObjects;
+    /**
+     * The ways of projecting the stars.
+     */
+    public enum StarProjectionMode {
+        /**
+         * The stars are projected on the calling thread.
+         */
+        SEQUENTIAL,
+        /**
+         * The stars are split into ranges, which are projected on the workers of the common
+         * {@link ForkJoinPool} (and on the calling thread).
+         */
+        PARALLEL,
+        /**
+         * The stars are projected in parallel if there are at least {@link #PARALLEL_THRESHOLD}
+         * of them to project and the common {@link ForkJoinPool} has several workers, and
+         * sequentially otherwise.
+         */
+        AUTOMATIC
+    }
+
+    /**
+     * The number of stars to project from which {@link StarProjectionMode#AUTOMATIC} projects
+     * them in parallel: below it, projecting them takes less time than handing them out to
+     * the workers.
+     */
+    public static final int PARALLEL_THRESHOLD = 50_000;
+    /**
+     * The smallest number of stars projected by each task in {@link StarProjectionMode#PARALLEL}.
+     */
+    private static final int MIN_PARALLEL_RANGE = 1024;
+    /**
+     * The number of ranges given to each worker in {@link StarProjectionMode#PARALLEL}, so that
+     * the workers that finish first take over some of the remaining ones.
+     */
+    private static final int RANGES_PER_WORKER = 4;
+
+    // the slots of the planets in planets(), by name, ordered as their models (the Earth excluded)
+    private static final Map<String, Integer> PLANET_SLOTS = planetSlots();
+
+    // the Sun, the Moon and the planets (the stars are only looked up through their positions)
+    private final List<CelestialPair> solarSystemObjects;
 
     private final StarCatalogue catalogue;
 
+    private final ZonedDateTime moment;
+    private final GeographicCoordinates observer;
+    private final StereographicProjection projection;
+    // the moment at which the positions of the Sun, the Moon and the planets were computed
+    // (see withMoment)
+    private final ZonedDateTime solarSystemMoment;
+
     private final Sun sun;
     private final CartesianCoordinates sunProjection;
 
@@ -63,12 +116,36 @@ public class ObservedSky {
     private final double[] planetPositions;
 
     private final double[] starPositions;
+    // the coordinates of the stars, one array per axis, as computed by the projection before being
+    // interleaved into starPositions
+    private final double[] starX;
+    private final double[] starY;
+    // the index of the positions of the stars, built by the first call to objectClosestTo (see starGrid()),
+    // and until then, the grid of the recycled sky whose arrays it reuses
+    private PositionGrid starGrid;
+    private PositionGrid recycledGrid;
+
+    // the projection of the unit vectors of the stars, kept to project the stars of another catalogue
+    private final UnitVectorProjection starProjection;
+    private final StarProjectionMode starProjectionMode;
 
     /**
-     * Initializes the ObservedSky, projects all CelestialObjects, namely the Moon, the Sun,
-     * planets and stars, and also distributes them across chunks that make the method
-     * {@link #objectClosestTo(CartesianCoordinates, double)} more efficient than standard linear
-     * search.
+     * @return the slots of the planets, by name.
+     */
+    private static Map<String, Integer> planetSlots() {
+        final Map<String, Integer> slots = new HashMap<>();
+        for (PlanetModel model : PlanetModel.ALL) {
+            if (model != PlanetModel.EARTH) {
+                slots.put(model.getFrenchName(), slots.size());
+            }
+        }
+        return Map.copyOf(slots);
+    }
+
+    /**
+     * Initializes the ObservedSky and projects all CelestialObjects, namely the Moon, the Sun,
+     * planets and stars. The first call to {@link #objectClosestTo(CartesianCoordinates, double)}
+     * builds a grid over the positions of the stars, that makes it more efficient than a linear search.
      *
      * @param moment     the moment at which the sky is observed
      * @param observer   the position from which the sky is observed
@@ -76,33 +153,261 @@ public class ObservedSky {
      * @param catalogue  the catalogue of stars
      */
     public ObservedSky(ZonedDateTime moment, GeographicCoordinates observer, StereographicProjection projection, StarCatalogue catalogue) {
+        this(moment, observer, projection, catalogue, null);
+    }
+
+    /**
+     * Initializes the ObservedSky as {@link #ObservedSky(ZonedDateTime, GeographicCoordinates,
+     * StereographicProjection, StarCatalogue)} does, but fills in the buffers of the positions of
+     * the stars (and of their grid) of the provided sky instead of allocating new ones, when they
+     * are large enough. This allows to observe the sky at each frame without allocating memory
+     * per star: the caller keeps the sky on display and the previous one, whose buffers are
+     * refilled (double buffering).
+     * <p>
+     * The recycled sky must not be used anymore afterwards, since its positions are overwritten.
+     *
+     * @param moment     the moment at which the sky is observed
+     * @param observer   the position from which the sky is observed
+     * @param projection the projection to use
+     * @param catalogue  the catalogue of stars
+     * @param recycled   the sky whose buffers are reused, or {@code null} to allocate new buffers
+     */
+    public ObservedSky(ZonedDateTime moment, GeographicCoordinates observer, StereographicProjection projection,
+                       StarCatalogue catalogue, ObservedSky recycled) {
+        this(moment, observer, projection, catalogue, recycled, StarProjectionMode.AUTOMATIC);
+    }
+
+    /**
+     * Initializes the ObservedSky as {@link #ObservedSky(ZonedDateTime, GeographicCoordinates,
+     * StereographicProjection, StarCatalogue, ObservedSky)} does, projecting the stars in the
+     * provided mode (also used by {@link #withCatalogue(StarCatalogue)}). The positions are the
+     * same whatever the mode.
+     *
+     * @param moment     the moment at which the sky is observed
+     * @param observer   the position from which the sky is observed
+     * @param projection the projection to use
+     * @param catalogue  the catalogue of stars
+     * @param recycled   the sky whose buffers are reused, or {@code null} to allocate new buffers
+     * @param mode       the way of projecting the stars
+     * @throws NullPointerException if the mode is {@code null}
+     */
+    public ObservedSky(ZonedDateTime moment, GeographicCoordinates observer, StereographicProjection projection,
+                       StarCatalogue catalogue, ObservedSky recycled, StarProjectionMode mode) {
+        this(moment, observer, projection, catalogue, recycled, Objects.requireNonNull(mode), null);
+    }
+
+    /**
+     * Initializes the ObservedSky, taking the Sun, the Moon and the planets from the provided sky
+     * if there is one (they are then projected as seen at the provided moment, but their own
+     * motion since the moment at which they were computed is not taken into account).
+     *
+     * @param moment            the moment at which the sky is observed
+     * @param observer          the position from which the sky is observed
+     * @param projection        the projection to use
+     * @param catalogue         the catalogue of stars
+     * @param recycled          the sky whose buffers are reused, or {@code null} to allocate new buffers
+     * @param mode              the way of projecting the stars
+     * @param solarSystemSource the sky to take the solar system from, or {@code null} to compute it
+     */
+    private ObservedSky(ZonedDateTime moment, GeographicCoordinates observer, StereographicProjection projection,
+                        StarCatalogue catalogue, ObservedSky recycled, StarProjectionMode mode,
+                        ObservedSky solarSystemSource) {
         this.catalogue = catalogue;
+        this.moment = moment;
+        this.observer = observer;
+        this.projection = projection;
+        starProjectionMode = mode;
         // -1 to exclude Earth, and +2 for the sun and the moon
-        allObjects = new ArrayList<>(catalogue.stars().size() + (PlanetModel.ALL.size() - 1) + 2);
+        solarSystemObjects = new ArrayList<>((PlanetModel.ALL.size() - 1) + 2);
         // the conversion used for the current situation
-        final EclipticToEquatorialConversion eclipticToEq = new EclipticToEquatorialConversion(moment);
         final EquatorialToHorizontalConversion eqToHorizontal = new EquatorialToHorizontalConversion(moment, observer);
-        // days since J2010
-        final double d = Epoch.J2010.daysUntil(moment);
         final Function<EquatorialCoordinates, CartesianCoordinates> fullProj = projection.compose(eqToHorizontal);
+        starProjection = new UnitVectorProjection(eqToHorizontal, projection);
+        if (solarSystemSource != null) {
+            solarSystemMoment = solarSystemSource.solarSystemMoment;
+            sun = solarSystemSource.sun;
+            moon = solarSystemSource.moon;
+            planets = solarSystemSource.planets;
+        } else {
+            solarSystemMoment = moment;
+            final EclipticToEquatorialConversion eclipticToEq = new EclipticToEquatorialConversion(moment);
+            // days since J2010
+            final double d = Epoch.J2010.daysUntil(moment);
+            sun = SunModel.SUN.at(d, eclipticToEq);
+            moon = MoonModel.MOON.at(d, eclipticToEq);
+            planets = PlanetModel.ALL.stream()
+                    .filter(p -> p != PlanetModel.EARTH) // filtering the Earth
+                    .map(p -> p.at(d, eclipticToEq))
+                    .collect(Collectors.toUnmodifiableList());
+        }
         // set up the Sun
-        sun = SunModel.SUN.at(d, eclipticToEq);
         sunProjection = fullProj.apply(sun.equatorialPos());
-        allObjects.add(new CelestialPair(sunProjection, sun));
+        solarSystemObjects.add(new CelestialPair(sunProjection, sun));
         // set up the Moon
-        moon = MoonModel.MOON.at(d, eclipticToEq);
         moonProjection = fullProj.apply(moon.equatorialPos());
-        allObjects.add(new CelestialPair(moonProjection, moon));
+        solarSystemObjects.add(new CelestialPair(moonProjection, moon));
         // set up the planets
-        planets = PlanetModel.ALL.stream()
-                .filter(p -> p != PlanetModel.EARTH) // filtering the Earth
-                .map(p -> p.at(d, eclipticToEq))
-                .collect(Collectors.toUnmodifiableList());
         planetPositions = new double[2 * planets.size()];
         setupCoordinates(planets, planetPositions, fullProj);
 
-        starPositions = new double[2 * catalogue.stars().size()];
-        setupCoordinates(catalogue.stars(), starPositions, fullProj);
+        // the stars are projected from the primitive columns of the catalogue, so that
+        // no Star instance is needed
+        final boolean recycle = recycled != null && recycled.starX.length == catalogue.starCount();
+        starPositions = recycle ? recycled.starPositions : new double[2 * catalogue.starCount()];
+        starX = recycle ? recycled.starX : new double[catalogue.starCount()];
+        starY = recycle ? recycled.starY : new double[catalogue.starCount()];
+        projectStars(0);
+        recycledGrid = recycled == null ? null : recycled.releaseGrid();
+    }
+
+    /**
+     * Initializes an ObservedSky identical to {@code sky}, but observing the stars of the provided
+     * catalogue, whose first {@code reusedStars} stars are those of the catalogue of {@code sky}:
+     * only the other ones are projected.
+     *
+     * @param sky         the sky to take the solar system and the positions of the first stars from
+     * @param catalogue   the catalogue of stars
+     * @param reusedStars the number of stars whose positions are taken from {@code sky}
+     */
+    private ObservedSky(ObservedSky sky, StarCatalogue catalogue, int reusedStars) {
+        this.catalogue = catalogue;
+        moment = sky.moment;
+        observer = sky.observer;
+        projection = sky.projection;
+        solarSystemMoment = sky.solarSystemMoment;
+        solarSystemObjects = sky.solarSystemObjects;
+        sun = sky.sun;
+        sunProjection = sky.sunProjection;
+        moon = sky.moon;
+        moonProjection = sky.moonProjection;
+        planets = sky.planets;
+        planetPositions = sky.planetPositions;
+        starProjection = sky.starProjection;
+        starProjectionMode = sky.starProjectionMode;
+
+        starPositions = new double[2 * catalogue.starCount()];
+        starX = new double[catalogue.starCount()];
+        starY = new double[catalogue.starCount()];
+        System.arraycopy(sky.starPositions, 0, starPositions, 0, 2 * reusedStars);
+        projectStars(reusedStars);
+    }
+
+    /**
+     * Gives the grid over the positions of the stars, building it on the first call: calling it
+     * beforehand (for instance on the thread computing the sky) spares the building of the grid
+     * to the first call to {@link #objectClosestTo(CartesianCoordinates, double)}.
+     *
+     * @return the grid over the positions of the stars.
+     */
+    synchronized PositionGrid starGrid() {
+        if (starGrid == null) {
+            starGrid = new PositionGrid(starPositions, recycledGrid);
+            recycledGrid = null;
+        }
+        return starGrid;
+    }
+
+    /**
+     * Gives up the arrays of the grid of this sky, which is recycled.
+     *
+     * @return the grid whose arrays can be reused, or {@code null} if there is none.
+     */
+    private synchronized PositionGrid releaseGrid() {
+        final PositionGrid grid = starGrid != null ? starGrid : recycledGrid;
+        starGrid = null;
+        recycledGrid = null;
+        return grid;
+    }
+
+    /**
+     * Projects the stars of the catalogue, from the provided index on, sequentially or in
+     * parallel according to the mode of this sky. As each star is projected on its own, the
+     * positions do not depend on the way the stars are split.
+     *
+     * @param from the index of the first star to project
+     */
+    private void projectStars(int from) {
+        final double[][] vectors = catalogue.unitVectors();
+        final int count = catalogue.starCount();
+        final int workers = ForkJoinPool.getCommonPoolParallelism();
+        final boolean parallel = starProjectionMode == StarProjectionMode.PARALLEL
+                || (starProjectionMode == StarProjectionMode.AUTOMATIC
+                && count - from >= PARALLEL_THRESHOLD && workers >= 2);
+        if (!parallel) {
+            projectStars(vectors, from, count);
+            return;
+        }
+        final int rangeSize = Math.max(MIN_PARALLEL_RANGE,
+                (count - from + RANGES_PER_WORKER * workers - 1) / (RANGES_PER_WORKER * workers));
+        final int ranges = (count - from + rangeSize - 1) / rangeSize;
+        // the parallel stream runs on the common pool, each range writing to its own part of the arrays
+        IntStream.range(0, ranges).parallel().forEach(r -> {
+            final int start = from + r * rangeSize;
+            projectStars(vectors, start, Math.min(count, start + rangeSize));
+        });
+    }
+
+    /**
+     * Projects the stars of indices {@code from} (inclusive) to {@code to} (exclusive). The unit
+     * vectors of the stars (computed once per catalogue) are projected with a single matrix, so
+     * that no object at all is created per star, one axis per array so that the loop runs with
+     * SIMD instructions; the coordinates are then interleaved into the array of the positions.
+     *
+     * @param vectors the unit vectors of the stars of the catalogue
+     * @param from    the index of the first star to project
+     * @param to      the index after the last star to project
+     */
+    private void projectStars(double[][] vectors, int from, int to) {
+        starProjection.apply(vectors[0], vectors[1], vectors[2], from, to, starX, starY);
+        for (int i = from; i < to; i++) {
+            starPositions[2 * i] = starX[i];
+            starPositions[2 * i + 1] = starY[i];
+        }
+    }
+
+    /**
+     * Returns the sky observed at the same moment, from the same place and with the same
+     * projection, but with the provided catalogue of stars. If this catalogue starts with the
+     * stars of the current one (as do the successive catalogues published by
+     * {@link ProgressiveCatalogueLoader}), the positions of those stars are reused and only
+     * the new ones are projected; otherwise, all the stars are projected.
+     *
+     * @param catalogue the catalogue of stars
+     * @return the sky observing the provided catalogue ({@code this} if it is the current one).
+     */
+    public ObservedSky withCatalogue(StarCatalogue catalogue) {
+        if (catalogue == this.catalogue) {
+            return this;
+        }
+        final int reusedStars = catalogue.startsWithPositionsOf(this.catalogue) ? this.catalogue.starCount() : 0;
+        return new ObservedSky(this, catalogue, reusedStars);
+    }
+
+    /**
+     * Returns the sky observed at the provided moment, from the same place, with the same
+     * projection and the same catalogue. This is meant for animations, where only the moment
+     * changes from one frame to the next: the stars are projected with the matrix of the new
+     * moment (the rotation of the sky around the pole, from the sidereal time), whereas the Sun,
+     * the Moon and the planets, whose own motion is slow, are only computed again once they are
+     * older than {@code maxSolarSystemAge}. Until then, their positions of this sky are projected
+     * as seen at the new moment, so that they follow the rotation of the sky.
+     * <p>
+     * With an age of zero, the result is the same as {@link #ObservedSky(ZonedDateTime,
+     * GeographicCoordinates, StereographicProjection, StarCatalogue, ObservedSky)}.
+     *
+     * @param moment            the moment at which the sky is observed
+     * @param maxSolarSystemAge the maximal difference between the moment and the one at which the
+     *                          Sun, the Moon and the planets were computed
+     * @param recycled          the sky whose buffers are reused, or {@code null} to allocate new buffers
+     *                          (it must not be this sky)
+     * @return the sky observed at the provided moment.
+     * @throws NullPointerException if the moment or the age is {@code null}
+     */
+    public ObservedSky withMoment(ZonedDateTime moment, Duration maxSolarSystemAge, ObservedSky recycled) {
+        final Duration age = Duration.between(solarSystemMoment, Objects.requireNonNull(moment)).abs();
+        final boolean keepSolarSystem = age.compareTo(Objects.requireNonNull(maxSolarSystemAge)) <= 0;
+        return new ObservedSky(moment, observer, projection, catalogue, recycled, starProjectionMode,
+                keepSolarSystem ? this : null);
     }
 
     /**
@@ -120,7 +425,7 @@ public class ObservedSky {
             // store coordinates
             positions[2 * i] = coordinates.x();
             positions[2 * i + 1] = coordinates.y();
-            allObjects.add(new CelestialPair(coordinates, current));
+            solarSystemObjects.add(new CelestialPair(coordinates, current));
         }
     }
 
@@ -168,6 +473,14 @@ public class ObservedSky {
         return Arrays.copyOf(planetPositions, planetPositions.length);
     }
 
+    /**
+     * @return a read-only view of the positions of all the planets, laid out as in
+     * {@link #planetPositions()}, without copying them.
+     */
+    public DoubleBuffer planetPositionBuffer() {
+        return DoubleBuffer.wrap(planetPositions).asReadOnlyBuffer();
+    }
+
     /**
      * @return the list of the stars.
      */
@@ -176,7 +489,35 @@ public class ObservedSky {
     }
 
     /**
-     * @return the positions of all the planets, where each one of them
+     * @return the catalogue of the observed stars.
+     */
+    public StarCatalogue catalogue() {
+        return catalogue;
+    }
+
+    /**
+     * @return the moment at which the sky is observed.
+     */
+    public ZonedDateTime moment() {
+        return moment;
+    }
+
+    /**
+     * @return the position from which the sky is observed.
+     */
+    public GeographicCoordinates observer() {
+        return observer;
+    }
+
+    /**
+     * @return the projection of the sky.
+     */
+    public StereographicProjection projection() {
+        return projection;
+    }
+
+    /**
+     * @return the positions of all the stars, where each one of them
      * takes two indices: the first one, for its x-coordinate; the second one,
      * for its y-coordinate.
      */
@@ -184,6 +525,61 @@ public class ObservedSky {
         return Arrays.copyOf(starPositions, starPositions.length);
     }
 
+    /**
+     * Gives access to the positions of the stars without copying them, which should be preferred
+     * to {@link #starPositions()} when going through all of them at each frame. The view follows
+     * the positions of this sky: if the sky is recycled (see {@link #ObservedSky(ZonedDateTime,
+     * GeographicCoordinates, StereographicProjection, StarCatalogue, ObservedSky)}), it holds the
+     * positions of the new sky.
+     *
+     * @return a read-only view of the positions of all the stars, laid out as in {@link #starPositions()}.
+     */
+    public DoubleBuffer starPositionBuffer() {
+        return DoubleBuffer.wrap(starPositions).asReadOnlyBuffer();
+    }
+
+    /**
+     * Culls the stars that cannot be seen: the ones below the provided altitude, and the ones
+     * outside of the cone of the provided angular radius around the center of the projection.
+     * The stars are tested on their unit vectors, not on their positions, so that the ones close
+     * to the opposite of the center (sent far away by the projection) are never an issue.
+     * <p>
+     * All the stars keep their positions: the culled ones can still be located (see
+     * {@link #locate(CelestialObject)}), picked (see {@link #objectClosestTo(CartesianCoordinates,
+     * double)}) and used by the asterisms.
+     *
+     * @param minAltitude        the minimal altitude of the kept stars, in radians
+     *                           ({@code -PI/2} or less to keep all of them)
+     * @param maxAngularDistance the maximal angular distance of the kept stars to the center of
+     *                           the projection, in radians ({@code PI} or more to keep all of them)
+     * @return the indices of the kept stars, in increasing order.
+     */
+    public int[] visibleStars(double minAltitude, double maxAngularDistance) {
+        final int[] selected = new int[catalogue.starCount()];
+        return Arrays.copyOf(selected, visibleStars(minAltitude, maxAngularDistance, selected));
+    }
+
+    /**
+     * Culls the stars that cannot be seen, as {@link #visibleStars(double, double)} does, but
+     * writes the indices of the kept stars to the provided array instead of allocating a new one,
+     * so that it can be reused from one frame to the next.
+     *
+     * @param minAltitude        the minimal altitude of the kept stars, in radians
+     *                           ({@code -PI/2} or less to keep all of them)
+     * @param maxAngularDistance the maximal angular distance of the kept stars to the center of
+     *                           the projection, in radians ({@code PI} or more to keep all of them)
+     * @param selected           the array receiving the indices of the kept stars, in increasing
+     *                           order, which must hold at least as many values as there are stars
+     * @return the number of kept stars.
+     * @throws IllegalArgumentException if the array holds less values than there are stars
+     */
+    public int visibleStars(double minAltitude, double maxAngularDistance, int[] selected) {
+        Preconditions.checkArgument(selected.length >= catalogue.starCount());
+        final double[][] vectors = catalogue.unitVectors();
+        return starProjection.select(vectors[0], vectors[1], vectors[2], 0, catalogue.starCount(),
+                minAltitude, maxAngularDistance, selected);
+    }
+
     /**
      * @return the list of the asterisms.
      */
@@ -201,8 +597,11 @@ public class ObservedSky {
     }
 
     /**
+     * Locates the provided object in constant time: the stars are looked up in the identity index
+     * of the catalogue (see {@link StarCatalogue#indexOf(Star)}), and the planets by their name.
+     *
      * @param o the object to locate
-     * @return the position in {@link HorizontalCoordinates} of the provided {@link CelestialObject}
+     * @return the position in {@link CartesianCoordinates} of the provided {@link CelestialObject}
      * on the current sky. Returns {@code null} if the provided objects is not in the list of objects.
      * @throws NullPointerException if {@code o} is {@code null}
      */
@@ -213,27 +612,47 @@ public class ObservedSky {
             case MOON:
                 return moonProjection;
             case STAR:
-                final Star s = (Star) o;
-                for (int i = 0; i < catalogue.stars().size(); ++i) {
-                    final Star other = catalogue.stars().get(i);
-                    if (Objects.equals(other, s)) {
-                        return CartesianCoordinates.of(starPositions[2 * i], starPositions[2 * i + 1]);
-                    }
-                }
+                final int starIndex = catalogue.indexOf((Star) o);
+                return starIndex == -1 ? null
+                        : CartesianCoordinates.of(starPositions[2 * starIndex], starPositions[2 * starIndex + 1]);
             case PLANET:
-                int index = 0;
-                for (int i = 0; i < planets.size(); i++) {
-                    final Planet planet = planets.get(i);
-                    if (planet.name().equals(o.name())) {
-                        index = i;
-                        break;
-                    }
-                }
-                return CartesianCoordinates.of(planetPositions[2 * index], planetPositions[2 * index + 1]);
+                final int slot = planetSlot(o);
+                return slot == -1 ? null
+                        : CartesianCoordinates.of(planetPositions[2 * slot], planetPositions[2 * slot + 1]);
         }
         return null; // unreachable statement, all the cases have been covered
     }
 
+    /**
+     * Locates all the provided objects at once (see {@link #locate(CelestialObject)}).
+     *
+     * @param objects the objects to locate
+     * @return the positions of the provided objects, in order, where each one of them takes two
+     * indices: the first one, for its x-coordinate; the second one, for its y-coordinate. Both are
+     * {@link Double#NaN} for the objects that are not in the list of objects.
+     * @throws NullPointerException if one of the objects is {@code null}
+     */
+    public double[] locateAll(List<? extends CelestialObject> objects) {
+        final double[] positions = new double[2 * objects.size()];
+        for (int i = 0; i < objects.size(); i++) {
+            final CartesianCoordinates position = locate(objects.get(i));
+            positions[2 * i] = position == null ? Double.NaN : position.x();
+            positions[2 * i + 1] = position == null ? Double.NaN : position.y();
+        }
+        return positions;
+    }
+
+    /**
+     * @param planet a planet
+     * @return the index of the planet of the same name in {@link #planets()}, or {@code -1}
+     * if there is no such planet.
+     */
+    private int planetSlot(CelestialObject planet) {
+        // the planets of the list are ordered as their models
+        final Integer slot = PLANET_SLOTS.get(planet.name());
+        return slot != null ? slot : -1;
+    }
+
     /**
      * @param where       a position on the plan
      * @param maxDistance the maximal distance allowed, from the point {@code where}
@@ -244,21 +663,36 @@ public class ObservedSky {
     public Optional<CelestialObject> objectClosestTo(CartesianCoordinates where, double maxDistance) {
         CelestialObject closest = null;
         double best = Double.MAX_VALUE;
-        for (CelestialPair pair : allObjects) {
+        for (CelestialPair pair : solarSystemObjects) {
             final double d = pair.position.distSquared(where);
             if (best > d && d <= maxDistance * maxDistance) {
                 closest = pair.object;
                 best = d;
             }
         }
+        // the stars come after the other objects, as in all(), so a star must be strictly closer
+        final int closestStar = starGrid().closestTo(where, maxDistance);
+        if (closestStar != -1
+                && best > where.distSquared(starPositions[2 * closestStar], starPositions[2 * closestStar + 1])) {
+            closest = catalogue.stars().get(closestStar);
+        }
         return Optional.ofNullable(closest);
     }
 
     /**
-     * @return the collection of all celestial objects.
+     * Builds the list of all the celestial objects. This creates the {@link Star} instances
+     * of all the stars of the catalogue, and should therefore be avoided for large catalogues.
+     *
+     * @return the collection of all celestial objects: the Sun, the Moon, the planets, and then the stars.
      */
     public List<CelestialPair> all() {
-        return Collections.unmodifiableList(allObjects);
+        final List<CelestialPair> all = new ArrayList<>(solarSystemObjects.size() + catalogue.starCount());
+        all.addAll(solarSystemObjects);
+        for (int i = 0; i < catalogue.starCount(); i++) {
+            all.add(new CelestialPair(CartesianCoordinates.of(starPositions[2 * i], starPositions[2 * i + 1]),
+                    catalogue.stars().get(i)));
+        }
+        return Collections.unmodifiableList(all);
     }
 
 }
@@ -0,0 +1,280 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.CartesianCoordinates;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over projected positions, allowing to find the closest position to a point
+ * without looking at all of them.
+ * <p>
+ * The grid covers the bounding box of the positions, limited to {@code [-GRID_LIMIT, GRID_LIMIT]}
+ * on both axes: the positions outside of it (the ones close to the opposite of the center of the
+ * projection, which are sent far away by the stereographic projection) are kept aside, and only
+ * looked at when the searched disc is not entirely inside the grid.
+ *
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+final class PositionGrid {
+
+    /**
+     * The bound of the coordinates of the positions held in the cells (the horizon of a projection
+     * centered at the zenith is the unit circle, and this bound is reached 28° from the nadir).
+     */
+    private static final double GRID_LIMIT = 4d;
+    /**
+     * The mean number of positions per cell.
+     */
+    private static final int POSITIONS_PER_CELL = 4;
+    /**
+     * The maximal number of cells along each axis.
+     */
+    private static final int MAX_CELLS = 1024;
+
+    private final double[] positions;
+
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+
+    // the indices of the positions of cell c are order[cellStarts[c] .. cellStarts[c + 1]), in increasing
+    // order, and the indices of the finite positions outside of the grid are order[outsideStart .. outsideEnd),
+    // in increasing order as well (the arrays may be larger than needed, when they are recycled)
+    private final int[] cellStarts;
+    private final int[] order;
+    private final int outsideStart;
+    private final int outsideEnd;
+
+    // the cell of each position (-1 for the positions outside of the grid), only kept to be recycled
+    private final int[] cells;
+
+    /**
+     * Builds the grid over the provided positions (which must not be modified afterwards).
+     *
+     * @param positions the positions, where each one of them takes two indices: the first one,
+     *                  for its x-coordinate; the second one, for its y-coordinate
+     */
+    PositionGrid(double[] positions) {
+        this(positions, null);
+    }
+
+    /**
+     * Builds the grid over the provided positions (which must not be modified afterwards), reusing
+     * the arrays of the provided grid when they are large enough.
+     *
+     * @param positions the positions, where each one of them takes two indices: the first one,
+     *                  for its x-coordinate; the second one, for its y-coordinate
+     * @param recycled  the grid whose arrays are reused, which must not be used afterwards,
+     *                  or {@code null} to allocate new arrays
+     */
+    PositionGrid(double[] positions, PositionGrid recycled) {
+        this.positions = positions;
+        final int count = positions.length / 2;
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        int inside = 0;
+        for (int i = 0; i < count; i++) {
+            final double x = positions[2 * i];
+            final double y = positions[2 * i + 1];
+            if (isInsideLimit(x, y)) {
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+                inside++;
+            }
+        }
+        if (inside == 0) {
+            // empty grid, whose box contains no point
+            minX = minY = 0;
+            maxX = maxY = -1;
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+
+        final double width = Math.max(0, maxX - minX);
+        final double height = Math.max(0, maxY - minY);
+        final int cellsPerSide = (int) Math.min(MAX_CELLS,
+                Math.max(1, Math.ceil(Math.sqrt((double) inside / POSITIONS_PER_CELL))));
+        final double size = Math.max(width, height) / cellsPerSide;
+        cellSize = size > 0 ? size : 1d;
+        columns = Math.max(1, Math.min(cellsPerSide, (int) Math.ceil(width / cellSize)));
+        rows = Math.max(1, Math.min(cellsPerSide, (int) Math.ceil(height / cellSize)));
+
+        // counting sort of the positions by cell, which keeps the indices in increasing order
+        // within each cell
+        cellStarts = recycled != null && recycled.cellStarts.length >= columns * rows + 1
+                ? recycled.cellStarts
+                : new int[columns * rows + 1];
+        Arrays.fill(cellStarts, 0, columns * rows + 1, 0);
+        cells = recycled != null && recycled.cells.length >= count ? recycled.cells : new int[count];
+        int outsideCount = 0;
+        for (int i = 0; i < count; i++) {
+            final double x = positions[2 * i];
+            final double y = positions[2 * i + 1];
+            if (isInsideLimit(x, y)) {
+                cells[i] = cellOf(x, y);
+                cellStarts[cells[i]]++;
+            } else {
+                cells[i] = -1;
+                // the positions that are not finite are never the closest ones
+                if (Double.isFinite(x) && Double.isFinite(y)) {
+                    outsideCount++;
+                }
+            }
+        }
+        // each cell then holds the end of its positions
+        for (int c = 1; c < columns * rows; c++) {
+            cellStarts[c] += cellStarts[c - 1];
+        }
+        cellStarts[columns * rows] = inside;
+        order = recycled != null && recycled.order.length >= count ? recycled.order : new int[count];
+        outsideStart = inside;
+        outsideEnd = inside + outsideCount;
+        // the positions are put in place from the end of each cell, in decreasing order, so that
+        // each cell finally holds the start of its positions
+        int nextOutside = outsideEnd;
+        for (int i = count - 1; i >= 0; i--) {
+            if (cells[i] >= 0) {
+                order[--cellStarts[cells[i]]] = i;
+            } else if (Double.isFinite(positions[2 * i]) && Double.isFinite(positions[2 * i + 1])) {
+                order[--nextOutside] = i;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the provided coordinates are within the limits of the grid.
+     */
+    private static boolean isInsideLimit(double x, double y) {
+        return Math.abs(x) <= GRID_LIMIT && Math.abs(y) <= GRID_LIMIT;
+    }
+
+    /**
+     * @return the index of the cell holding the provided point of the box of the grid.
+     */
+    private int cellOf(double x, double y) {
+        return rowOf(y) * columns + columnOf(x);
+    }
+
+    private int columnOf(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) ((x - minX) / cellSize)));
+    }
+
+    private int rowOf(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) ((y - minY) / cellSize)));
+    }
+
+    /**
+     * Looks up the closest position to the provided point, at most {@code maxDistance} away from it.
+     * The result is exactly the one of a linear search over the positions in increasing order, keeping
+     * the first one of the closest positions: when several positions are equally close, the one with
+     * the smallest index is returned.
+     *
+     * @param where       a point
+     * @param maxDistance the maximal distance between the point and the position
+     * @return the index of the closest position, or {@code -1} if there is no position close enough.
+     */
+    int closestTo(CartesianCoordinates where, double maxDistance) {
+        final Closest closest = new Closest(where, maxDistance * maxDistance);
+        final double x = where.x();
+        final double y = where.y();
+        // the positions outside of the grid may only be close enough if the searched disc is
+        // not entirely inside the box of the grid
+        if (!(x - maxDistance >= minX && x + maxDistance <= maxX
+                && y - maxDistance >= minY && y + maxDistance <= maxY)) {
+            for (int j = outsideStart; j < outsideEnd; j++) {
+                closest.offer(order[j]);
+            }
+        }
+        if (outsideStart == 0) {
+            return closest.index;
+        }
+
+        // the cells are visited by square rings around the cell of the point (brought back into the
+        // box, which brings it closer to all the positions in the cells); a position in the k-th ring
+        // is at least (k - 1) cells away from the point, and one more cell is given up to make up for
+        // the rounding errors
+        final int column = columnOf(x);
+        final int row = rowOf(y);
+        final int maxRing = Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row));
+        for (int ring = 0; ring <= maxRing; ring++) {
+            final double lowerBound = (ring - 2) * cellSize;
+            if (lowerBound > 0 && lowerBound * lowerBound > closest.distance) {
+                break;
+            }
+            final int fromRow = Math.max(0, row - ring);
+            final int toRow = Math.min(rows - 1, row + ring);
+            final int fromColumn = Math.max(0, column - ring);
+            final int toColumn = Math.min(columns - 1, column + ring);
+            for (int r = fromRow; r <= toRow; r++) {
+                if (r == row - ring || r == row + ring) {
+                    // the whole row is in the ring
+                    for (int c = fromColumn; c <= toColumn; c++) {
+                        offerCell(closest, r * columns + c);
+                    }
+                } else {
+                    // only the first and last columns are in the ring
+                    if (column - ring >= 0) {
+                        offerCell(closest, r * columns + column - ring);
+                    }
+                    if (column + ring < columns) {
+                        offerCell(closest, r * columns + column + ring);
+                    }
+                }
+            }
+        }
+        return closest.index;
+    }
+
+    /**
+     * Offers all the positions of the provided cell to the search.
+     */
+    private void offerCell(Closest closest, int cell) {
+        for (int j = cellStarts[cell]; j < cellStarts[cell + 1]; j++) {
+            closest.offer(order[j]);
+        }
+    }
+
+    /**
+     * The closest position found so far during a search.
+     */
+    private final class Closest {
+        private final CartesianCoordinates where;
+        private double distance;
+        private int index = -1;
+
+        /**
+         * @param where       the searched point
+         * @param maxDistance the square of the maximal distance of the position
+         */
+        private Closest(CartesianCoordinates where, double maxDistance) {
+            this.where = where;
+            this.distance = maxDistance;
+        }
+
+        /**
+         * Keeps the position of the provided index if it is closer than the current one,
+         * or as close but with a smaller index.
+         *
+         * @param i the index of a position
+         */
+        private void offer(int i) {
+            final double d = where.distSquared(positions[2 * i], positions[2 * i + 1]);
+            if (d < distance || (d == distance && (index == -1 || i < index))) {
+                distance = d;
+                index = i;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.Preconditions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Loads a binary catalogue (see {@link BinaryDatabaseLoader}) progressively: the brightest
+ * stars are published first, so that they can be shown right away, then the fainter ones are
+ * added chunk after chunk. Each published catalogue starts with all the stars of the previous
+ * one, in the same order, so that their positions can be reused (see
+ * {@link ObservedSky#withCatalogue(StarCatalogue)}).
+ * <p>
+ * This only works as intended with catalogues sorted by magnitude, as written by
+ * {@link BinaryDatabaseLoader#writeByMagnitude(StarCatalogue, java.io.OutputStream)}: other
+ * catalogues are published at once.
+ *
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public final class ProgressiveCatalogueLoader {
+
+    /**
+     * The default magnitude of the faintest stars of the first catalogue.
+     */
+    public static final float DEFAULT_FIRST_MAGNITUDE = 4f;
+    /**
+     * The default number of stars added by each following catalogue.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 20_000;
+
+    /**
+     * Loads the provided catalogue progressively on the provided executor, and publishes the
+     * catalogues to the {@code listener} (on the loading thread): first, the stars at least as
+     * bright as {@code firstMagnitude}; then, {@code chunkSize} more stars each time; finally,
+     * all the stars with the asterisms. The asterisms are only resolved once all the stars
+     * have been loaded, since they may refer to any of them.
+     *
+     * @param stars          the path to the binary catalogue of stars
+     * @param asterisms      the stream of the asterisms catalogue, read and closed once all the stars
+     *                       are loaded, or {@code null} to load no asterisms
+     * @param firstMagnitude the magnitude of the faintest stars of the first catalogue
+     * @param chunkSize      the number of stars added by each following catalogue
+     * @param listener       the consumer of the successive catalogues
+     * @param executor       the executor running the loading
+     * @return a future completed with the complete catalogue (which is also the last one published),
+     * or completed exceptionally if one of the files could not have been read or holds invalid data.
+     * @throws IllegalArgumentException if {@code chunkSize} is not strictly positive
+     */
+    public static CompletableFuture<StarCatalogue> load(Path stars, InputStream asterisms, float firstMagnitude,
+                                                        int chunkSize, Consumer<StarCatalogue> listener,
+                                                        Executor executor) {
+        Preconditions.checkArgument(chunkSize > 0);
+        Objects.requireNonNull(stars);
+        Objects.requireNonNull(listener);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return load(stars, asterisms, firstMagnitude, chunkSize, listener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Loads the provided catalogue progressively on the current thread.
+     *
+     * @see #load(Path, InputStream, float, int, Consumer, Executor)
+     */
+    private static StarCatalogue load(Path stars, InputStream asterisms, float firstMagnitude, int chunkSize,
+                                      Consumer<StarCatalogue> listener) throws IOException {
+        // the asterisms are closed whatever happens (a null resource is simply not closed)
+        try (asterisms) {
+            final BinaryDatabaseLoader.Columns columns;
+            try (final FileChannel channel = FileChannel.open(stars, StandardOpenOption.READ)) {
+                columns = new BinaryDatabaseLoader.Columns(
+                        channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+            final int count = columns.count();
+            int loaded = isSortedByMagnitude(columns) ? brighterCount(columns, firstMagnitude) : count;
+
+            final StarCatalogue.Builder builder = new StarCatalogue.Builder();
+            columns.addStars(0, loaded, builder);
+            while (loaded < count) {
+                listener.accept(builder.build());
+                final int next = (int) Math.min(count, (long) loaded + chunkSize);
+                columns.addStars(loaded, next, builder);
+                loaded = next;
+            }
+            if (asterisms != null) {
+                builder.loadFrom(asterisms, AsterismLoader.INSTANCE);
+            }
+            final StarCatalogue complete = builder.build();
+            listener.accept(complete);
+            return complete;
+        }
+    }
+
+    /**
+     * @param columns the columns of a binary catalogue
+     * @return {@code true} if the stars of the catalogue are sorted by increasing magnitude.
+     */
+    private static boolean isSortedByMagnitude(BinaryDatabaseLoader.Columns columns) {
+        for (int i = 1; i < columns.count(); i++) {
+            if (columns.magnitude(i - 1) > columns.magnitude(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param columns        the columns of a binary catalogue sorted by magnitude
+     * @param magnitudeLimit a magnitude
+     * @return the number of stars at least as bright as the provided limit (found by binary search).
+     */
+    private static int brighterCount(BinaryDatabaseLoader.Columns columns, float magnitudeLimit) {
+        int low = 0;
+        int high = columns.count();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (columns.magnitude(middle) <= magnitudeLimit) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private ProgressiveCatalogueLoader() {
+    }
+
+}
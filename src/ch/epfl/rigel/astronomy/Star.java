@@ -21,6 +21,7 @@ public final class Star extends CelestialObject {
     private static final Interval COLOR_INTERVAL = ClosedInterval.of(-0.5d, 5.5d);
 
     private final int hipparcosId;
+    private final float colorIndex;
     private final int colorTemperature;
 
     /**
@@ -35,11 +36,21 @@ public final class Star extends CelestialObject {
     public Star(int hipparcosId, String name, EquatorialCoordinates equatorialPos, float magnitude, float colorIndex) {
         super(name, equatorialPos, 0, magnitude);
         checkArgument(hipparcosId >= 0);
-        // Here, we do not write: this.colorIndex = checkInInterval(...)
+        this.hipparcosId = hipparcosId;
+        this.colorIndex = colorIndex;
+        colorTemperature = colorTemperature(colorIndex);
+    }
+
+    /**
+     * @param colorIndex the B-V color index of a star
+     * @return the color temperature (in Kelvins) associated with the provided color index.
+     * @throws IllegalArgumentException if {@code colorIndex} is not between -0.5 and 5.5, inclusive.
+     */
+    static int colorTemperature(float colorIndex) {
+        // Here, we do not write: colorIndex = checkInInterval(...)
         // to avoid casting the value of colorIndex twice (first to a double and then back to a float)
         checkInInterval(COLOR_INTERVAL, colorIndex);
-        this.hipparcosId = hipparcosId;
-        colorTemperature = (int) (4600 * (1 / (0.92d * colorIndex + 1.7d) + 1 / (0.92d * colorIndex + 0.62d)));
+        return (int) (4600 * (1 / (0.92d * colorIndex + 1.7d) + 1 / (0.92d * colorIndex + 0.62d)));
     }
 
     /**
@@ -49,6 +60,13 @@ public final class Star extends CelestialObject {
         return hipparcosId;
     }
 
+    /**
+     * @return the B-V color index of the star.
+     */
+    public float colorIndex() {
+        return colorIndex;
+    }
+
     /**
      * Computes the color temperature (in Kelvins) according to the B-V color index of the star.
      *
@@ -16,8 +16,8 @@ import java.util.stream.Collectors;
  */
 public final class StarCatalogue {
 
-    private final List<Star> starCatalogue;
-    private final Map<Asterism, List<Integer>> asterismMap;
+    private final StarTable stars;
+    private final Map<Asterism, int[]> asterismMap;
 
     /**
      * @param stars     the stars of the star catalogue
@@ -27,31 +27,178 @@ public final class StarCatalogue {
      * has a star that is not in {@code star}
      */
     public StarCatalogue(List<Star> stars, List<Asterism> asterisms) {
-        for (Asterism ast : asterisms) {
-            Preconditions.checkArgument(stars.containsAll(ast.stars()));
-        }
-        starCatalogue = List.copyOf(stars);
-        asterismMap = new HashMap<>(asterisms.size());
-        final Map<Star, Integer> indices = new HashMap<>(stars.size());
-        for (int i = 0; i < stars.size(); i++) {
-            indices.put(stars.get(i), i);
-        }
+        this(tableOf(stars), asterisms);
+    }
+
+    /**
+     * @param stars     the table holding the stars of the catalogue (not copied)
+     * @param asterisms the asterisms of the star catalogue
+     *
+     * @throws IllegalArgumentException if there is an asterism, from {@code asterisms}, that
+     * has a star that is not in {@code star}
+     */
+    private StarCatalogue(StarTable stars, List<Asterism> asterisms) {
+        this.stars = stars;
+        // insertion-ordered, so that the asterisms are iterated in the order they have been added
+        asterismMap = new LinkedHashMap<>(asterisms.size());
         for (Asterism asterism : asterisms) {
-            asterismMap.put(asterism, asterism.stars().stream()
-                    .map(indices::get)
-                    .collect(Collectors.toUnmodifiableList()));
+            final int[] asterismIndices = new int[asterism.stars().size()];
+            for (int i = 0; i < asterismIndices.length; i++) {
+                // the stars of the asterisms necessarily are instances that have already been created,
+                // which the table indexes: the validation of the asterisms is linear in their size
+                final int index = stars.indexOf(asterism.stars().get(i));
+                Preconditions.checkArgument(index != -1);
+                asterismIndices[i] = index;
+            }
+            asterismMap.put(asterism, asterismIndices);
+        }
+    }
+
+    /**
+     * @param stars a list of stars
+     * @return a table holding the provided stars.
+     * @throws NullPointerException if one of the stars is {@code null}
+     */
+    private static StarTable tableOf(List<Star> stars) {
+        final StarTable table = new StarTable();
+        for (Star star : stars) {
+            table.add(star);
         }
+        return table.trimmedCopy();
     }
 
     /**
-     * @return the stars of the star catalogue.
+     * @return the stars of the star catalogue. The {@link Star} instances are created
+     * on demand, so the primitive accessors (<em>e.g.</em> {@link #ra(int)}) should be
+     * preferred when going through all the stars.
      */
     public List<Star> stars() {
-        return starCatalogue;
+        return stars.asList();
     }
 
     /**
-     * @return a {@link Set} of the asterisms contained in the current instance.
+     * @return the number of stars in the catalogue.
+     */
+    public int starCount() {
+        return stars.size();
+    }
+
+    /**
+     * @param index the index of a star of the catalogue
+     * @return the Hipparcos identification code of the star.
+     */
+    public int hipparcosId(int index) {
+        return stars.hipparcosId(index);
+    }
+
+    /**
+     * @param index the index of a star of the catalogue
+     * @return the name of the star.
+     */
+    public String starName(int index) {
+        return stars.name(index);
+    }
+
+    /**
+     * @param index the index of a star of the catalogue
+     * @return the right ascension of the star, in radians.
+     */
+    public double ra(int index) {
+        return stars.ra(index);
+    }
+
+    /**
+     * @param index the index of a star of the catalogue
+     * @return the declination of the star, in radians.
+     */
+    public double dec(int index) {
+        return stars.dec(index);
+    }
+
+    /**
+     * @return the unit vectors of the equatorial positions of the stars, as one array per component
+     * (x, y and z), computed on the first call (see {@link ch.epfl.rigel.coordinates.UnitVectorProjection}).
+     * The returned arrays must not be modified.
+     */
+    double[][] unitVectors() {
+        return stars.unitVectors();
+    }
+
+    /**
+     * @param other another catalogue
+     * @return {@code true} if the first stars of this catalogue have the same positions as all the
+     * stars of {@code other}, in the same order (as for the catalogues published by
+     * {@link ProgressiveCatalogueLoader}).
+     */
+    boolean startsWithPositionsOf(StarCatalogue other) {
+        return stars.startsWithPositionsOf(other.stars);
+    }
+
+    /**
+     * @param index the index of a star of the catalogue
+     * @return the magnitude of the star.
+     */
+    public float magnitude(int index) {
+        return stars.magnitude(index);
+    }
+
+    /**
+     * @param index the index of a star of the catalogue
+     * @return the color index of the star.
+     */
+    public float colorIndex(int index) {
+        return stars.colorIndex(index);
+    }
+
+    /**
+     * @param index the index of a star of the catalogue
+     * @return the color temperature of the star, in Kelvins.
+     */
+    public int colorTemperature(int index) {
+        return stars.colorTemperature(index);
+    }
+
+    /**
+     * Looks up a star in constant time: the catalogue keeps the index of each {@link Star} instance
+     * it has returned or been built with. As {@link Star} does not override {@code equals}, only
+     * those instances are found.
+     *
+     * @param star a star
+     * @return the index of the provided star in the catalogue, or {@code -1} if it
+     * is not in the catalogue.
+     */
+    public int indexOf(Star star) {
+        return stars.indexOf(star);
+    }
+
+    /**
+     * Looks up a star by its Hipparcos identification code, in logarithmic time (the codes are
+     * sorted on the first lookup). Several stars may share the same code (<em>e.g.</em> 0, for the
+     * stars that have none), in which case the first one is returned.
+     *
+     * @param hipparcosId a Hipparcos identification code
+     * @return the index of the first star of the catalogue with the provided code, or {@code -1}
+     * if there is no such star.
+     */
+    public int indexOfHipparcosId(int hipparcosId) {
+        return stars.indexOfHipparcosId(hipparcosId);
+    }
+
+    /**
+     * Looks up all the stars with the provided Hipparcos identification code, in logarithmic time
+     * plus the number of stars found (see {@link #indexOfHipparcosId(int)}).
+     *
+     * @param hipparcosId a Hipparcos identification code
+     * @return the indices of all the stars of the catalogue with the provided code, in increasing
+     * order (an empty array if there is no such star).
+     */
+    public int[] indicesOfHipparcosId(int hipparcosId) {
+        return stars.indicesOfHipparcosId(hipparcosId);
+    }
+
+    /**
+     * @return a {@link Set} of the asterisms contained in the current instance, in the order
+     * they have been added.
      */
     public Set<Asterism> asterisms() {
         return asterismMap.keySet();
@@ -67,8 +214,54 @@ public final class StarCatalogue {
      * @throws IllegalArgumentException if there is no such asterism in this catalogue
      */
     public List<Integer> asterismIndices(Asterism asterism) {
-        Preconditions.checkArgument(asterismMap.containsKey(asterism));
-        return asterismMap.get(asterism);
+        return Arrays.stream(asterismIndexArray(asterism)).boxed().collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Finds the indices of the stars of an asterism in the {@code starCatalogue}, without boxing them.
+     *
+     * @param asterism the asterism of which we want to find the indices of the stars composing it.
+     * @return a new array holding the positions in the {@code starCatalogue} of the stars of
+     * the {@code asterism}, in the same order as in the asterism.
+     *
+     * @throws IllegalArgumentException if there is no such asterism in this catalogue
+     * @see #asterismIndices(Asterism)
+     */
+    public int[] asterismIndexArray(Asterism asterism) {
+        final int[] indices = asterismMap.get(asterism);
+        Preconditions.checkArgument(indices != null);
+        return indices.clone();
+    }
+
+    /**
+     * Visits the segments of an asterism, given by the indices of their stars in the catalogue.
+     */
+    @FunctionalInterface
+    public interface SegmentVisitor {
+        /**
+         * @param from the index of the star at the start of the segment
+         * @param to   the index of the star at the end of the segment
+         */
+        void visit(int from, int to);
+    }
+
+    /**
+     * Visits the segments between the consecutive stars of an asterism, in order, straight from
+     * the indices stored by the catalogue: unlike {@link #asterismIndexArray(Asterism)}, nothing
+     * is copied, so that the asterisms can be gone through at each frame.
+     *
+     * @param asterism the asterism whose segments are visited
+     * @param visitor  the visitor of the segments
+     * @throws IllegalArgumentException if there is no such asterism in this catalogue
+     * @throws NullPointerException     if the visitor is {@code null}
+     */
+    public void forEachAsterismSegment(Asterism asterism, SegmentVisitor visitor) {
+        final int[] indices = asterismMap.get(asterism);
+        Preconditions.checkArgument(indices != null);
+        Objects.requireNonNull(visitor);
+        for (int i = 0; i < indices.length - 1; i++) {
+            visitor.visit(indices[i], indices[i + 1]);
+        }
     }
 
     /**
@@ -76,8 +269,10 @@ public final class StarCatalogue {
      */
     public final static class Builder {
 
-        private final List<Star> starCatalogue = new ArrayList<>();
+        private final StarTable starCatalogue = new StarTable();
         private final List<Asterism> asterismCatalogue = new ArrayList<>();
+        // shares the equal names of the stars added through their properties
+        private final Map<String, String> names = new HashMap<>();
 
         /**
          * Adds the given Star {@code star} to the list that holds the stars of the catalogue to build.
@@ -90,11 +285,57 @@ public final class StarCatalogue {
             return this;
         }
 
+        /**
+         * Adds a star to the catalogue to build from its properties, without creating
+         * its {@link Star} instance, which will only be created if it is needed.
+         *
+         * @param hipparcosId the Hipparcos identification code
+         * @param name        the name
+         * @param ra          the right ascension, in radians
+         * @param dec         the declination, in radians
+         * @param magnitude   the magnitude
+         * @param colorIndex  the color index
+         * @return the current {@link Builder} instance.
+         * @throws IllegalArgumentException if one of the arguments is not valid for a {@link Star}
+         * @throws NullPointerException     if {@code name} is {@code null}
+         * @see Star#Star(int, String, ch.epfl.rigel.coordinates.EquatorialCoordinates, float, float)
+         */
+        public Builder addStar(int hipparcosId, String name, double ra, double dec, float magnitude, float colorIndex) {
+            starCatalogue.add(hipparcosId, names.computeIfAbsent(name, n -> n), ra, dec, magnitude, colorIndex);
+            return this;
+        }
+
+        /**
+         * Adds all the stars of the provided builder, in order.
+         *
+         * @param other the builder holding the stars to add
+         * @return the current {@link Builder} instance.
+         */
+        Builder addStars(Builder other) {
+            starCatalogue.addAll(other.starCatalogue);
+            return this;
+        }
+
         /**
          * @return an unmodifiable view of the list of stars.
          */
         public List<Star> stars() {
-            return Collections.unmodifiableList(starCatalogue);
+            return starCatalogue.asList();
+        }
+
+        /**
+         * @return the number of stars added so far.
+         */
+        int starCount() {
+            return starCatalogue.size();
+        }
+
+        /**
+         * @param index the index of a star added to the builder
+         * @return the Hipparcos identification code of the star.
+         */
+        int hipparcosId(int index) {
+            return starCatalogue.hipparcosId(index);
         }
 
         /**
@@ -133,7 +374,7 @@ public final class StarCatalogue {
          * and the asterisms that have been added through {@link #addAsterism(Asterism)}.
          */
         public StarCatalogue build() {
-            return new StarCatalogue(starCatalogue, asterismCatalogue);
+            return new StarCatalogue(starCatalogue.trimmedCopy(), asterismCatalogue);
         }
 
     }
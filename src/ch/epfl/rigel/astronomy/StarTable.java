@@ -0,0 +1,408 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.UnitVectorProjection;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import static ch.epfl.rigel.Preconditions.checkArgument;
+
+/**
+ * Structure-of-arrays storage of stars: each property of the stars is held in its
+ * own primitive array, and the {@link Star} instances are only created on demand
+ * (then cached, so that the same instance is always returned for a given index).
+ *
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+final class StarTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int size;
+    private int[] hipparcosIds;
+    private String[] names;
+    private double[] ra;
+    private double[] dec;
+    private float[] magnitudes;
+    private float[] colorIndices;
+    private int[] colorTemperatures;
+    private Star[] views;
+    // the index of each created Star instance (Star does not override equals, hence the identity map);
+    // only accessed under the lock of the table, as the instances are created on demand
+    private Map<Star, Integer> viewIndices = new IdentityHashMap<>();
+    // the Hipparcos identification codes and the indices of the stars, packed in longs and sorted
+    // (see hipparcosOrderKey), built on the first lookup
+    private long[] hipparcosOrder;
+    // the unit vectors of the equatorial positions of the stars (one array per component), computed
+    // on the first use, as they do not depend on the moment of observation
+    private double[][] unitVectors;
+    private final List<Star> list = new StarList();
+
+    /**
+     * Initializes an empty table.
+     */
+    StarTable() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param capacity the initial capacity of the table
+     */
+    private StarTable(int capacity) {
+        hipparcosIds = new int[capacity];
+        names = new String[capacity];
+        ra = new double[capacity];
+        dec = new double[capacity];
+        magnitudes = new float[capacity];
+        colorIndices = new float[capacity];
+        colorTemperatures = new int[capacity];
+        views = new Star[capacity];
+    }
+
+    /**
+     * @return a copy of this table whose arrays have exactly the size of the table
+     * (the already created {@link Star} instances are shared).
+     */
+    StarTable trimmedCopy() {
+        final StarTable copy = new StarTable(0);
+        copy.size = size;
+        copy.hipparcosIds = Arrays.copyOf(hipparcosIds, size);
+        copy.names = Arrays.copyOf(names, size);
+        copy.ra = Arrays.copyOf(ra, size);
+        copy.dec = Arrays.copyOf(dec, size);
+        copy.magnitudes = Arrays.copyOf(magnitudes, size);
+        copy.colorIndices = Arrays.copyOf(colorIndices, size);
+        copy.colorTemperatures = Arrays.copyOf(colorTemperatures, size);
+        copy.views = Arrays.copyOf(views, size);
+        copy.viewIndices = new IdentityHashMap<>(viewIndices);
+        return copy;
+    }
+
+    /**
+     * Makes sure the table can hold {@code capacity} stars.
+     *
+     * @param capacity the required capacity
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > hipparcosIds.length) {
+            final int grown = Math.max(capacity, 2 * hipparcosIds.length);
+            hipparcosIds = Arrays.copyOf(hipparcosIds, grown);
+            names = Arrays.copyOf(names, grown);
+            ra = Arrays.copyOf(ra, grown);
+            dec = Arrays.copyOf(dec, grown);
+            magnitudes = Arrays.copyOf(magnitudes, grown);
+            colorIndices = Arrays.copyOf(colorIndices, grown);
+            colorTemperatures = Arrays.copyOf(colorTemperatures, grown);
+            views = Arrays.copyOf(views, grown);
+        }
+    }
+
+    /**
+     * Adds the provided star, which is then returned as is by {@link #get(int)}.
+     *
+     * @param star the star to add
+     * @throws NullPointerException if {@code star} is {@code null}
+     */
+    void add(Star star) {
+        ensureCapacity(size + 1);
+        hipparcosIds[size] = star.hipparcosId();
+        names[size] = star.name();
+        ra[size] = star.equatorialPos().ra();
+        dec[size] = star.equatorialPos().dec();
+        magnitudes[size] = (float) star.magnitude();
+        colorIndices[size] = star.colorIndex();
+        colorTemperatures[size] = star.colorTemperature();
+        views[size] = star;
+        // as in the original catalogue, the last index of a star added several times is kept
+        viewIndices.put(star, size);
+        size++;
+    }
+
+    /**
+     * Adds a star from its properties, without creating its {@link Star} instance.
+     * The arguments are checked the same way {@link Star#Star(int, String, EquatorialCoordinates, float, float)}
+     * does.
+     *
+     * @param hipparcosId the Hipparcos identification code
+     * @param name        the name
+     * @param ra          the right ascension, in radians
+     * @param dec         the declination, in radians
+     * @param magnitude   the magnitude
+     * @param colorIndex  the color index
+     * @throws IllegalArgumentException if one of the arguments is not valid for a {@link Star}
+     * @throws NullPointerException     if {@code name} is {@code null}
+     */
+    void add(int hipparcosId, String name, double ra, double dec, float magnitude, float colorIndex) {
+        checkArgument(hipparcosId >= 0);
+        Objects.requireNonNull(name);
+        // only used to check the bounds of the coordinates
+        EquatorialCoordinates.of(ra, dec);
+        final int colorTemperature = Star.colorTemperature(colorIndex);
+        ensureCapacity(size + 1);
+        hipparcosIds[size] = hipparcosId;
+        names[size] = name;
+        this.ra[size] = ra;
+        this.dec[size] = dec;
+        magnitudes[size] = magnitude;
+        colorIndices[size] = colorIndex;
+        colorTemperatures[size] = colorTemperature;
+        size++;
+    }
+
+    /**
+     * Adds all the stars of the provided table, in order.
+     *
+     * @param other the table holding the stars to add
+     */
+    void addAll(StarTable other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.hipparcosIds, 0, hipparcosIds, size, other.size);
+        System.arraycopy(other.names, 0, names, size, other.size);
+        System.arraycopy(other.ra, 0, ra, size, other.size);
+        System.arraycopy(other.dec, 0, dec, size, other.size);
+        System.arraycopy(other.magnitudes, 0, magnitudes, size, other.size);
+        System.arraycopy(other.colorIndices, 0, colorIndices, size, other.size);
+        System.arraycopy(other.colorTemperatures, 0, colorTemperatures, size, other.size);
+        System.arraycopy(other.views, 0, views, size, other.size);
+        for (Map.Entry<Star, Integer> entry : other.viewIndices.entrySet()) {
+            viewIndices.put(entry.getKey(), size + entry.getValue());
+        }
+        size += other.size;
+    }
+
+    /**
+     * @param other another table
+     * @return {@code true} if this table holds at least as many stars as {@code other}, and if
+     * its first stars have the same positions as the stars of {@code other}.
+     */
+    boolean startsWithPositionsOf(StarTable other) {
+        return other.size <= size
+                && Arrays.equals(ra, 0, other.size, other.ra, 0, other.size)
+                && Arrays.equals(dec, 0, other.size, other.dec, 0, other.size);
+    }
+
+    /**
+     * @param magnitude the magnitude of a star
+     * @param index     the index of the star
+     * @return a key whose order as a long is the order of the magnitudes, then of the indices
+     * (the magnitude is turned into an int of the same order, held in the upper half of the key,
+     * and the index is held in its lower half).
+     */
+    static long magnitudeOrderKey(float magnitude, int index) {
+        int bits = Float.floatToIntBits(magnitude);
+        bits ^= (bits >> 31) & Integer.MAX_VALUE;
+        return ((long) bits << Integer.SIZE) | index;
+    }
+
+    /**
+     * @return the number of stars in the table.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param index the index of a star
+     * @return the {@link Star} instance at the provided index, which is created on the first call.
+     * @throws IndexOutOfBoundsException if there is no star at the provided index
+     */
+    Star get(int index) {
+        Objects.checkIndex(index, size);
+        final Star view = views[index];
+        return view != null ? view : createView(index);
+    }
+
+    /**
+     * Creates the {@link Star} instance at the provided index. Synchronized so that two
+     * threads cannot create different instances for the same star.
+     *
+     * @param index the index of a star
+     * @return the (unique) {@link Star} instance of the star.
+     */
+    private synchronized Star createView(int index) {
+        if (views[index] == null) {
+            views[index] = new Star(hipparcosIds[index], names[index],
+                    EquatorialCoordinates.of(ra[index], dec[index]), magnitudes[index], colorIndices[index]);
+            viewIndices.put(views[index], index);
+        }
+        return views[index];
+    }
+
+    /**
+     * @param star a star
+     * @return the index of the provided {@link Star} instance in the table, or {@code -1} if it
+     * is not in the table (an instance that has not been returned by this table, or added to it,
+     * is never found, even if its properties are those of a star of the table).
+     */
+    synchronized int indexOf(Star star) {
+        final Integer index = viewIndices.get(star);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param hipparcosId a Hipparcos identification code
+     * @return the index of the first star of the table with the provided Hipparcos identification
+     * code, or {@code -1} if there is no such star.
+     */
+    synchronized int indexOfHipparcosId(int hipparcosId) {
+        final int first = firstHipparcosPosition(hipparcosId);
+        return first < size && (int) (hipparcosOrder[first] >>> Integer.SIZE) == hipparcosId
+                ? (int) hipparcosOrder[first]
+                : -1;
+    }
+
+    /**
+     * @param hipparcosId a Hipparcos identification code
+     * @return the indices of all the stars of the table with the provided Hipparcos identification
+     * code, in increasing order.
+     */
+    synchronized int[] indicesOfHipparcosId(int hipparcosId) {
+        final int first = firstHipparcosPosition(hipparcosId);
+        int end = first;
+        while (end < size && (int) (hipparcosOrder[end] >>> Integer.SIZE) == hipparcosId) {
+            end++;
+        }
+        final int[] indices = new int[end - first];
+        for (int i = first; i < end; i++) {
+            indices[i - first] = (int) hipparcosOrder[i];
+        }
+        return indices;
+    }
+
+    /**
+     * Sorts the keys of the stars by Hipparcos identification code on the first call.
+     *
+     * @param hipparcosId a Hipparcos identification code
+     * @return the position in {@code hipparcosOrder} of the first key whose code is at least the
+     * provided one (or {@code size} if there is none).
+     */
+    private int firstHipparcosPosition(int hipparcosId) {
+        if (hipparcosOrder == null) {
+            hipparcosOrder = new long[size];
+            for (int i = 0; i < size; i++) {
+                hipparcosOrder[i] = hipparcosOrderKey(hipparcosIds[i], i);
+            }
+            Arrays.sort(hipparcosOrder);
+        }
+        // the smallest key with this code is the one of its first star
+        final int position = Arrays.binarySearch(hipparcosOrder, hipparcosOrderKey(hipparcosId, 0));
+        return position >= 0 ? position : -position - 1;
+    }
+
+    /**
+     * @return the unit vectors of the equatorial positions of the stars, as three arrays: the
+     * x-components, the y-components and the z-components (see
+     * {@link UnitVectorProjection#unitVector(double, double, double[], int)}), computed on the
+     * first call. The returned arrays must not be modified.
+     */
+    synchronized double[][] unitVectors() {
+        if (unitVectors == null || unitVectors[0].length != size) {
+            final double[][] vectors = new double[3][size];
+            final double[] vector = new double[3];
+            for (int i = 0; i < size; i++) {
+                UnitVectorProjection.unitVector(ra[i], dec[i], vector, 0);
+                vectors[0][i] = vector[0];
+                vectors[1][i] = vector[1];
+                vectors[2][i] = vector[2];
+            }
+            unitVectors = vectors;
+        }
+        return unitVectors;
+    }
+
+    /**
+     * @param hipparcosId the (non-negative) Hipparcos identification code of a star
+     * @param index       the index of the star
+     * @return a key whose order as a long is the order of the codes, then of the indices.
+     */
+    private static long hipparcosOrderKey(int hipparcosId, int index) {
+        return ((long) hipparcosId << Integer.SIZE) | index;
+    }
+
+    /**
+     * @return an unmodifiable list view of the stars of this table.
+     */
+    List<Star> asList() {
+        return list;
+    }
+
+    /**
+     * Unmodifiable list view of the stars of the table, whose elements are created on demand.
+     */
+    private final class StarList extends AbstractList<Star> implements RandomAccess {
+        @Override
+        public Star get(int index) {
+            return StarTable.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * @param index the index of a star
+     * @return the Hipparcos identification code of the star.
+     */
+    int hipparcosId(int index) {
+        return hipparcosIds[index];
+    }
+
+    /**
+     * @param index the index of a star
+     * @return the name of the star.
+     */
+    String name(int index) {
+        return names[index];
+    }
+
+    /**
+     * @param index the index of a star
+     * @return the right ascension of the star, in radians.
+     */
+    double ra(int index) {
+        return ra[index];
+    }
+
+    /**
+     * @param index the index of a star
+     * @return the declination of the star, in radians.
+     */
+    double dec(int index) {
+        return dec[index];
+    }
+
+    /**
+     * @param index the index of a star
+     * @return the magnitude of the star.
+     */
+    float magnitude(int index) {
+        return magnitudes[index];
+    }
+
+    /**
+     * @param index the index of a star
+     * @return the color index of the star.
+     */
+    float colorIndex(int index) {
+        return colorIndices[index];
+    }
+
+    /**
+     * @param index the index of a star
+     * @return the color temperature of the star.
+     */
+    int colorTemperature(int index) {
+        return colorTemperatures[index];
+    }
+
+}
@@ -0,0 +1,515 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A star catalogue split into tiles, that is read on demand: only the tiles that intersect
+ * the field of view are decoded, and only down to a magnitude limit. This allows showing
+ * catalogues that are too large to be held in memory as a whole.
+ * <p>
+ * The celestial sphere is partitioned into equal-area cells: {@code rows} bands, equally spaced
+ * in sine of the declination, each one split into {@code columns} equal ranges of right ascension.
+ * The stars of each tile are sorted by increasing magnitude, so that the stars brighter than a
+ * limit always are the first ones of the tile.
+ * <p>
+ * The file is made of a header, a directory of the tiles and the columns of the stars:
+ * <pre>
+ * header:    int magic | int version | int rows | int columns | int star count | int names length
+ * directory: int[rows * columns + 1] index of the first star of each tile (the last entry is the star count)
+ * columns:   int[n] hip | float[n] magnitude | float[n] color index | double[n] ra | double[n] dec
+ *            | int[n] end offsets of the names | byte[names length] UTF-8 names
+ * </pre>
+ * Contrary to {@link BinaryDatabaseLoader}, there is no checksum, since the whole file is never read.
+ * The file is memory-mapped, so it cannot be larger than 2 GiB.
+ *
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public final class TiledCatalogue {
+
+    /**
+     * The first four bytes of any tiled catalogue ("RGLT").
+     */
+    private static final int MAGIC = 0x52474C54;
+    /**
+     * The version of the format.
+     */
+    private static final int VERSION = 1;
+    /**
+     * The size, in bytes, of the header.
+     */
+    private static final int HEADER_SIZE = 6 * Integer.BYTES;
+    /**
+     * The size, in bytes, of the columns of a single star (names excluded).
+     */
+    private static final int STAR_SIZE = Integer.BYTES + 2 * Float.BYTES + 2 * Double.BYTES + Integer.BYTES;
+    /**
+     * The default number of decoded tiles kept in memory.
+     */
+    private static final int DEFAULT_CACHE_SIZE = 512;
+    /**
+     * The faintest magnitude shown with the widest field of view (roughly, the naked-eye limit).
+     */
+    private static final float WIDE_MAGNITUDE_LIMIT = 6.5f;
+    /**
+     * The widest field of view, in degrees.
+     */
+    private static final double WIDE_FIELD_OF_VIEW = 150d;
+
+    private final ByteBuffer buffer;
+    private final int rows;
+    private final int columns;
+    private final int starCount;
+    private final int[] tileStarts;
+    // the direction of the center of each tile, and the angular distance from the center to its farthest corner
+    private final double[] tileRa;
+    private final double[] tileDec;
+    private final double[] tileRadii;
+    // the offsets of the columns in the buffer
+    private final int magnitudes;
+    private final int colorIndices;
+    private final int ras;
+    private final int decs;
+    private final int nameEnds;
+    private final int names;
+    // the least recently used tiles are evicted first
+    private final Map<Integer, Tile> tiles;
+    // the last catalogue of visible stars, and the number of stars it holds from each tile
+    private StarCatalogue lastVisible;
+    private int[] lastCounts;
+
+    /**
+     * The stars of a tile that have been decoded: the brightest ones, down to some magnitude.
+     */
+    private static final class Tile {
+        private final int[] hipparcosIds;
+        private final String[] names;
+        private final double[] ra;
+        private final double[] dec;
+        private final float[] magnitudes;
+        private final float[] colorIndices;
+
+        /**
+         * @param count the number of decoded stars
+         */
+        private Tile(int count) {
+            hipparcosIds = new int[count];
+            names = new String[count];
+            ra = new double[count];
+            dec = new double[count];
+            magnitudes = new float[count];
+            colorIndices = new float[count];
+        }
+    }
+
+    /**
+     * @param buffer    the content of the file
+     * @param cacheSize the maximal number of decoded tiles kept in memory
+     * @throws IOException if the buffer does not hold a valid tiled catalogue
+     */
+    private TiledCatalogue(ByteBuffer buffer, int cacheSize) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a tiled star catalogue");
+        }
+        final int version = buffer.getInt(Integer.BYTES);
+        if (version != VERSION) {
+            throw new IOException("unsupported tiled catalogue version: " + version + " (expected " + VERSION + ")");
+        }
+        this.buffer = buffer;
+        rows = buffer.getInt(2 * Integer.BYTES);
+        columns = buffer.getInt(3 * Integer.BYTES);
+        starCount = buffer.getInt(4 * Integer.BYTES);
+        final int namesLength = buffer.getInt(5 * Integer.BYTES);
+        if (rows <= 0 || columns <= 0 || starCount < 0 || namesLength < 0
+                || buffer.limit() != HEADER_SIZE + ((long) rows * columns + 1) * Integer.BYTES
+                + (long) starCount * STAR_SIZE + namesLength) {
+            throw new IOException("truncated tiled star catalogue");
+        }
+
+        final int tileCount = rows * columns;
+        tileStarts = new int[tileCount + 1];
+        buffer.duplicate().position(HEADER_SIZE).asIntBuffer().get(tileStarts);
+        for (int i = 0; i < tileCount; i++) {
+            if (tileStarts[i] < 0 || tileStarts[i] > tileStarts[i + 1]) {
+                throw new IOException("corrupt tiled star catalogue: invalid directory");
+            }
+        }
+        if (tileStarts[tileCount] != starCount) {
+            throw new IOException("corrupt tiled star catalogue: invalid directory");
+        }
+
+        final int hips = HEADER_SIZE + (tileCount + 1) * Integer.BYTES;
+        magnitudes = hips + starCount * Integer.BYTES;
+        colorIndices = magnitudes + starCount * Float.BYTES;
+        ras = colorIndices + starCount * Float.BYTES;
+        decs = ras + starCount * Double.BYTES;
+        nameEnds = decs + starCount * Double.BYTES;
+        names = nameEnds + starCount * Integer.BYTES;
+
+        tileRa = new double[tileCount];
+        tileDec = new double[tileCount];
+        tileRadii = new double[tileCount];
+        for (int row = 0; row < rows; row++) {
+            final double minDec = bandDec(row, rows);
+            final double maxDec = bandDec(row + 1, rows);
+            final double dec = Math.asin((Math.sin(minDec) + Math.sin(maxDec)) / 2d);
+            for (int column = 0; column < columns; column++) {
+                final int tile = row * columns + column;
+                final double minRa = 2 * Math.PI * column / columns;
+                final double maxRa = 2 * Math.PI * (column + 1) / columns;
+                tileRa[tile] = (minRa + maxRa) / 2d;
+                tileDec[tile] = dec;
+                tileRadii[tile] = Math.max(
+                        Math.max(angularDistance(tileRa[tile], dec, minRa, minDec),
+                                angularDistance(tileRa[tile], dec, maxRa, minDec)),
+                        Math.max(angularDistance(tileRa[tile], dec, minRa, maxDec),
+                                angularDistance(tileRa[tile], dec, maxRa, maxDec)));
+            }
+        }
+
+        tiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Tile> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Memory-maps the tiled catalogue at the provided path.
+     *
+     * @param path the path to the tiled catalogue
+     * @return the opened catalogue, which keeps at most 512 decoded tiles in memory.
+     * @throws IOException if the file could not have been read, or if it is not a valid tiled catalogue
+     */
+    public static TiledCatalogue open(Path path) throws IOException {
+        return open(path, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Memory-maps the tiled catalogue at the provided path.
+     *
+     * @param path      the path to the tiled catalogue
+     * @param cacheSize the maximal number of decoded tiles kept in memory
+     * @return the opened catalogue.
+     * @throws IOException              if the file could not have been read, or if it is not a valid
+     *                                  tiled catalogue
+     * @throws IllegalArgumentException if {@code cacheSize} is not strictly positive
+     */
+    public static TiledCatalogue open(Path path, int cacheSize) throws IOException {
+        Preconditions.checkArgument(cacheSize > 0);
+        // the mapping remains valid once the channel is closed
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new TiledCatalogue(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), cacheSize);
+        }
+    }
+
+    /**
+     * @param row  the index of a band, or {@code rows} for the northern bound of the last band
+     * @param rows the number of bands
+     * @return the declination of the southern bound of the band, in radians.
+     */
+    private static double bandDec(int row, int rows) {
+        return Math.asin(Math.min(1d, 2d * row / rows - 1d));
+    }
+
+    /**
+     * @param ra1  the right ascension of the first direction
+     * @param dec1 the declination of the first direction
+     * @param ra2  the right ascension of the second direction
+     * @param dec2 the declination of the second direction
+     * @return the angular distance between both directions, in radians.
+     */
+    private static double angularDistance(double ra1, double dec1, double ra2, double dec2) {
+        final double cos = Math.sin(dec1) * Math.sin(dec2) + Math.cos(dec1) * Math.cos(dec2) * Math.cos(ra1 - ra2);
+        return Math.acos(Math.max(-1d, Math.min(1d, cos)));
+    }
+
+    /**
+     * @param ra      a right ascension, in radians
+     * @param dec     a declination, in radians
+     * @param rows    the number of bands
+     * @param columns the number of ranges of right ascension per band
+     * @return the index of the tile holding the provided direction.
+     */
+    private static int tileOf(double ra, double dec, int rows, int columns) {
+        final int row = Math.min(rows - 1, (int) ((Math.sin(dec) + 1d) / 2d * rows));
+        final int column = Math.min(columns - 1, (int) (ra / (2 * Math.PI) * columns));
+        return row * columns + column;
+    }
+
+    /**
+     * @param fieldOfViewDeg a field of view, in degrees
+     * @return the magnitude of the faintest stars worth showing with the provided field of view:
+     * 6.5 for a field of view of 150°, and 5 more for each tenfold zoom, so that the number of
+     * stars shown on the screen roughly stays the same.
+     */
+    public static float magnitudeLimit(double fieldOfViewDeg) {
+        return (float) (WIDE_MAGNITUDE_LIMIT + 5d * Math.log10(WIDE_FIELD_OF_VIEW / fieldOfViewDeg));
+    }
+
+    /**
+     * @return the total number of stars in the catalogue.
+     */
+    public int starCount() {
+        return starCount;
+    }
+
+    /**
+     * Builds the catalogue of the stars that may be visible: the stars of all the tiles
+     * intersecting the field of view, that are at least as bright as the provided limit.
+     * The catalogue does not contain any asterism.
+     * <p>
+     * If it would hold the same stars as the catalogue returned by the previous call (that is,
+     * as long as the same tiles are selected and the limit does not let in or out any star of
+     * them), that catalogue is returned again, so that the users of the catalogue (which compare
+     * the catalogues by identity) do not do their work all over again.
+     *
+     * @param toHorizontal   the conversion from equatorial to horizontal coordinates of the observation
+     * @param center         the center of the field of view
+     * @param radius         the angular radius of the field of view, in radians (the tiles are selected
+     *                       conservatively, so some stars may lie outside of it)
+     * @param magnitudeLimit the magnitude of the faintest stars to include
+     * @return the catalogue of the stars of the intersecting tiles, brighter than the limit.
+     */
+    public StarCatalogue visibleStars(Function<EquatorialCoordinates, HorizontalCoordinates> toHorizontal,
+                                      HorizontalCoordinates center, double radius, float magnitudeLimit) {
+        // the number of stars to take from each tile, 0 for the tiles that are not selected
+        final int[] counts = new int[tileRa.length];
+        for (int i = 0; i < tileRa.length; i++) {
+            final double distance = toHorizontal.apply(EquatorialCoordinates.of(tileRa[i], tileDec[i]))
+                    .angularDistanceTo(center);
+            // written this way, so that a rounding error (NaN) keeps the tile
+            if (!(distance > radius + tileRadii[i])) {
+                counts[i] = brighterCount(tileStarts[i], tileStarts[i + 1], magnitudeLimit);
+            }
+        }
+        synchronized (this) {
+            if (Arrays.equals(counts, lastCounts)) {
+                return lastVisible;
+            }
+        }
+
+        final StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                final Tile tile = tile(i, magnitudeLimit);
+                for (int j = 0; j < counts[i]; j++) {
+                    builder.addStar(tile.hipparcosIds[j], tile.names[j], tile.ra[j], tile.dec[j],
+                            tile.magnitudes[j], tile.colorIndices[j]);
+                }
+            }
+        }
+        final StarCatalogue visible = builder.build();
+        synchronized (this) {
+            lastVisible = visible;
+            lastCounts = counts;
+        }
+        return visible;
+    }
+
+    /**
+     * Looks up a star by its Hipparcos identification code and its position, among the stars of
+     * the tile holding the position only: they are read from the file, without decoding the tile.
+     *
+     * @param hipparcosId the Hipparcos identification code of the star
+     * @param ra          the right ascension of the star, in radians
+     * @param dec         the declination of the star, in radians
+     * @return the star of the catalogue with the provided code, at exactly the provided position,
+     * or {@code null} if there is none.
+     */
+    public Star findStar(int hipparcosId, double ra, double dec) {
+        if (!(ra >= 0 && ra < 2 * Math.PI && dec >= -Math.PI / 2 && dec <= Math.PI / 2)) {
+            return null;
+        }
+        final int tile = tileOf(ra, dec, rows, columns);
+        for (int star = tileStarts[tile]; star < tileStarts[tile + 1]; star++) {
+            if (buffer.getInt(HEADER_SIZE + (tileStarts.length + star) * Integer.BYTES) == hipparcosId
+                    && buffer.getDouble(ras + star * Double.BYTES) == ra
+                    && buffer.getDouble(decs + star * Double.BYTES) == dec) {
+                final int nameStart = star == 0 ? 0 : buffer.getInt(nameEnds + (star - 1) * Integer.BYTES);
+                final byte[] name = new byte[buffer.getInt(nameEnds + star * Integer.BYTES) - nameStart];
+                buffer.duplicate().position(names + nameStart).get(name);
+                return new Star(hipparcosId, new String(name, StandardCharsets.UTF_8),
+                        EquatorialCoordinates.of(ra, dec), buffer.getFloat(magnitudes + star * Float.BYTES),
+                        buffer.getFloat(colorIndices + star * Float.BYTES));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param index          the index of a tile
+     * @param magnitudeLimit the magnitude of the faintest stars needed
+     * @return the decoded tile, holding at least all its stars brighter than the limit (it is
+     * decoded again, more deeply, if the cached one does not hold enough stars).
+     */
+    private synchronized Tile tile(int index, float magnitudeLimit) {
+        final int start = tileStarts[index];
+        final int end = tileStarts[index + 1];
+        final int count = brighterCount(start, end, magnitudeLimit);
+        final Tile cached = tiles.get(index);
+        if (cached != null && cached.hipparcosIds.length >= count) {
+            return cached;
+        }
+        final Tile tile = new Tile(count);
+        int nameStart = start == 0 ? 0 : buffer.getInt(nameEnds + (start - 1) * Integer.BYTES);
+        for (int i = 0; i < count; i++) {
+            final int star = start + i;
+            final int nameEnd = buffer.getInt(nameEnds + star * Integer.BYTES);
+            final byte[] name = new byte[nameEnd - nameStart];
+            buffer.duplicate().position(names + nameStart).get(name);
+            tile.hipparcosIds[i] = buffer.getInt(HEADER_SIZE + (tileStarts.length + star) * Integer.BYTES);
+            tile.names[i] = new String(name, StandardCharsets.UTF_8);
+            tile.ra[i] = buffer.getDouble(ras + star * Double.BYTES);
+            tile.dec[i] = buffer.getDouble(decs + star * Double.BYTES);
+            tile.magnitudes[i] = buffer.getFloat(magnitudes + star * Float.BYTES);
+            tile.colorIndices[i] = buffer.getFloat(colorIndices + star * Float.BYTES);
+            nameStart = nameEnd;
+        }
+        tiles.put(index, tile);
+        return tile;
+    }
+
+    /**
+     * @param start          the index of the first star of a tile
+     * @param end            the index following the last star of the tile
+     * @param magnitudeLimit a magnitude
+     * @return the number of stars of the tile that are at least as bright as the provided limit
+     * (found by binary search, the stars of the tile being sorted by magnitude).
+     */
+    private int brighterCount(int start, int end, float magnitudeLimit) {
+        int low = start;
+        int high = end;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (buffer.getFloat(magnitudes + middle * Float.BYTES) <= magnitudeLimit) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - start;
+    }
+
+    /**
+     * @return the number of decoded tiles currently kept in memory.
+     */
+    synchronized int cachedTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * Writes the stars of the provided catalogue (its asterisms are ignored) as a tiled catalogue.
+     * The provided stream is not closed.
+     *
+     * @param catalogue the catalogue whose stars are written
+     * @param rows      the number of bands of declination
+     * @param columns   the number of ranges of right ascension per band
+     * @param out       the stream to write to
+     * @throws IOException              if the data could not have been written, or if the catalogue is too
+     *                                  large to be held by a tiled catalogue (2 GiB)
+     * @throws IllegalArgumentException if {@code rows} or {@code columns} is not strictly positive
+     */
+    public static void write(StarCatalogue catalogue, int rows, int columns, OutputStream out) throws IOException {
+        Preconditions.checkArgument(rows > 0 && columns > 0);
+        final int count = catalogue.starCount();
+        // checked before anything is sorted, then again once the length of the names is known
+        final long fixedSize = HEADER_SIZE + ((long) rows * columns + 1) * Integer.BYTES + (long) count * STAR_SIZE;
+        checkFileSize(fixedSize);
+        final int tileCount = rows * columns;
+
+        // counting sort of the stars by tile
+        final int[] tileOfStar = new int[count];
+        final int[] tileStarts = new int[tileCount + 1];
+        for (int i = 0; i < count; i++) {
+            tileOfStar[i] = tileOf(catalogue.ra(i), catalogue.dec(i), rows, columns);
+            tileStarts[tileOfStar[i] + 1]++;
+        }
+        for (int i = 0; i < tileCount; i++) {
+            tileStarts[i + 1] += tileStarts[i];
+        }
+        // then, in each tile, by magnitude (then, by index, to keep the order of the equal magnitudes)
+        final long[] keys = new long[count];
+        final int[] next = Arrays.copyOf(tileStarts, tileCount);
+        for (int i = 0; i < count; i++) {
+            keys[next[tileOfStar[i]]++] = StarTable.magnitudeOrderKey(catalogue.magnitude(i), i);
+        }
+        for (int i = 0; i < tileCount; i++) {
+            Arrays.sort(keys, tileStarts[i], tileStarts[i + 1]);
+        }
+
+        final byte[][] names = new byte[count][];
+        long namesLength = 0;
+        for (int i = 0; i < count; i++) {
+            names[i] = catalogue.starName((int) keys[i]).getBytes(StandardCharsets.UTF_8);
+            namesLength += names[i].length;
+        }
+        final long size = fixedSize + namesLength;
+        checkFileSize(size);
+
+        final ByteBuffer data = ByteBuffer.allocate((int) size)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(rows)
+                .putInt(columns)
+                .putInt(count)
+                .putInt((int) namesLength);
+        for (int start : tileStarts) {
+            data.putInt(start);
+        }
+        for (long key : keys) {
+            data.putInt(catalogue.hipparcosId((int) key));
+        }
+        for (long key : keys) {
+            data.putFloat(catalogue.magnitude((int) key));
+        }
+        for (long key : keys) {
+            data.putFloat(catalogue.colorIndex((int) key));
+        }
+        for (long key : keys) {
+            data.putDouble(catalogue.ra((int) key));
+        }
+        for (long key : keys) {
+            data.putDouble(catalogue.dec((int) key));
+        }
+        int nameEnd = 0;
+        for (byte[] name : names) {
+            nameEnd += name.length;
+            data.putInt(nameEnd);
+        }
+        for (byte[] name : names) {
+            data.put(name);
+        }
+        out.write(data.array());
+        out.flush();
+    }
+
+    /**
+     * Checks that a tiled catalogue of the provided size can be memory-mapped once written.
+     *
+     * @param size the size of the file, in bytes
+     * @throws IOException if the file would be larger than 2 GiB
+     */
+    private static void checkFileSize(long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("catalogue too large for a tiled catalogue: " + size + " bytes");
+        }
+    }
+
+}
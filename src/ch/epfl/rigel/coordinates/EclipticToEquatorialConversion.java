@@ -58,6 +58,44 @@ public final class EclipticToEquatorialConversion implements Function<EclipticCo
         );
     }
 
+    /**
+     * Converts the provided ecliptic coordinates without creating any object, exactly as
+     * {@link #apply(EclipticCoordinates)} does.
+     *
+     * @param lon    the longitude, in radians
+     * @param lat    the latitude, in radians
+     * @param raDec  the array receiving the right ascension and then the declination, in radians
+     * @param offset the index of the right ascension in {@code raDec}
+     */
+    public void apply(double lon, double lat, double[] raDec, int offset) {
+        final double lonSin = Math.sin(lon);
+        raDec[offset] = Angle.normalizePositive(Math.atan2((lonSin * cosObliqueness)
+                - (Math.tan(lat) * sinObliqueness), Math.cos(lon)));
+        raDec[offset + 1] = Math.asin((Math.sin(lat) * cosObliqueness)
+                + (Math.cos(lat) * sinObliqueness * lonSin));
+    }
+
+    /**
+     * Converts the first {@code count} ecliptic coordinates of the provided arrays at once,
+     * exactly as {@link #apply(EclipticCoordinates)} does, but without creating any object
+     * nor checking the ranges of the coordinates.
+     *
+     * @param lon   the longitudes, in radians
+     * @param lat   the latitudes, in radians
+     * @param ra    the array receiving the right ascensions, in radians
+     * @param dec   the array receiving the declinations, in radians
+     * @param count the number of coordinates to convert
+     * @throws ArrayIndexOutOfBoundsException if one of the arrays holds less than {@code count} values
+     */
+    public void apply(double[] lon, double[] lat, double[] ra, double[] dec, int count) {
+        final double[] raDec = new double[2];
+        for (int i = 0; i < count; i++) {
+            apply(lon[i], lat[i], raDec, 0);
+            ra[i] = raDec[0];
+            dec[i] = raDec[1];
+        }
+    }
+
     /**
      * @throws UnsupportedOperationException this operation is forbidden.
      */
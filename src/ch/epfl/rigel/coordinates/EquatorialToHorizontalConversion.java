@@ -42,11 +42,86 @@ public final class EquatorialToHorizontalConversion implements Function<Equatori
         final double hourAngle = sidereal - e.ra();
         final double sinDec = Math.sin(e.dec());
         final double cosDec = Math.cos(e.dec());
-        final double alt = Math.asin(sinDec * sinLat + cosDec * cosLat * Math.cos(hourAngle));
-        return HorizontalCoordinates.of(
-                Angle.normalizePositive(Math.atan2(-cosDec * cosLat * Math.sin(hourAngle), sinDec - sinLat * Math.sin(alt))),
-                alt
-        );
+        final double alt = altitude(hourAngle, sinDec, cosDec);
+        return HorizontalCoordinates.of(azimuth(hourAngle, sinDec, cosDec, alt), alt);
+    }
+
+    /**
+     * Converts the provided equatorial coordinates without creating any object, exactly as
+     * {@link #apply(EquatorialCoordinates)} does.
+     *
+     * @param ra     the right ascension, in radians
+     * @param dec    the declination, in radians
+     * @param azAlt  the array receiving the azimuth and then the altitude, in radians
+     * @param offset the index of the azimuth in {@code azAlt}
+     */
+    public void apply(double ra, double dec, double[] azAlt, int offset) {
+        final double hourAngle = sidereal - ra;
+        final double sinDec = Math.sin(dec);
+        final double cosDec = Math.cos(dec);
+        final double alt = altitude(hourAngle, sinDec, cosDec);
+        azAlt[offset] = azimuth(hourAngle, sinDec, cosDec, alt);
+        azAlt[offset + 1] = alt;
+    }
+
+    /**
+     * @return the altitude, in radians, of the point of the provided hour angle and declination.
+     */
+    private double altitude(double hourAngle, double sinDec, double cosDec) {
+        return Math.asin(sinDec * sinLat + cosDec * cosLat * Math.cos(hourAngle));
+    }
+
+    /**
+     * @return the azimuth, in radians, of the point of the provided hour angle, declination and altitude.
+     */
+    private double azimuth(double hourAngle, double sinDec, double cosDec, double alt) {
+        return Angle.normalizePositive(
+                Math.atan2(-cosDec * cosLat * Math.sin(hourAngle), sinDec - sinLat * Math.sin(alt)));
+    }
+
+    /**
+     * Converts the first {@code count} equatorial coordinates of the provided arrays at once,
+     * exactly as {@link #apply(EquatorialCoordinates)} does, but without creating any object
+     * nor checking the ranges of the coordinates.
+     *
+     * @param ra    the right ascensions, in radians
+     * @param dec   the declinations, in radians
+     * @param az    the array receiving the azimuths, in radians
+     * @param alt   the array receiving the altitudes, in radians
+     * @param count the number of coordinates to convert
+     * @throws ArrayIndexOutOfBoundsException if one of the arrays holds less than {@code count} values
+     */
+    public void apply(double[] ra, double[] dec, double[] az, double[] alt, int count) {
+        final double[] azAlt = new double[2];
+        for (int i = 0; i < count; i++) {
+            apply(ra[i], dec[i], azAlt, 0);
+            az[i] = azAlt[0];
+            alt[i] = azAlt[1];
+        }
+    }
+
+    /**
+     * Fills in the rotation matrix of this conversion, which maps the unit vector of equatorial
+     * coordinates (see {@link UnitVectorProjection#unitVector(double, double, double[], int)}) to the
+     * unit vector of the horizontal coordinates {@code (cos(alt)cos(az), cos(alt)sin(az), sin(alt))}.
+     *
+     * @param matrix the array receiving the 3&times;3 matrix, row after row
+     */
+    void rotation(double[] matrix) {
+        final double sinSidereal = Math.sin(sidereal);
+        final double cosSidereal = Math.cos(sidereal);
+        // cos(alt)cos(az) = sin(dec)cos(lat) - cos(dec)cos(hour angle)sin(lat)
+        matrix[0] = -sinLat * cosSidereal;
+        matrix[1] = -sinLat * sinSidereal;
+        matrix[2] = cosLat;
+        // cos(alt)sin(az) = -cos(dec)sin(hour angle)
+        matrix[3] = -sinSidereal;
+        matrix[4] = cosSidereal;
+        matrix[5] = 0;
+        // sin(alt) = sin(dec)sin(lat) + cos(dec)cos(hour angle)cos(lat)
+        matrix[6] = cosLat * cosSidereal;
+        matrix[7] = cosLat * sinSidereal;
+        matrix[8] = sinLat;
     }
 
     /**
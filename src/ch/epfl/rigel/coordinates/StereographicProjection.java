@@ -81,10 +81,65 @@ public final class StereographicProjection implements Function<HorizontalCoordin
         final double sinAzAlt = sin(azAlt.alt());
         final double cosAzAlt = cos(azAlt.alt());
         final double cosLambdaD = cos(lambdaD);
-        final double d = 1d / (1 + sinAzAlt * sinPhi1
-                + cosAzAlt * cosPhi1 * cosLambdaD);
-        return CartesianCoordinates.of(d * cosAzAlt * sin(lambdaD),
-                d * (sinAzAlt * cosPhi1 - cosAzAlt * sinPhi1 * cosLambdaD));
+        final double d = scale(sinAzAlt, cosAzAlt, cosLambdaD);
+        return CartesianCoordinates.of(d * cosAzAlt * sin(lambdaD), projectedY(d, sinAzAlt, cosAzAlt, cosLambdaD));
+    }
+
+    /**
+     * Applies the stereographic projection to the provided point without creating any object,
+     * exactly as {@link #apply(HorizontalCoordinates)} does.
+     *
+     * @param az     the azimuth of the point, in radians
+     * @param alt    the altitude of the point, in radians
+     * @param xy     the array receiving the x-coordinate and then the y-coordinate of the projection
+     * @param offset the index of the x-coordinate in {@code xy}
+     */
+    public void apply(double az, double alt, double[] xy, int offset) {
+        final double lambdaD = az - lambda0;
+        final double sinAzAlt = sin(alt);
+        final double cosAzAlt = cos(alt);
+        final double cosLambdaD = cos(lambdaD);
+        final double d = scale(sinAzAlt, cosAzAlt, cosLambdaD);
+        xy[offset] = d * cosAzAlt * sin(lambdaD);
+        xy[offset + 1] = projectedY(d, sinAzAlt, cosAzAlt, cosLambdaD);
+    }
+
+    /**
+     * @return the scale factor of the projection of the point of the provided altitude, at
+     * {@code lambdaD} radians of azimuth from the center.
+     */
+    private double scale(double sinAlt, double cosAlt, double cosLambdaD) {
+        return 1d / (1 + sinAlt * sinPhi1 + cosAlt * cosPhi1 * cosLambdaD);
+    }
+
+    /**
+     * @return the y-coordinate of the projection of the point of the provided altitude, at
+     * {@code lambdaD} radians of azimuth from the center, given its scale factor {@code d}.
+     */
+    private double projectedY(double d, double sinAlt, double cosAlt, double cosLambdaD) {
+        return d * (sinAlt * cosPhi1 - cosAlt * sinPhi1 * cosLambdaD);
+    }
+
+    /**
+     * Fills in the basis of this projection: for the unit vector {@code h} of horizontal coordinates
+     * (see {@link EquatorialToHorizontalConversion#rotation(double[])}), the projection is
+     * {@code (u.h / (1 + c.h), v.h / (1 + c.h))}, where {@code u} and {@code v} are the first two
+     * rows of the basis, and {@code c}, the last one, is the unit vector of the center.
+     *
+     * @param matrix the array receiving the 3&times;3 matrix, row after row
+     */
+    void basis(double[] matrix) {
+        final double sinLambda0 = sin(lambda0);
+        final double cosLambda0 = cos(lambda0);
+        matrix[0] = -sinLambda0;
+        matrix[1] = cosLambda0;
+        matrix[2] = 0;
+        matrix[3] = -sinPhi1 * cosLambda0;
+        matrix[4] = -sinPhi1 * sinLambda0;
+        matrix[5] = cosPhi1;
+        matrix[6] = cosPhi1 * cosLambda0;
+        matrix[7] = cosPhi1 * sinLambda0;
+        matrix[8] = sinPhi1;
     }
 
     /**
@@ -96,20 +151,103 @@ public final class StereographicProjection implements Function<HorizontalCoordin
      * the projection of these gives us {@code xy}.
      */
     public HorizontalCoordinates inverseApply(CartesianCoordinates xy) {
-        if (xy.x() == 0 && xy.y() == 0) {
+        final double x = xy.x();
+        final double y = xy.y();
+        if (x == 0 && y == 0) {
             return HorizontalCoordinates.of(lambda0, phi1);
         }
+        final double rhoS = x * x + y * y;
+        final double rho = sqrt(rhoS);
+        final double sinC = 2 * rho / (rhoS + 1);
+        final double cosC = (1 - rhoS) / (rhoS + 1);
+        return HorizontalCoordinates.of(inverseAz(x, y, rho, sinC, cosC), inverseAlt(y, rho, sinC, cosC));
+    }
+
+    /**
+     * Computes the horizontal coordinates of the provided point of the plane without creating
+     * any object, exactly as {@link #inverseApply(CartesianCoordinates)} does.
+     *
+     * @param x      the x-coordinate of the point
+     * @param y      the y-coordinate of the point
+     * @param azAlt  the array receiving the azimuth and then the altitude, in radians
+     * @param offset the index of the azimuth in {@code azAlt}
+     */
+    public void inverseApply(double x, double y, double[] azAlt, int offset) {
+        if (x == 0 && y == 0) {
+            azAlt[offset] = lambda0;
+            azAlt[offset + 1] = phi1;
+            return;
+        }
         // rho squared
-        final double rhoS = xy.x() * xy.x() + xy.y() * xy.y();
+        final double rhoS = x * x + y * y;
         // the square root of rho
         final double rho = sqrt(rhoS);
         // applying the formulas
         final double sinC = 2 * rho / (rhoS + 1);
         final double cosC = (1 - rhoS) / (rhoS + 1);
-        final double lambda = Angle.normalizePositive(Math.atan2(xy.x() * sinC, rho * cosPhi1 * cosC
-                - xy.y() * sinPhi1 * sinC) + lambda0);
-        final double phi = asin(cosC * sinPhi1 + (xy.y() * sinC * cosPhi1 / rho));
-        return HorizontalCoordinates.of(lambda, phi);
+        azAlt[offset] = inverseAz(x, y, rho, sinC, cosC);
+        azAlt[offset + 1] = inverseAlt(y, rho, sinC, cosC);
+    }
+
+    /**
+     * @return the azimuth, in radians, of the point of the plane {@code (x, y)} (not the origin),
+     * given its distance {@code rho} to the origin and the sine and cosine of its angular distance
+     * to the center.
+     */
+    private double inverseAz(double x, double y, double rho, double sinC, double cosC) {
+        return Angle.normalizePositive(Math.atan2(x * sinC, rho * cosPhi1 * cosC
+                - y * sinPhi1 * sinC) + lambda0);
+    }
+
+    /**
+     * @return the altitude, in radians, of the point of the plane of ordinate {@code y} (not the origin),
+     * given its distance {@code rho} to the origin and the sine and cosine of its angular distance
+     * to the center.
+     */
+    private double inverseAlt(double y, double rho, double sinC, double cosC) {
+        return asin(cosC * sinPhi1 + (y * sinC * cosPhi1 / rho));
+    }
+
+    /**
+     * Projects the first {@code count} points of the provided arrays at once, exactly as
+     * {@link #apply(HorizontalCoordinates)} does, but without creating any object nor checking
+     * the ranges of the coordinates.
+     *
+     * @param az    the azimuths, in radians
+     * @param alt   the altitudes, in radians
+     * @param x     the array receiving the x-coordinates of the projections
+     * @param y     the array receiving the y-coordinates of the projections
+     * @param count the number of points to project
+     * @throws ArrayIndexOutOfBoundsException if one of the arrays holds less than {@code count} values
+     */
+    public void apply(double[] az, double[] alt, double[] x, double[] y, int count) {
+        final double[] xy = new double[2];
+        for (int i = 0; i < count; i++) {
+            apply(az[i], alt[i], xy, 0);
+            x[i] = xy[0];
+            y[i] = xy[1];
+        }
+    }
+
+    /**
+     * Computes the horizontal coordinates of the first {@code count} points of the provided arrays
+     * at once, exactly as {@link #inverseApply(CartesianCoordinates)} does, but without creating
+     * any object.
+     *
+     * @param x     the x-coordinates of the points
+     * @param y     the y-coordinates of the points
+     * @param az    the array receiving the azimuths, in radians
+     * @param alt   the array receiving the altitudes, in radians
+     * @param count the number of points
+     * @throws ArrayIndexOutOfBoundsException if one of the arrays holds less than {@code count} values
+     */
+    public void inverseApply(double[] x, double[] y, double[] az, double[] alt, int count) {
+        final double[] azAlt = new double[2];
+        for (int i = 0; i < count; i++) {
+            inverseApply(x[i], y[i], azAlt, 0);
+            az[i] = azAlt[0];
+            alt[i] = azAlt[1];
+        }
     }
 
     /**
@@ -0,0 +1,190 @@
+package ch.epfl.rigel.coordinates;
+
+import java.util.Objects;
+
+/**
+ * Projects equatorial coordinates, given as unit vectors, on the plane in a single step: the
+ * conversion to horizontal coordinates and the stereographic projection are composed into one
+ * 3&times;3 matrix, so that each point only takes a matrix product and a division, instead of
+ * the ten trigonometric functions of {@link StereographicProjection#apply(HorizontalCoordinates)}
+ * composed with {@link EquatorialToHorizontalConversion#apply(EquatorialCoordinates)}.
+ * <p>
+ * As the unit vectors of the stars do not depend on the moment of observation, they can be
+ * computed once (see {@link #unitVector(double, double, double[], int)}), and only the matrix
+ * is computed at each frame. The results are the ones of the composed functions, up to
+ * rounding errors.
+ * <p>
+ * The vectors may either be interleaved in a single array, or split into one array per component
+ * (see {@link #apply(double[], double[], double[], int, int, double[], double[])}): the latter
+ * layout lets the JIT compiler turn the loop into SIMD instructions, since each one of its arrays
+ * is then read and written with a unit stride.
+ *
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public final class UnitVectorProjection {
+
+    // the rows of the matrix; the first two give the coordinates once divided by 1 plus the third one
+    private final double m00, m01, m02;
+    private final double m10, m11, m12;
+    private final double m20, m21, m22;
+    // the row of the conversion giving the sine of the altitude
+    private final double s0, s1, s2;
+
+    /**
+     * @param conversion the conversion from equatorial to horizontal coordinates
+     * @param projection the projection of the horizontal coordinates
+     * @throws NullPointerException if one of the parameters is {@code null}
+     */
+    public UnitVectorProjection(EquatorialToHorizontalConversion conversion, StereographicProjection projection) {
+        final double[] rotation = new double[9];
+        final double[] basis = new double[9];
+        Objects.requireNonNull(conversion).rotation(rotation);
+        Objects.requireNonNull(projection).basis(basis);
+        final double[] m = new double[9];
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                m[3 * row + column] = basis[3 * row] * rotation[column]
+                        + basis[3 * row + 1] * rotation[3 + column]
+                        + basis[3 * row + 2] * rotation[6 + column];
+            }
+        }
+        m00 = m[0];
+        m01 = m[1];
+        m02 = m[2];
+        m10 = m[3];
+        m11 = m[4];
+        m12 = m[5];
+        m20 = m[6];
+        m21 = m[7];
+        m22 = m[8];
+        s0 = rotation[6];
+        s1 = rotation[7];
+        s2 = rotation[8];
+    }
+
+    /**
+     * Computes the unit vector of the provided equatorial coordinates:
+     * {@code (cos(dec)cos(ra), cos(dec)sin(ra), sin(dec))}.
+     *
+     * @param ra     the right ascension, in radians
+     * @param dec    the declination, in radians
+     * @param vector the array receiving the three components of the vector
+     * @param offset the index of the first component in {@code vector}
+     */
+    public static void unitVector(double ra, double dec, double[] vector, int offset) {
+        final double cosDec = Math.cos(dec);
+        vector[offset] = cosDec * Math.cos(ra);
+        vector[offset + 1] = cosDec * Math.sin(ra);
+        vector[offset + 2] = Math.sin(dec);
+    }
+
+    /**
+     * Projects the unit vectors of indices {@code from} (inclusive) to {@code to} (exclusive).
+     *
+     * @param vectors   the unit vectors, where each one of them takes three indices
+     * @param from      the index of the first vector to project
+     * @param to        the index after the last vector to project
+     * @param positions the array receiving the positions, where the position of the vector of
+     *                  index {@code i} takes the indices {@code 2i} (x-coordinate) and {@code 2i + 1}
+     *                  (y-coordinate)
+     */
+    public void apply(double[] vectors, int from, int to, double[] positions) {
+        for (int i = from; i < to; i++) {
+            final double x = vectors[3 * i];
+            final double y = vectors[3 * i + 1];
+            final double z = vectors[3 * i + 2];
+            final double d = 1d / (1d + m20 * x + m21 * y + m22 * z);
+            positions[2 * i] = d * (m00 * x + m01 * y + m02 * z);
+            positions[2 * i + 1] = d * (m10 * x + m11 * y + m12 * z);
+        }
+    }
+
+    /**
+     * Projects the unit vectors of indices {@code from} (inclusive) to {@code to} (exclusive),
+     * given one array per component, into one array per coordinate. The results are exactly the
+     * ones of {@link #apply(double[], int, int, double[])}, but as the loop only goes through
+     * arrays with a unit stride, the JIT compiler (C2) runs it with SIMD instructions when the
+     * processor has them, several vectors at a time; otherwise, it runs as a scalar loop.
+     *
+     * @param x          the x-components of the unit vectors
+     * @param y          the y-components of the unit vectors
+     * @param z          the z-components of the unit vectors
+     * @param from       the index of the first vector to project
+     * @param to         the index after the last vector to project
+     * @param projectedX the array receiving the x-coordinates of the projections, at the indices of the vectors
+     * @param projectedY the array receiving the y-coordinates of the projections, at the indices of the vectors
+     */
+    public void apply(double[] x, double[] y, double[] z, int from, int to,
+                      double[] projectedX, double[] projectedY) {
+        // the coefficients are copied to locals, so that they are kept in registers across the loop
+        final double a0 = m00, a1 = m01, a2 = m02;
+        final double b0 = m10, b1 = m11, b2 = m12;
+        final double c0 = m20, c1 = m21, c2 = m22;
+        for (int i = from; i < to; i++) {
+            final double vx = x[i];
+            final double vy = y[i];
+            final double vz = z[i];
+            final double d = 1d / (1d + c0 * vx + c1 * vy + c2 * vz);
+            projectedX[i] = d * (a0 * vx + a1 * vy + a2 * vz);
+            projectedY[i] = d * (b0 * vx + b1 * vy + b2 * vz);
+        }
+    }
+
+    /**
+     * Selects, among the unit vectors of indices {@code from} (inclusive) to {@code to} (exclusive),
+     * the ones whose altitude is at least {@code minAltitude} and whose angular distance to the
+     * center of the projection is at most {@code maxAngularDistance}. Both tests are made on the
+     * vectors themselves (the third row of the matrix is the cosine of the angular distance to
+     * the center), so that the vectors do not need to be projected.
+     *
+     * @param x                  the x-components of the unit vectors
+     * @param y                  the y-components of the unit vectors
+     * @param z                  the z-components of the unit vectors
+     * @param from               the index of the first vector to test
+     * @param to                 the index after the last vector to test
+     * @param minAltitude        the minimal altitude, in radians ({@code -PI/2} or less to keep all of them)
+     * @param maxAngularDistance the maximal angular distance to the center, in radians ({@code PI} or more
+     *                           to keep all of them)
+     * @param selected           the array receiving the indices of the selected vectors, in increasing order
+     * @return the number of selected vectors.
+     */
+    public int select(double[] x, double[] y, double[] z, int from, int to,
+                      double minAltitude, double maxAngularDistance, int[] selected) {
+        final double minSinAltitude = minAltitude <= -Math.PI / 2
+                ? Double.NEGATIVE_INFINITY
+                : Math.sin(minAltitude);
+        final double minCosDistance = maxAngularDistance >= Math.PI
+                ? Double.NEGATIVE_INFINITY
+                : Math.cos(Math.max(0, maxAngularDistance));
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            final double vx = x[i];
+            final double vy = y[i];
+            final double vz = z[i];
+            if (s0 * vx + s1 * vy + s2 * vz >= minSinAltitude
+                    && m20 * vx + m21 * vy + m22 * vz >= minCosDistance) {
+                selected[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @throws UnsupportedOperationException this operation is forbidden.
+     */
+    @Override
+    public int hashCode() {
+        throw new UnsupportedOperationException("tried to call hashCode on UnitVectorProjection");
+    }
+
+    /**
+     * @throws UnsupportedOperationException this operation is forbidden.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        throw new UnsupportedOperationException("tried to call equals on UnitVectorProjection");
+    }
+
+}
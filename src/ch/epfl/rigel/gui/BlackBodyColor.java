@@ -9,8 +9,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Objects;
 
 /**
  * This class is useful for its {@link #fromTemperature(int)} which retrieves
@@ -26,16 +25,26 @@ public class BlackBodyColor {
      * This interval represents the span of colors covered by {@link #fromTemperature(int)}.
      */
     private static final Interval TEMPERATURE_INTERVAL = ClosedInterval.of(1000, 40_000);
+    /**
+     * The difference of temperature between two consecutive colors of the palette, in Kelvins.
+     */
+    private static final int TEMPERATURE_STEP = 100;
+    /**
+     * The number of colors of the palette, one per step of temperature in {@link #TEMPERATURE_INTERVAL}.
+     *
+     * @see #paletteIndex(int)
+     */
+    public static final int PALETTE_SIZE = (int) (TEMPERATURE_INTERVAL.size() / TEMPERATURE_STEP) + 1;
     /**
      * This constant allows us to skip lines of the file that are not in "2deg".
      */
     private static final String DEG_10 = "10deg";
     /**
-     * This is the mapping of temperatures to their colors.
+     * This is the palette of the colors, indexed by step of temperature from the lowest one.
      *
-     * @see #fromTemperature(int)
+     * @see #paletteIndex(int)
      */
-    private static final Map<Integer, Color> COLOR_MAP = new HashMap<>();
+    private static final Color[] PALETTE = new Color[PALETTE_SIZE];
 
     static {
         try (final BufferedReader reader = new BufferedReader(new InputStreamReader(BlackBodyColor.class.getResourceAsStream("/bbr_color.txt")))) {
@@ -47,7 +56,7 @@ public class BlackBodyColor {
                 }
                 final int temperature = Integer.parseInt(line.substring(1, 6).trim()); // remove trailing white spaces
                 final String hex = line.substring(80, 87);
-                COLOR_MAP.put(temperature, Color.web(hex));
+                PALETTE[(temperature - (int) TEMPERATURE_INTERVAL.low()) / TEMPERATURE_STEP] = Color.web(hex);
             }
         } catch (IOException e) {
             throw new UncheckedIOException(e);
@@ -61,13 +70,33 @@ public class BlackBodyColor {
      * @throws IllegalArgumentException if the temperature is not in the right interval
      */
     public static Color fromTemperature(int temperature) {
+        return PALETTE[paletteIndex(temperature)];
+    }
+
+    /**
+     * Computes the index in the palette of the color of the provided temperature, which can be
+     * resolved once per star, as the temperatures of the stars do not change; the color is then
+     * given by {@link #fromPaletteIndex(int)}.
+     *
+     * @param temperature the temperature, in Kelvins, between 1000K and 40_000K
+     * @return the index of the color of the provided temperature, rounded to the closest 100
+     * multiple, between {@code 0} (inclusive) and {@link #PALETTE_SIZE} (exclusive).
+     * @throws IllegalArgumentException if the temperature is not in the right interval
+     */
+    public static int paletteIndex(int temperature) {
         Preconditions.checkInInterval(TEMPERATURE_INTERVAL, temperature);
+        return Math.round(temperature / (float) TEMPERATURE_STEP) - (int) TEMPERATURE_INTERVAL.low() / TEMPERATURE_STEP;
+    }
 
-        if (COLOR_MAP.containsKey(temperature)) {
-            return COLOR_MAP.get(temperature);
-        } else {
-            return COLOR_MAP.get(100 * Math.round(temperature / 100f));
-        }
+    /**
+     * @param index an index of the palette (see {@link #paletteIndex(int)})
+     * @return the color of the provided index of the palette.
+     * @throws IndexOutOfBoundsException if the index is not between {@code 0} (inclusive) and
+     *                                   {@link #PALETTE_SIZE} (exclusive)
+     */
+    public static Color fromPaletteIndex(int index) {
+        Objects.checkIndex(index, PALETTE_SIZE);
+        return PALETTE[index];
     }
 
     private BlackBodyColor() {
@@ -0,0 +1,137 @@
+package ch.epfl.rigel.gui;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.layout.Pane;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Renders the sky as a stack of canvases, one per layer (for instance the stars, the planets or
+ * the horizon), each one of them painted by its own {@link SkyCanvasPainter}. A layer keeps what
+ * it painted until its key changes: the key holds everything the painting depends on, so that
+ * toggling an overlay or highlighting an object only repaints the layer it affects, while the
+ * other ones (typically, the thousands of stars) are composited as they are by JavaFX.
+ * <p>
+ * The keys are compared element by element: the objects by identity (most of the values of the
+ * sky, such as the projections, do not define equality), and the boxed primitive values by value.
+ *
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public final class LayeredSkyRenderer {
+
+    private final Pane pane = new Pane();
+    private final List<Layer> layers = new ArrayList<>();
+    // the number of times a layer was painted since the creation of the renderer
+    private long paintedLayers;
+
+    /**
+     * A canvas, with the painting that fills it and the key of what it holds.
+     */
+    private static final class Layer {
+        private final Canvas canvas;
+        private final SkyCanvasPainter painter;
+        private final Supplier<Object[]> key;
+        private final Consumer<SkyCanvasPainter> painting;
+        // the key of the last painting, and the size of the canvas at that time
+        private Object[] paintedKey;
+        private double paintedWidth;
+        private double paintedHeight;
+
+        private Layer(Canvas canvas, Supplier<Object[]> key, Consumer<SkyCanvasPainter> painting) {
+            this.canvas = Objects.requireNonNull(canvas);
+            this.painter = new SkyCanvasPainter(canvas);
+            this.key = Objects.requireNonNull(key);
+            this.painting = Objects.requireNonNull(painting);
+        }
+
+        /**
+         * @param current the current key of the layer
+         * @return {@code true} if the layer does not hold the painting of the provided key.
+         */
+        private boolean isDirty(Object[] current) {
+            if (paintedKey == null || paintedKey.length != current.length
+                    || paintedWidth != canvas.getWidth() || paintedHeight != canvas.getHeight()) {
+                return true;
+            }
+            for (int i = 0; i < current.length; i++) {
+                if (!sameValue(paintedKey[i], current[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @param a a value of a key
+     * @param b another value of a key
+     * @return {@code true} if both values are the same object, or equal boxed primitive values.
+     */
+    private static boolean sameValue(Object a, Object b) {
+        if (a == b) {
+            return true;
+        }
+        return (a instanceof Number || a instanceof Boolean || a instanceof Character) && a.equals(b);
+    }
+
+    /**
+     * Adds a layer above the ones added before: the provided canvas is added to the pane, and is
+     * painted by the provided painting whenever the key changes, or the canvas is resized. The
+     * canvas is cleared (made transparent) before each painting.
+     *
+     * @param canvas   the canvas of the layer, which must not be added to another node
+     * @param key      the supplier of the key of the layer, read at each rendering
+     * @param painting the painting of the layer, given the painter of its canvas
+     * @throws NullPointerException if one of the parameters is {@code null}
+     */
+    public void addLayer(Canvas canvas, Supplier<Object[]> key, Consumer<SkyCanvasPainter> painting) {
+        final Layer layer = new Layer(canvas, key, painting);
+        layers.add(layer);
+        pane.getChildren().add(canvas);
+    }
+
+    /**
+     * Paints the layers whose key changed since their last painting (from the bottom one to the
+     * top one), and leaves the other ones untouched.
+     *
+     * @return the number of painted layers.
+     */
+    public int render() {
+        int painted = 0;
+        for (Layer layer : layers) {
+            final Object[] current = layer.key.get().clone();
+            if (layer.isDirty(current)) {
+                layer.painter.clearTransparent();
+                layer.painting.accept(layer.painter);
+                layer.paintedKey = current;
+                layer.paintedWidth = layer.canvas.getWidth();
+                layer.paintedHeight = layer.canvas.getHeight();
+                painted++;
+            }
+        }
+        paintedLayers += painted;
+        return painted;
+    }
+
+    /**
+     * @return the pane stacking the canvases of the layers, in the order they were added (the
+     * last one on top).
+     */
+    public Pane pane() {
+        return pane;
+    }
+
+    /**
+     * @return the number of times a layer was painted since the creation of the renderer.
+     */
+    public long paintedLayers() {
+        return paintedLayers;
+    }
+
+}
@@ -1,7 +1,6 @@
 package ch.epfl.rigel.gui;
 
-import ch.epfl.rigel.astronomy.AsterismLoader;
-import ch.epfl.rigel.astronomy.HygDatabaseLoader;
+import ch.epfl.rigel.astronomy.CatalogueCache;
 import ch.epfl.rigel.astronomy.StarCatalogue;
 import ch.epfl.rigel.gui.screen.EntranceScreen;
 import ch.epfl.rigel.gui.screen.ScreenController;
@@ -9,12 +8,17 @@ import ch.epfl.rigel.gui.screen.ScreenNames;
 import ch.epfl.rigel.gui.screen.StarViewScreen;
 import ch.epfl.rigel.storage.FavoritesList;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.stage.Stage;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,6 +32,7 @@ import java.util.logging.Logger;
 public class Main extends Application {
 
     private static final String FAVORITES_PATH = "favorites.data";
+    private static final String CATALOGUE_CACHE_PATH = "catalogue.cache";
     /**
      * The initial width of the screen.
      */
@@ -69,19 +74,8 @@ public class Main extends Application {
         primaryStage.setWidth(INITIAL_WIDTH);
         primaryStage.setHeight(INITIAL_HEIGHT);
 
-        StarCatalogue catalogue = null;
-        // initialize catalogue
-        try (final InputStream hs = getClass().getResourceAsStream("/hygdata_v3.csv");
-             final InputStream as = getClass().getResourceAsStream("/asterisms.txt")) {
-            catalogue = new StarCatalogue.Builder()
-                    .loadFrom(hs, HygDatabaseLoader.INSTANCE)
-                    .loadFrom(as, AsterismLoader.INSTANCE)
-                    .build();
-        } catch (Exception e) {
-            Logger.getLogger("Rigel").log(Level.SEVERE,
-                    "Could not load the hyg database and/or the asterisms file, stack trace:", e);
-            System.exit(1); // exit with error
-        }
+        // the catalogue is loaded in the background, while the entrance screen is shown
+        final CompletableFuture<StarCatalogue> catalogue = CompletableFuture.supplyAsync(this::loadCatalogue);
 
         FavoritesList list = null;
         try {
@@ -99,9 +93,18 @@ public class Main extends Application {
             }
         }
 
+        final FavoritesList favorites = list;
         final ScreenController controller = new ScreenController();
-        controller.addScreen(new EntranceScreen(controller));
-        controller.addScreen(new StarViewScreen(catalogue, list));
+        final CompletableFuture<Void> starViewReady = catalogue.thenAcceptAsync(c -> {
+            controller.addScreen(new StarViewScreen(c, favorites));
+        }, Platform::runLater);
+        starViewReady.exceptionally(e -> {
+            Logger.getLogger("Rigel").log(Level.SEVERE,
+                    "Could not load the hyg database and/or the asterisms file, stack trace:", e);
+            System.exit(1); // exit with error
+            return null;
+        });
+        controller.addScreen(new EntranceScreen(controller, starViewReady));
 
         // set to main screen
         controller.changeScreen(ScreenNames.ENTRANCE_SCREEN);
@@ -119,4 +122,19 @@ public class Main extends Application {
         primaryStage.setOnCloseRequest(event -> save.run());
     }
 
+    /**
+     * Loads the catalogue of stars and asterisms, from the cache whenever possible.
+     *
+     * @return the loaded catalogue.
+     * @throws UncheckedIOException if the catalogue could not have been loaded
+     */
+    private StarCatalogue loadCatalogue() {
+        try (final InputStream hs = getClass().getResourceAsStream("/hygdata_v3.csv");
+             final InputStream as = getClass().getResourceAsStream("/asterisms.txt")) {
+            return new CatalogueCache(Paths.get(CATALOGUE_CACHE_PATH)).load(hs, as);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 }
@@ -1,5 +1,6 @@
 package ch.epfl.rigel.gui;
 
+import ch.epfl.rigel.astronomy.BackgroundSkyObserver;
 import ch.epfl.rigel.astronomy.CelestialObject;
 import ch.epfl.rigel.astronomy.ObservedSky;
 import ch.epfl.rigel.astronomy.StarCatalogue;
@@ -9,19 +10,25 @@ import ch.epfl.rigel.coordinates.StereographicProjection;
 import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.math.ClosedInterval;
 import ch.epfl.rigel.math.RightOpenInterval;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.beans.binding.Bindings;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleObjectProperty;
-import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableDoubleValue;
 import javafx.beans.value.ObservableObjectValue;
 import javafx.geometry.Point2D;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
 import javafx.scene.input.MouseButton;
 import javafx.scene.paint.Color;
 import javafx.scene.transform.NonInvertibleTransformException;
 import javafx.scene.transform.Transform;
 
+import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.Objects;
 
 /**
@@ -74,14 +81,22 @@ public class SkyCanvasManager {
      * The width of the circle drawn around the focused CelestialObject.
      */
     private static final double FOCUS_WIDTH = 2d;
+    /**
+     * The default maximal age of the Sun, the Moon and the planets when only the moment of the
+     * observation changes: in five minutes, the Moon moves by less than 3', below a pixel at
+     * the usual fields of view.
+     */
+    private static final Duration DEFAULT_SOLAR_SYSTEM_PERIOD = Duration.ofMinutes(5);
 
+    // the canvas on top of the layers, which receives the events and holds the focus circle
     private final Canvas canvas = new Canvas();
-    private final SkyCanvasPainter painter = new SkyCanvasPainter(canvas);
+    private final LayeredSkyRenderer renderer = new LayeredSkyRenderer();
 
     // the following values are stored into floats
     private final SimpleObjectProperty<Point2D> mousePosition = new SimpleObjectProperty<>(new Point2D(0, 0));
 
     private final ViewingParametersBean viewingParameters;
+    private final DisplayParametersBean displayParameters;
 
     private final ObservableObjectValue<CelestialObject> objectUnderMouse;
     private final ObservableObjectValue<StereographicProjection> projection;
@@ -92,6 +107,22 @@ public class SkyCanvasManager {
     private final ObservableDoubleValue mouseAltitude;
     private final ObservableDoubleValue maxDistance; // used for objectClosesTo
 
+    // computes the observed skies in the background
+    private final BackgroundSkyObserver skyObserver;
+
+    // whether the painting of the canvas is already scheduled, and the counts of the requested
+    // and done paintings (only accessed on the JavaFX application thread)
+    private boolean redrawScheduled;
+    private long redrawsRequested;
+    private long redrawsDone;
+    // the object around which a circle is drawn by the next painting, if any
+    private CelestialObject focused;
+    // the position of the focus circle on the canvas, and the sky and transform it was computed
+    // with: the circle is shown until either one of them changes
+    private Point2D focusMark;
+    private ObservedSky focusSky;
+    private Transform focusTransform;
+
     /**
      * Initializes the bindings that allow updating the user's view, sets up
      * the canvas drawer, and sets up its updates as well.
@@ -106,12 +137,33 @@ public class SkyCanvasManager {
     public SkyCanvasManager(StarCatalogue catalogue, DateTimeBean dateTime,
                             ObserverLocationBean observerLocation, ViewingParametersBean viewingParameters,
                             DisplayParametersBean displayParameters) {
+        this(new ReadOnlyObjectWrapper<>(Objects.requireNonNull(catalogue)).getReadOnlyProperty(), dateTime,
+                observerLocation, viewingParameters, displayParameters);
+    }
+
+    /**
+     * Initializes the bindings that allow updating the user's view, sets up
+     * the canvas drawer, and sets up its updates as well. The observed sky follows
+     * the provided catalogue: whenever another catalogue is set, the sky is recomputed
+     * and redrawn with it.
+     *
+     * @param catalogue         the (non-{@code null}) star and asterisms catalogue to use
+     * @param dateTime          the date time of the observation
+     * @param observerLocation  observer's location
+     * @param viewingParameters the viewing parameters of the user
+     * @param displayParameters the display parameters of the user
+     * @throws NullPointerException if one of the parameters is {@code null}
+     */
+    public SkyCanvasManager(ObservableObjectValue<StarCatalogue> catalogue, DateTimeBean dateTime,
+                            ObserverLocationBean observerLocation, ViewingParametersBean viewingParameters,
+                            DisplayParametersBean displayParameters) {
         // first assert all prerequisites, in order to avoid heavy syntax
-        Objects.requireNonNull(catalogue);
+        Objects.requireNonNull(catalogue.get());
         Objects.requireNonNull(dateTime);
         Objects.requireNonNull(observerLocation);
         Objects.requireNonNull(displayParameters);
         this.viewingParameters = Objects.requireNonNull(viewingParameters);
+        this.displayParameters = displayParameters;
 
         projection = Bindings.createObjectBinding(
                 () -> new StereographicProjection(viewingParameters.getCenter()),
@@ -164,22 +216,38 @@ public class SkyCanvasManager {
                 mouseHorizontalPosition
         );
 
-        observedSky = Bindings.createObjectBinding(
-                () -> new ObservedSky(dateTime.getZonedDateTime(),
-                        observerLocation.getCoordinates(), projection.get(), catalogue),
+        // the skies are computed on a background thread, from immutable snapshots of the parameters
+        // of the observation (only the latest one is computed when they change faster than the skies
+        // are computed), and handed over to the JavaFX application thread, which only paints them;
+        // the first one is computed right away, so that there always is a sky to paint
+        final SimpleObjectProperty<ObservedSky> sky = new SimpleObjectProperty<>(new ObservedSky(
+                dateTime.getZonedDateTime(), observerLocation.getCoordinates(), projection.get(), catalogue.get()));
+        observedSky = sky;
+        skyObserver = new BackgroundSkyObserver(sky.get(), Platform::runLater, sky::set);
+        skyObserver.setSolarSystemPeriod(DEFAULT_SOLAR_SYSTEM_PERIOD);
+        final InvalidationListener skyRequest = o -> skyObserver.request(dateTime.getZonedDateTime(),
+                observerLocation.getCoordinates(), projection.get(), catalogue.get());
+        final Observable[] observationParameters = {
+                catalogue,
                 observerLocation.longitudeProperty(),
                 observerLocation.latitudeProperty(),
                 projection,
                 dateTime.dateProperty(),
                 dateTime.timeProperty(),
                 dateTime.zoneProperty()
-        );
+        };
+        for (Observable parameter : observationParameters) {
+            parameter.addListener(skyRequest);
+        }
 
         maxDistance = Bindings.createDoubleBinding(
                 () -> Math.abs(transform.get().inverseDeltaTransform(MAX_DISTANCE, 0).getX()),
                 transform
         );
 
+        // the object under the mouse is only picked again when the mouse moves or the view changes,
+        // not when a sky is delivered: otherwise, the text bound to it would pick each sky of an
+        // animation on the JavaFX application thread, which only paints them
         objectUnderMouse = Bindings.createObjectBinding(
                 () -> {
                     final Point2D mouse;
@@ -196,7 +264,6 @@ public class SkyCanvasManager {
                             .orElse(null);
                 },
                 mousePosition,
-                observedSky,
                 transform
         );
         // JFX events
@@ -243,26 +310,11 @@ public class SkyCanvasManager {
             }
             event.consume();
         });
-        // draw listeners
-        final ChangeListener<Object> listener = (observable, oldValue, newValue) -> {
-            final ObservedSky s = observedSky.get();
-            final StereographicProjection p = projection.get();
-            final Transform t = transform.get();
-            painter.clear();
-            painter.drawStars(s, p, t, displayParameters.isDisplayStars(), displayParameters.isDisplayAsterisms());
-            if (displayParameters.isDisplayPlanets()) {
-                painter.drawPlanets(s, p, t);
-            }
-            if (displayParameters.isDisplaySun()) {
-                painter.drawSun(s, p, t);
-            }
-            if (displayParameters.isDisplayMoon()) {
-                painter.drawMoon(s, p, t);
-            }
-            if (displayParameters.isDisplayHorizon()) {
-                painter.drawHorizon(s, p, t);
-            }
-        };
+        // the canvas is not painted by the listeners themselves, but at most once per pulse, with
+        // the values of the properties at that time: a change of the center of the projection
+        // (which invalidates both the sky and the transform) or several changes of the display
+        // parameters in a row only paint the canvas once
+        final InvalidationListener listener = o -> requestRedraw();
         observedSky.addListener(listener);
         transform.addListener(listener);
         displayParameters.displayAsterismsProperty().addListener(listener);
@@ -271,24 +323,105 @@ public class SkyCanvasManager {
         displayParameters.displayStarsProperty().addListener(listener);
         displayParameters.displayMoonProperty().addListener(listener);
         displayParameters.displaySunProperty().addListener(listener);
+        viewingParameters.minimumAltitudeProperty().addListener(listener);
+        // each layer is only painted again when its key changes: the values of the sky it is drawn from
+        // (the sky, the transform, and the projection of the sky), and its display parameters
+        renderer.addLayer(layerCanvas(),
+                () -> new Object[]{this.observedSky.get(), this.transform.get(), displayParameters.isDisplayAsterisms()},
+                painter -> {
+                    painter.clear();
+                    if (displayParameters.isDisplayAsterisms()) {
+                        painter.drawAsterisms(this.observedSky.get(), this.transform.get());
+                    }
+                });
+        renderer.addLayer(layerCanvas(),
+                () -> new Object[]{this.observedSky.get(), this.transform.get(), displayParameters.isDisplayStars(),
+                        viewingParameters.getMinimumAltitude()},
+                painter -> {
+                    if (displayParameters.isDisplayStars()) {
+                        final ObservedSky s = this.observedSky.get();
+                        painter.drawStars(s, s.projection(), this.transform.get(),
+                                Angle.ofDeg(viewingParameters.getMinimumAltitude()));
+                    }
+                });
+        renderer.addLayer(layerCanvas(),
+                () -> new Object[]{this.observedSky.get(), this.transform.get(), displayParameters.isDisplayPlanets()},
+                painter -> {
+                    if (displayParameters.isDisplayPlanets()) {
+                        final ObservedSky s = this.observedSky.get();
+                        painter.drawPlanets(s, s.projection(), this.transform.get());
+                    }
+                });
+        renderer.addLayer(layerCanvas(),
+                () -> new Object[]{this.observedSky.get(), this.transform.get(), displayParameters.isDisplaySun()},
+                painter -> {
+                    if (displayParameters.isDisplaySun()) {
+                        final ObservedSky s = this.observedSky.get();
+                        painter.drawSun(s, s.projection(), this.transform.get());
+                    }
+                });
+        renderer.addLayer(layerCanvas(),
+                () -> new Object[]{this.observedSky.get(), this.transform.get(), displayParameters.isDisplayMoon()},
+                painter -> {
+                    if (displayParameters.isDisplayMoon()) {
+                        final ObservedSky s = this.observedSky.get();
+                        painter.drawMoon(s, s.projection(), this.transform.get());
+                    }
+                });
+        // the horizon does not move with the moment of the observation
+        renderer.addLayer(layerCanvas(),
+                () -> new Object[]{this.observedSky.get().projection(), this.transform.get(),
+                        displayParameters.isDisplayHorizon()},
+                painter -> {
+                    if (displayParameters.isDisplayHorizon()) {
+                        final ObservedSky s = this.observedSky.get();
+                        painter.drawHorizon(s, s.projection(), this.transform.get());
+                    }
+                });
+        renderer.addLayer(canvas, () -> new Object[]{currentFocusMark()}, painter -> drawFocusMark());
+
+        // the bindings only notify their invalidation once they have been computed, which the
+        // first painting does
+        requestRedraw();
         // we do not add a listener to projection, because its value change
         // updates transform anyway
     }
 
     /**
-     * @return the property that holds the object under the mouse.
+     * @return the property that holds the object under the mouse, in the sky on display when the
+     * mouse last moved or the view last changed (it is not picked again at each new sky).
      */
     public ObservableObjectValue<CelestialObject> objectUnderMouseProperty() {
         return objectUnderMouse;
     }
 
     /**
-     * @return the canvas used for drawing.
+     * @return the canvas on top of the layers of the sky, which receives the events: its size is
+     * the size of all the layers.
      */
     public Canvas canvas() {
         return canvas;
     }
 
+    /**
+     * @return the pane stacking the layers of the sky, to be displayed instead of the canvas.
+     */
+    public Pane pane() {
+        return renderer.pane();
+    }
+
+    /**
+     * @return a new canvas for a layer below the top canvas, of the same size as the top canvas,
+     * and which lets the events through.
+     */
+    private Canvas layerCanvas() {
+        final Canvas layer = new Canvas();
+        layer.widthProperty().bind(canvas.widthProperty());
+        layer.heightProperty().bind(canvas.heightProperty());
+        layer.setMouseTransparent(true);
+        return layer;
+    }
+
     /**
      * @return the property that holds the azimuth of the mouse, in HorizontalCoordinates.
      */
@@ -310,13 +443,17 @@ public class SkyCanvasManager {
      *
      * @return {@code true} if the CelestialObject has been successfully focused on,
      * otherwise returns {@code false}. (Happens when the CelestialObject is not in range
-     * too see.)
+     * too see, or is not in the observed sky.)
      *
      * @param o the {@link CelestialObject} to focus on
      */
     public boolean focus(CelestialObject o) {
-        final CartesianCoordinates pos = observedSky.get().locate(o);
-        final HorizontalCoordinates coordinates = projection.get().inverseApply(pos);
+        final ObservedSky sky = observedSky.get();
+        final CartesianCoordinates pos = sky.locate(o);
+        if (pos == null) {
+            return false;
+        }
+        final HorizontalCoordinates coordinates = sky.projection().inverseApply(pos);
         if (!ALT_LIM.contains(coordinates.altDeg())) {
             return false;
         }
@@ -326,23 +463,129 @@ public class SkyCanvasManager {
                         ALT_LIM.clip(coordinates.altDeg())
                 )
         );
-        // we need the updated coordinates after the change of center
-        final CartesianCoordinates updated = observedSky.get().locate(o);
-        final Transform t = transform.get();
-        final Point2D canvasPosition = t.transform(updated.x(), updated.y());
-        final GraphicsContext context = canvas.getGraphicsContext2D();
-        context.setStroke(FOCUS_COLOR);
-        context.setLineWidth(FOCUS_WIDTH);
-        context.strokeOval(canvasPosition.getX() - FOCUS_RADIUS / 2d, canvasPosition.getY() - FOCUS_RADIUS / 2d,
-                FOCUS_RADIUS, FOCUS_RADIUS);
+        // the circle is drawn with the next painting of the canvas, after the change of center
+        focused = o;
+        requestRedraw();
         return true;
     }
 
     /**
-     * @return the instance of {@link ObservedSky} that is in use.
+     * @return the instance of {@link ObservedSky} that is in use, which is the last one computed in
+     * the background (it may lag behind the parameters of the observation while the next one is
+     * computed).
      */
     public ObservedSky sky() {
         return observedSky.get();
     }
 
+    /**
+     * Marks the canvas as dirty, and schedules its painting if it is not scheduled yet. The
+     * painting runs on the JavaFX application thread after the current event (and the other
+     * runnables already posted), so that all the changes made meanwhile are painted at once.
+     */
+    private void requestRedraw() {
+        redrawsRequested++;
+        if (!redrawScheduled) {
+            redrawScheduled = true;
+            Platform.runLater(this::redraw);
+        }
+    }
+
+    /**
+     * Paints the layers of the canvas whose values changed, and places the focus circle around the
+     * focused object if any.
+     */
+    private void redraw() {
+        redrawScheduled = false;
+        redrawsDone++;
+        final ObservedSky s = observedSky.get();
+        // the circle is only placed once the sky is centered on the object (the sky may still be the
+        // one of the previous projection, until the next one is computed)
+        if (focused != null && s.projection() == projection.get()) {
+            final CartesianCoordinates position = s.locate(focused);
+            focused = null;
+            focusSky = s;
+            focusTransform = transform.get();
+            focusMark = position == null ? null : focusTransform.transform(position.x(), position.y());
+        }
+        renderer.render();
+    }
+
+    /**
+     * @return the position of the focus circle on the canvas, or {@code null} if there is none
+     * (the circle disappears once the sky or the transform changes).
+     */
+    private Point2D currentFocusMark() {
+        return focusSky == observedSky.get() && focusTransform == transform.get() ? focusMark : null;
+    }
+
+    /**
+     * Draws the focus circle on the top canvas, if any.
+     */
+    private void drawFocusMark() {
+        final Point2D mark = currentFocusMark();
+        if (mark != null) {
+            final GraphicsContext context = canvas.getGraphicsContext2D();
+            context.setStroke(FOCUS_COLOR);
+            context.setLineWidth(FOCUS_WIDTH);
+            context.strokeOval(mark.getX() - FOCUS_RADIUS / 2d, mark.getY() - FOCUS_RADIUS / 2d,
+                    FOCUS_RADIUS, FOCUS_RADIUS);
+        }
+    }
+
+    /**
+     * @return the number of times the canvas was marked as dirty since the creation of the manager.
+     */
+    public long redrawsRequested() {
+        return redrawsRequested;
+    }
+
+    /**
+     * @return the number of times the canvas was painted since the creation of the manager, which
+     * is at most the number of times it was marked as dirty (see {@link #redrawsRequested()}).
+     */
+    public long redrawsDone() {
+        return redrawsDone;
+    }
+
+    /**
+     * @return the number of times a layer of the canvas was painted since the creation of the
+     * manager: a painting of the canvas only paints the layers whose values changed.
+     */
+    public long layersPainted() {
+        return renderer.paintedLayers();
+    }
+
+    /**
+     * @return the number of skies requested to the background observer since the creation of the manager.
+     */
+    public long skiesRequested() {
+        return skyObserver.requests();
+    }
+
+    /**
+     * @return the number of skies computed in the background since the creation of the manager,
+     * which is at most the number of requested ones (see {@link #skiesRequested()}).
+     */
+    public long skiesComputed() {
+        return skyObserver.computations();
+    }
+
+    /**
+     * Changes the period at which the Sun, the Moon and the planets are computed again while only
+     * the moment of the observation changes, as during an animation (see
+     * {@link ObservedSky#withMoment(ZonedDateTime, Duration, ObservedSky)}). In between, they
+     * follow the rotation of the sky, but not their own motion. The period is measured in the
+     * time of the observation: with an accelerated animation, the objects are computed again
+     * every few frames only.
+     *
+     * @param period the period, in the time of the observation ({@link Duration#ZERO} to compute
+     *               them at each frame)
+     * @throws NullPointerException     if the period is {@code null}
+     * @throws IllegalArgumentException if the period is negative
+     */
+    public void setSolarSystemPeriod(Duration period) {
+        skyObserver.setSolarSystemPeriod(period);
+    }
+
 }
@@ -1,9 +1,8 @@
 package ch.epfl.rigel.gui;
 
 import ch.epfl.rigel.astronomy.Asterism;
-import ch.epfl.rigel.astronomy.CelestialObject;
 import ch.epfl.rigel.astronomy.ObservedSky;
-import ch.epfl.rigel.astronomy.Star;
+import ch.epfl.rigel.astronomy.StarCatalogue;
 import ch.epfl.rigel.coordinates.CartesianCoordinates;
 import ch.epfl.rigel.coordinates.HorizontalCoordinates;
 import ch.epfl.rigel.coordinates.StereographicProjection;
@@ -15,9 +14,11 @@ import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.text.TextAlignment;
+import javafx.scene.transform.NonInvertibleTransformException;
 import javafx.scene.transform.Transform;
 
-import java.util.List;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -50,6 +51,16 @@ public class SkyCanvasPainter {
     private static final ClosedInterval MAGNITUDE_CLIP = ClosedInterval.of(-2d, 5d);
 
     private final Canvas canvas;
+    // the positions transformed to the canvas, reused from one frame to the next
+    private double[] transformedPositions = new double[0];
+    // the buckets of color and size of the stars of the last drawn catalogue, resolved once per catalogue
+    private StarBuckets buckets;
+    // the circles of the visible stars sorted by bucket (left, top and diameter of each one of
+    // them), and the bounds of the buckets, reused from one frame to the next
+    private double[] sortedCircles = new double[0];
+    private final int[] bucketStarts = new int[StarBuckets.BUCKET_COUNT + 1];
+    // the indices of the visible stars, reused from one frame to the next
+    private int[] visibleStars = new int[0];
 
     /**
      * @param canvas the canvas to draw to
@@ -65,13 +76,87 @@ public class SkyCanvasPainter {
      * according to its provided magnitude {@code magnitude}.
      */
     private static double objectRadius(double magnitude, StereographicProjection projection) {
+        return sizeFactor(magnitude) * projection.applyToAngle(SUN_ANGLE);
+    }
+
+    /**
+     * @param magnitude the magnitude of a CelestialObject
+     * @return the size of the circle representing a CelestialObject of the provided magnitude,
+     * relatively to the angular size of the Sun (between 0.1 and 0.95).
+     */
+    static double sizeFactor(double magnitude) {
         final double clipped = MAGNITUDE_CLIP.clip(magnitude);
-        final double scaleFactor = (99d - 17d * clipped) / 140d;
-        return scaleFactor * projection.applyToAngle(SUN_ANGLE);
+        return (99d - 17d * clipped) / 140d;
+    }
+
+    /**
+     * Applies the provided transform to the provided positions, into the buffer of the painter,
+     * which is grown if needed but never shrunk: the positions are neither copied beforehand nor
+     * allocated at each frame.
+     *
+     * @param positions the positions, where each one of them takes two indices: the first one,
+     *                  for its x-coordinate; the second one, for its y-coordinate
+     * @param transform the (affine) transform to apply
+     * @return the buffer of the painter, whose first {@code positions.remaining()} values are the
+     * transformed positions (valid until the next call).
+     */
+    private double[] transform(DoubleBuffer positions, Transform transform) {
+        final int length = positions.remaining();
+        if (transformedPositions.length < length) {
+            transformedPositions = new double[length];
+        }
+        final double mxx = transform.getMxx(), mxy = transform.getMxy(), tx = transform.getTx();
+        final double myx = transform.getMyx(), myy = transform.getMyy(), ty = transform.getTy();
+        final int start = positions.position();
+        for (int i = 0; i < length; i += 2) {
+            final double x = positions.get(start + i);
+            final double y = positions.get(start + i + 1);
+            transformedPositions[i] = mxx * x + mxy * y + tx;
+            transformedPositions[i + 1] = myx * x + myy * y + ty;
+        }
+        return transformedPositions;
+    }
+
+    /**
+     * @param catalogue the catalogue of the stars
+     * @return the buckets of color and size of the stars of the provided catalogue, which are kept for the
+     * next frames, since the colors and the sizes of the stars never change.
+     */
+    private StarBuckets buckets(StarCatalogue catalogue) {
+        if (buckets == null || buckets.catalogue() != catalogue) {
+            buckets = new StarBuckets(catalogue);
+        }
+        return buckets;
+    }
+
+    /**
+     * Computes the angular radius of the cone around the center of the projection that holds all
+     * the points drawn on the canvas: the farthest corner of the canvas is brought back to the
+     * plane, enlarged by the largest star, and a point at distance {@code r} of the center of the
+     * plane is {@code 2atan(r)} away from the center of the projection.
+     *
+     * @param projection the projection used to calculate the coordinates
+     * @param transform  the transform applied to all coordinates
+     * @return the angular radius of the cone, in radians ({@code PI} if the transform cannot be inverted).
+     */
+    private double viewRadius(StereographicProjection projection, Transform transform) {
+        double maxDistance = 0;
+        try {
+            for (int corner = 0; corner < 4; corner++) {
+                final Point2D point = transform.inverseTransform(
+                        (corner & 1) * canvas.getWidth(), (corner >> 1) * canvas.getHeight());
+                maxDistance = Math.max(maxDistance, Math.hypot(point.getX(), point.getY()));
+            }
+        } catch (NonInvertibleTransformException e) {
+            return Math.PI;
+        }
+        return 2 * Math.atan(maxDistance + objectRadius(MAGNITUDE_CLIP.low(), projection));
     }
 
     /**
      * Clears the canvas and paints the black background.
+     *
+     * @see #clearTransparent()
      */
     public void clear() {
         final GraphicsContext gfx = canvas.getGraphicsContext2D();
@@ -81,7 +166,14 @@ public class SkyCanvasPainter {
     }
 
     /**
-     * Draws the stars and the asterisms to the canvas.
+     * Clears the canvas, leaving it transparent: the canvases stacked below it show through.
+     */
+    public void clearTransparent() {
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+    }
+
+    /**
+     * Draws the stars and the asterisms to the canvas, including the stars below the horizon.
      *
      * @param sky              the observed sky to draw
      * @param projection       the projection used to calculate the coordinates
@@ -91,44 +183,136 @@ public class SkyCanvasPainter {
      * @throws NullPointerException if one of the parameters is {@code null}
      */
     public void drawStars(ObservedSky sky, StereographicProjection projection, Transform transform, boolean displayStars, boolean displayAsterisms) {
+        drawStars(sky, projection, transform, displayStars, displayAsterisms, -Math.PI / 2);
+    }
+
+    /**
+     * Draws the stars and the asterisms to the canvas. Only the stars above the provided altitude
+     * and within the field of view are drawn (see {@link ObservedSky#visibleStars(double, double)});
+     * the asterisms are drawn whole.
+     *
+     * @param sky              the observed sky to draw
+     * @param projection       the projection used to calculate the coordinates
+     * @param transform        the transform to apply to all coordinates
+     * @param displayStars     {@code true} if the stars should be rendered
+     * @param displayAsterisms {@code true} if the asterisms should be rendered
+     * @param minAltitude      the altitude under which the stars are not drawn, in radians
+     * @throws NullPointerException if one of the parameters is {@code null}
+     */
+    public void drawStars(ObservedSky sky, StereographicProjection projection, Transform transform, boolean displayStars,
+                          boolean displayAsterisms, double minAltitude) {
         Objects.requireNonNull(sky);
         Objects.requireNonNull(projection);
         Objects.requireNonNull(transform);
 
+        // draw asterisms first, then stars
+        if (displayAsterisms) {
+            drawAsterisms(sky, transform);
+        }
+        if (displayStars) {
+            drawStars(sky, projection, transform, minAltitude);
+        }
+    }
+
+    /**
+     * Draws the asterisms to the canvas, as lines between their stars.
+     *
+     * @param sky       the observed sky to draw
+     * @param transform the transform to apply to all coordinates
+     * @throws NullPointerException if one of the parameters is {@code null}
+     */
+    public void drawAsterisms(ObservedSky sky, Transform transform) {
+        Objects.requireNonNull(sky);
+        Objects.requireNonNull(transform);
+
         final GraphicsContext gfx = canvas.getGraphicsContext2D();
-        final double[] starPositions = sky.starPositions();
-        // apply the transform
-        transform.transform2DPoints(starPositions, 0, starPositions, 0, starPositions.length / 2);
+        // apply the transform, straight from the positions of the sky
+        final double[] starPositions = transform(sky.starPositionBuffer(), transform);
 
-        if (displayAsterisms) {
-            // draw asterisms first, then stars
-            // set the stroke for all lines
-            gfx.setStroke(Color.BLUE);
-            gfx.setLineWidth(1d);
-            for (Asterism asterism : sky.asterisms()) {
-                final List<Integer> indices = asterism.indices(sky);
-                gfx.beginPath();
-                for (int i = 0; i < indices.size() - 1; i++) {
-                    final int current = indices.get(i);
-                    final int next = indices.get(i + 1);
-                    final Point2D pointA = new Point2D(starPositions[2 * current], starPositions[2 * current + 1]);
-                    final Point2D pointB = new Point2D(starPositions[2 * next], starPositions[2 * next + 1]);
-                    if (canvas.contains(pointA) || canvas.contains(pointB)) {
-                        gfx.moveTo(pointA.getX(), pointA.getY());
-                        gfx.lineTo(pointB.getX(), pointB.getY());
-                        gfx.stroke();
-                    }
-                }
-                gfx.closePath();
+        // set the stroke for all lines
+        gfx.setStroke(Color.BLUE);
+        gfx.setLineWidth(1d);
+        // the same visitor draws all the segments, straight from the indices held by the catalogue
+        final StarCatalogue.SegmentVisitor segment = (current, next) -> {
+            final Point2D pointA = new Point2D(starPositions[2 * current], starPositions[2 * current + 1]);
+            final Point2D pointB = new Point2D(starPositions[2 * next], starPositions[2 * next + 1]);
+            if (canvas.contains(pointA) || canvas.contains(pointB)) {
+                gfx.moveTo(pointA.getX(), pointA.getY());
+                gfx.lineTo(pointB.getX(), pointB.getY());
+                gfx.stroke();
             }
+        };
+        for (Asterism asterism : sky.asterisms()) {
+            gfx.beginPath();
+            sky.catalogue().forEachAsterismSegment(asterism, segment);
+            gfx.closePath();
         }
+    }
 
-        if (displayStars) {
-            // draw stars
-            for (int i = 0; i < sky.stars().size(); i++) {
-                final Star star = sky.stars().get(i);
-                gfx.setFill(BlackBodyColor.fromTemperature(star.colorTemperature()));
-                drawUsual(star, starPositions[2 * i], starPositions[2 * i + 1], transform, projection);
+    /**
+     * Draws the stars to the canvas, without the asterisms. Only the stars above the provided
+     * altitude and within the field of view are drawn (see {@link ObservedSky#visibleStars(double, double)}),
+     * by color, then by size, rather than in the order of the catalogue (see {@link StarBuckets}).
+     *
+     * @param sky         the observed sky to draw
+     * @param projection  the projection used to calculate the coordinates
+     * @param transform   the transform to apply to all coordinates
+     * @param minAltitude the altitude under which the stars are not drawn, in radians
+     * @throws NullPointerException if one of the parameters is {@code null}
+     */
+    public void drawStars(ObservedSky sky, StereographicProjection projection, Transform transform, double minAltitude) {
+        Objects.requireNonNull(sky);
+        Objects.requireNonNull(projection);
+        Objects.requireNonNull(transform);
+
+        final GraphicsContext gfx = canvas.getGraphicsContext2D();
+        // apply the transform, straight from the positions of the sky
+        final double[] starPositions = transform(sky.starPositionBuffer(), transform);
+
+        // sort the visible stars by bucket (a counting sort, in the order of the catalogue within
+        // each bucket), then draw them bucket by bucket: the fill is only set once per color,
+        // instead of once per star (see StarBuckets for the resulting order)
+        final StarBuckets sorted = buckets(sky.catalogue());
+        if (visibleStars.length < sky.catalogue().starCount()) {
+            visibleStars = new int[sky.catalogue().starCount()];
+        }
+        final int[] visible = visibleStars;
+        final int visibleCount = sky.visibleStars(minAltitude, viewRadius(projection, transform), visible);
+        final short[] keys = sorted.keys();
+        final double[] sizes = sorted.sizes();
+        final int[] starts = bucketStarts;
+        Arrays.fill(starts, 0);
+        for (int v = 0; v < visibleCount; v++) {
+            starts[keys[visible[v]] + 1]++;
+        }
+        for (int b = 0; b < StarBuckets.BUCKET_COUNT; b++) {
+            starts[b + 1] += starts[b];
+        }
+        // the circles are copied in the order of the buckets, so that they are then read in a row
+        if (sortedCircles.length < 3 * visibleCount) {
+            sortedCircles = new double[3 * visibleCount];
+        }
+        // the diameter of a star is its size factor times the diameter of the Sun on the canvas
+        final double unit = Math.abs(transform.deltaTransform(projection.applyToAngle(SUN_ANGLE), 0).getX());
+        for (int v = 0; v < visibleCount; v++) {
+            final int i = visible[v];
+            final int slot = 3 * starts[keys[i]]++;
+            final double diameter = sizes[i] * unit;
+            sortedCircles[slot] = starPositions[2 * i] - diameter / 2d;
+            sortedCircles[slot + 1] = starPositions[2 * i + 1] - diameter / 2d;
+            sortedCircles[slot + 2] = diameter;
+        }
+        // the starts were moved to the ends of the buckets, which are the starts of the next ones
+        int k = 0;
+        int fill = -1;
+        for (int b = 0; b < StarBuckets.BUCKET_COUNT; b++) {
+            if (k < starts[b] && StarBuckets.paletteIndex(b) != fill) {
+                fill = StarBuckets.paletteIndex(b);
+                gfx.setFill(BlackBodyColor.fromPaletteIndex(fill));
+            }
+            for (; k < starts[b]; k++) {
+                final double diameter = sortedCircles[3 * k + 2];
+                gfx.fillOval(sortedCircles[3 * k], sortedCircles[3 * k + 1], diameter, diameter);
             }
         }
     }
@@ -147,13 +331,12 @@ public class SkyCanvasPainter {
         Objects.requireNonNull(transform);
 
         final GraphicsContext gfx = canvas.getGraphicsContext2D();
-        final double[] planetPositions = sky.planetPositions();
-        // apply the transform
-        transform.transform2DPoints(planetPositions, 0, planetPositions, 0, planetPositions.length / 2);
+        // apply the transform, straight from the positions of the sky
+        final double[] planetPositions = transform(sky.planetPositionBuffer(), transform);
 
         gfx.setFill(Color.LIGHTGRAY);
         for (int i = 0; i < sky.planets().size(); i++) {
-            drawUsual(sky.planets().get(i), planetPositions[2 * i], planetPositions[2 * i + 1], transform, projection);
+            drawUsual(sky.planets().get(i).magnitude(), planetPositions[2 * i], planetPositions[2 * i + 1], transform, projection);
         }
     }
 
@@ -161,16 +344,16 @@ public class SkyCanvasPainter {
      * Draws the provided object as a circle of the provided information.
      * The fill color must be set beforehand.
      *
-     * @param object     the CelestialObject representation
+     * @param magnitude  the magnitude of the object
      * @param x          the x-coordinate on the plane
      * @param y          the y-coordinate on the plane
      * @param transform  the transform to apply
      * @param projection the projection to apply
      */
-    private void drawUsual(CelestialObject object, double x, double y, Transform transform, StereographicProjection projection) {
+    private void drawUsual(double magnitude, double x, double y, Transform transform, StereographicProjection projection) {
         final Point2D point = new Point2D(x, y);
         final double diameter = Math.abs(
-                transform.deltaTransform(objectRadius(object.magnitude(), projection), 0).getX()
+                transform.deltaTransform(objectRadius(magnitude, projection), 0).getX()
         );
         canvas.getGraphicsContext2D().fillOval(point.getX() - diameter / 2d, point.getY() - diameter / 2d, diameter, diameter);
     }
@@ -0,0 +1,101 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.StarCatalogue;
+
+import java.util.Objects;
+
+/**
+ * The buckets of the stars of a catalogue, resolved once per catalogue: a bucket groups the stars
+ * of the same color (one of the palette of {@link BlackBodyColor}) and of about the same size (one
+ * of {@link #SIZE_CLASSES} classes), so that the painter sorts the visible stars by bucket at each
+ * frame, sets the fill of the canvas once per color, and draws all of its stars in a row.
+ * <p>
+ * The order in which the stars are drawn is therefore not the order of the catalogue anymore: the
+ * buckets go from the reddest color to the bluest one and, within a color, from the smallest
+ * (faintest) stars to the biggest (brightest) ones; only the stars of the same bucket are drawn
+ * in the order of the catalogue. Where two stars overlap, a star of a bluer color is drawn over
+ * a star of a redder one, and a bright star over a faint one of the same color.
+ *
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+final class StarBuckets {
+
+    /**
+     * The number of classes of sizes of each color.
+     */
+    static final int SIZE_CLASSES = 8;
+    /**
+     * The number of buckets, which are numbered by color first, then by class of size.
+     */
+    static final int BUCKET_COUNT = BlackBodyColor.PALETTE_SIZE * SIZE_CLASSES;
+
+    // the bounds of the size factors, given by the faintest and the brightest magnitudes
+    private static final double MIN_SIZE = SkyCanvasPainter.sizeFactor(Double.POSITIVE_INFINITY);
+    private static final double MAX_SIZE = SkyCanvasPainter.sizeFactor(Double.NEGATIVE_INFINITY);
+
+    private final StarCatalogue catalogue;
+    private final short[] keys;
+    private final double[] sizes;
+
+    /**
+     * Resolves the buckets of the stars of the provided catalogue.
+     *
+     * @param catalogue the catalogue of the stars
+     * @throws NullPointerException if the catalogue is {@code null}
+     */
+    StarBuckets(StarCatalogue catalogue) {
+        this.catalogue = Objects.requireNonNull(catalogue);
+        final int count = catalogue.starCount();
+        keys = new short[count];
+        sizes = new double[count];
+        for (int i = 0; i < count; i++) {
+            sizes[i] = SkyCanvasPainter.sizeFactor(catalogue.magnitude(i));
+            keys[i] = (short) (BlackBodyColor.paletteIndex(catalogue.colorTemperature(i)) * SIZE_CLASSES
+                    + sizeClass(sizes[i]));
+        }
+    }
+
+    /**
+     * @param size a size factor (see {@link SkyCanvasPainter#sizeFactor(double)})
+     * @return the class of the provided size, between {@code 0} (the smallest sizes) and
+     * {@link #SIZE_CLASSES} (exclusive).
+     */
+    static int sizeClass(double size) {
+        final int sizeClass = (int) ((size - MIN_SIZE) / (MAX_SIZE - MIN_SIZE) * SIZE_CLASSES);
+        return Math.max(0, Math.min(SIZE_CLASSES - 1, sizeClass));
+    }
+
+    /**
+     * @param bucket the index of a bucket
+     * @return the index in the palette of the color of the stars of the provided bucket
+     * (see {@link BlackBodyColor#fromPaletteIndex(int)}).
+     */
+    static int paletteIndex(int bucket) {
+        return bucket / SIZE_CLASSES;
+    }
+
+    /**
+     * @return the catalogue of the stars.
+     */
+    StarCatalogue catalogue() {
+        return catalogue;
+    }
+
+    /**
+     * @return the bucket of each star, at the index of the star (the array must not be modified).
+     */
+    short[] keys() {
+        return keys;
+    }
+
+    /**
+     * @return the size factor of each star (see {@link SkyCanvasPainter#sizeFactor(double)}), at the
+     * index of the star (the array must not be modified).
+     */
+    double[] sizes() {
+        return sizes;
+    }
+
+}
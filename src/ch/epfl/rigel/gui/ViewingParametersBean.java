@@ -20,6 +20,8 @@ public class ViewingParametersBean {
     // the held value is in degrees
     private final SimpleDoubleProperty fieldOfView = new SimpleDoubleProperty();
     private final SimpleObjectProperty<HorizontalCoordinates> center = new SimpleObjectProperty<>();
+    // the held value is in degrees; by default, the stars below the horizon are drawn as well
+    private final SimpleDoubleProperty minimumAltitude = new SimpleDoubleProperty(-90d);
 
     /**
      * Updates the center of the projection.
@@ -87,4 +89,28 @@ public class ViewingParametersBean {
         fieldOfView.set(fov);
     }
 
+    /**
+     * @return the altitude under which the stars are not drawn, in degrees.
+     */
+    public double getMinimumAltitude() {
+        return minimumAltitude.get();
+    }
+
+    /**
+     * @return the property holding the altitude under which the stars are not drawn,
+     * in a read-only property.
+     */
+    public ReadOnlyDoubleProperty minimumAltitudeProperty() {
+        return minimumAltitude;
+    }
+
+    /**
+     * Updates the altitude under which the stars are not drawn.
+     *
+     * @param alt the altitude, in degrees ({@code -90} to draw all of them)
+     */
+    public void setMinimumAltitudeDeg(double alt) {
+        minimumAltitude.set(alt);
+    }
+
 }
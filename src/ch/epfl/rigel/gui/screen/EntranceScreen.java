@@ -5,12 +5,14 @@ import ch.epfl.rigel.math.ClosedInterval;
 import javafx.animation.AnimationTimer;
 import javafx.animation.FadeTransition;
 import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.CacheHint;
 import javafx.scene.Node;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Button;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
@@ -20,6 +22,7 @@ import javafx.util.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -186,9 +189,12 @@ public final class EntranceScreen extends Screen {
     /**
      * Initializes the main screen, the first screen that the user sees.
      *
-     * @param controller the screen controller of the program
+     * @param controller    the screen controller of the program
+     * @param starViewReady completes (on the JavaFX thread) once the "star view" screen has been
+     *                      added to the {@code controller}; until then, starting shows a progress
+     *                      indicator, and the screen is changed as soon as it completes normally
      */
-    public EntranceScreen(ScreenController controller) {
+    public EntranceScreen(ScreenController controller, CompletableFuture<?> starViewReady) {
         super(ScreenNames.ENTRANCE_SCREEN);
         final BorderPane pane = new BorderPane();
         pane.setStyle("-fx-background-color: transparent;");
@@ -209,13 +215,23 @@ public final class EntranceScreen extends Screen {
 
         // middle pane: buttons
         final Button start = button("COMMENCER");
+        final ProgressIndicator progress = new ProgressIndicator();
+        progress.setVisible(false);
         start.setOnMouseClicked(event -> {
             if (event.getButton() == MouseButton.PRIMARY) {
-                controller.changeScreen(ScreenNames.STAR_VIEW_SCREEN);
+                if (starViewReady.isDone() && !starViewReady.isCompletedExceptionally()) {
+                    controller.changeScreen(ScreenNames.STAR_VIEW_SCREEN);
+                } else {
+                    // the catalogue is still being loaded: wait for it, without blocking the JavaFX thread
+                    start.setDisable(true);
+                    progress.setVisible(true);
+                    starViewReady.thenRunAsync(() -> controller.changeScreen(ScreenNames.STAR_VIEW_SCREEN),
+                            Platform::runLater);
+                }
                 event.consume();
             }
         });
-        final VBox buttons = new VBox(start);
+        final VBox buttons = new VBox(start, progress);
         buttons.getStyleClass().add("main-buttons-group");
         final GridPane center = grid(Pos.CENTER, buttons);
         pane.setCenter(center);
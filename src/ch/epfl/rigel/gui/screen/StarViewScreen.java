@@ -3,17 +3,23 @@ package ch.epfl.rigel.gui.screen;
 import ch.epfl.rigel.astronomy.*;
 import ch.epfl.rigel.coordinates.EclipticCoordinates;
 import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
 import ch.epfl.rigel.coordinates.GeographicCoordinates;
 import ch.epfl.rigel.coordinates.HorizontalCoordinates;
 import ch.epfl.rigel.gui.*;
+import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.storage.FavoritesList;
 import ch.epfl.rigel.util.Texts;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.geometry.Orientation;
 import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.control.*;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.BorderPane;
@@ -23,16 +29,30 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextAlignment;
+import javafx.stage.FileChooser;
 import javafx.util.converter.LocalTimeStringConverter;
 import javafx.util.converter.NumberStringConverter;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import static ch.epfl.rigel.util.Fonts.ICONS_FONT;
@@ -105,6 +125,10 @@ public final class StarViewScreen extends Screen {
      * Holds the number of elements per page when using the search tab.
      */
     private static final int ELEMENTS_PER_PAGE = 20;
+    /**
+     * The extension of the files holding tiled catalogues.
+     */
+    private static final String TILES_EXTENSION = ".tiles";
 
     /**
      * @param checker   a function that returns {@code true} if the passed argument (a double)
@@ -129,7 +153,24 @@ public final class StarViewScreen extends Screen {
         };
     }
 
-    private final StarCatalogue catalogue;
+    // the catalogue in use: setting it switches the observed sky and the favorites to the new
+    // catalogue at once (the search list follows it once it is built, see publishCatalogue)
+    private final SimpleObjectProperty<StarCatalogue> catalogue;
+    // incremented by each catalogue reload, so that only the result of the latest one is published
+    private int catalogueGeneration;
+    // the worker selecting the visible stars of a tiled catalogue, and the latest selection it has not run yet
+    private final Executor starSelector = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "Rigel visible stars selector");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<Runnable> pendingSelection = new AtomicReference<>();
+    // the last catalogue of visible stars selected by the worker (only accessed by the worker)
+    private StarCatalogue lastSelection;
+    // the listener making the catalogue follow the view, and the tiled catalogue it follows, while
+    // a tiled catalogue is in use
+    private InvalidationListener viewListener;
+    private TiledCatalogue tiledCatalogue;
     private final ObserverLocationBean position = new ObserverLocationBean();
     private final DateTimeBean date = new DateTimeBean();
     private final ViewingParametersBean viewingParameters = new ViewingParametersBean();
@@ -140,7 +181,7 @@ public final class StarViewScreen extends Screen {
     // we do not use here an ObservableList, because we often need to modify the entire
     // collection, and we do that by using the set() method (to update the held value)
     private final SimpleObjectProperty<List<CelestialObject>> searchObjects = new SimpleObjectProperty<>();
-    private final List<CelestialObject> allObjects;
+    private final SimpleObjectProperty<List<CelestialObject>> allObjects;
     private final FavoritesList favoritesList;
     private final BorderPane mainPane = new BorderPane();
     private final BorderPane finalPane = new BorderPane();
@@ -153,7 +194,7 @@ public final class StarViewScreen extends Screen {
      */
     public StarViewScreen(StarCatalogue catalogue, FavoritesList favoritesList) {
         super(ScreenNames.STAR_VIEW_SCREEN);
-        this.catalogue = catalogue;
+        this.catalogue = new SimpleObjectProperty<>(Objects.requireNonNull(catalogue));
         this.favoritesList = favoritesList;
         // initialize beans
         position.setCoordinates(INIT_COORDINATES);
@@ -161,43 +202,303 @@ public final class StarViewScreen extends Screen {
         viewingParameters.setCenter(INIT_PROJ_CENTER);
         viewingParameters.setFieldOfViewDeg(INIT_FOV);
 
-        final List<CelestialObject> all = new ArrayList<>();
-        // give dummy values, we are not interested in them for the display (EqCoordinates, angular size, magnitude...)
-        all.add(new Sun(EclipticCoordinates.of(0, 0), EquatorialCoordinates.of(0, 0), 0f, 0f));
-        all.add(new Moon(EquatorialCoordinates.of(0, 0), 0f, 0f, 0f));
-        all.addAll(PlanetModel.ALL.stream()
-                .filter(p -> p != PlanetModel.EARTH)
-                .map(PlanetModel::empty)
-                .collect(Collectors.toList()));
-        all.addAll(catalogue.stars());
-        allObjects = Collections.unmodifiableList(all);
+        allObjects = new SimpleObjectProperty<>(allObjects(catalogue));
 
         manager = new SkyCanvasManager(
-                catalogue,
+                this.catalogue,
                 date,
                 position,
                 viewingParameters,
                 displayParameters
         );
 
-        searchObjects.set(allObjects);
-
         manager.canvas().widthProperty().bind(mainPane.widthProperty());
         manager.canvas().heightProperty().bind(mainPane.heightProperty());
         final VBox sideBar = sideBar();
         mainPane.setTop(controlBar(sideBar));
-        mainPane.setCenter(new Pane(manager.canvas()));
+        mainPane.setCenter(manager.pane());
         mainPane.setRight(sideBar);
         mainPane.setBottom(bottomPane());
         finalPane.setCenter(mainPane);
         finalPane.setTop(createMenu());
     }
 
+    /**
+     * @param catalogue a catalogue of stars
+     * @return an unmodifiable list of the objects that can be searched: the Sun, the Moon,
+     * the planets and the stars of the catalogue.
+     */
+    private static List<CelestialObject> allObjects(StarCatalogue catalogue) {
+        final List<CelestialObject> all = new ArrayList<>();
+        // give dummy values, we are not interested in them for the display (EqCoordinates, angular size, magnitude...)
+        all.add(new Sun(EclipticCoordinates.of(0, 0), EquatorialCoordinates.of(0, 0), 0f, 0f));
+        all.add(new Moon(EquatorialCoordinates.of(0, 0), 0f, 0f, 0f));
+        all.addAll(PlanetModel.ALL.stream()
+                .filter(p -> p != PlanetModel.EARTH)
+                .map(PlanetModel::empty)
+                .collect(Collectors.toList()));
+        all.addAll(catalogue.stars());
+        return Collections.unmodifiableList(all);
+    }
+
     @Override
     public Pane getPane() {
         return finalPane;
     }
 
+    /**
+     * Loads a new catalogue on a worker thread, then replaces the current catalogue with it on
+     * the JavaFX thread: the observed sky and the favorites are switched in the same pulse, and the
+     * search list once it is built (see {@link #publishCatalogue(StarCatalogue, int, boolean)}). The rendering goes on with the current catalogue in the meantime. If another
+     * reload is requested before this one is done, only the latest one is published.
+     * <p>
+     * Files whose name ends with {@code .csv} are read as HYG catalogues, files whose name ends with
+     * {@code .tiles} as tiled catalogues (see {@link #loadTiledCatalogue(Path)}; the asterisms are then
+     * ignored), and any other file as a binary catalogue (see {@link BinaryDatabaseLoader}). Binary
+     * catalogues are loaded progressively (see {@link ProgressiveCatalogueLoader}): if they are sorted
+     * by magnitude, the brightest stars are shown first, and the fainter ones are added chunk after chunk.
+     *
+     * @param stars     the path to the catalogue of stars
+     * @param asterisms the path to the catalogue of asterisms, or {@code null} to load no asterisms
+     * @return a future completed (on the JavaFX thread) with the new catalogue once it is in use,
+     * or completed exceptionally if it could not have been loaded (then, the current catalogue is kept,
+     * apart from the stars of a binary catalogue that may already have been published).
+     */
+    public CompletableFuture<StarCatalogue> loadCatalogue(Path stars, Path asterisms) {
+        final String name = stars.getFileName().toString();
+        if (name.endsWith(TILES_EXTENSION)) {
+            return loadTiledCatalogue(stars);
+        }
+        final int generation = ++catalogueGeneration;
+        stopFollowingView();
+        final CompletableFuture<StarCatalogue> loaded;
+        if (name.endsWith(".csv")) {
+            loaded = CompletableFuture.supplyAsync(() -> readCatalogue(stars, asterisms));
+        } else {
+            final InputStream asterismsStream;
+            try {
+                asterismsStream = asterisms == null ? null : Files.newInputStream(asterisms);
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(new UncheckedIOException(e));
+            }
+            // the partial catalogues are published as they come; the complete one is published below
+            loaded = ProgressiveCatalogueLoader.load(stars, asterismsStream,
+                    ProgressiveCatalogueLoader.DEFAULT_FIRST_MAGNITUDE, ProgressiveCatalogueLoader.DEFAULT_CHUNK_SIZE,
+                    partial -> Platform.runLater(() -> publishCatalogue(partial, generation, false)),
+                    ForkJoinPool.commonPool());
+        }
+        return loaded.thenApplyAsync(complete -> {
+            publishCatalogue(complete, generation, true);
+            return complete;
+        }, Platform::runLater);
+    }
+
+    /**
+     * Replaces the current catalogue with the provided one, unless a more recent reload has been
+     * requested in the meantime. Must be called on the JavaFX thread.
+     * <p>
+     * The search list of a complete catalogue is built on a worker thread (it creates all the
+     * {@link Star} instances of the catalogue), and replaces the current one if the catalogue is
+     * still in use once it is built. The partial catalogues of a progressive load keep the search
+     * list of the previous catalogue.
+     *
+     * @param loaded     the loaded catalogue
+     * @param generation the generation of the reload that loaded the catalogue
+     * @param complete   whether the catalogue is complete, rather than the first stars of a
+     *                   catalogue being loaded
+     */
+    private void publishCatalogue(StarCatalogue loaded, int generation, boolean complete) {
+        if (generation != catalogueGeneration || loaded == catalogue.get()) {
+            return;
+        }
+        catalogue.set(loaded);
+        if (complete) {
+            CompletableFuture.supplyAsync(() -> allObjects(loaded))
+                    .thenAcceptAsync(objects -> {
+                        if (catalogue.get() == loaded) {
+                            allObjects.set(objects);
+                        }
+                    }, Platform::runLater);
+        }
+    }
+
+    /**
+     * Opens a tiled catalogue on a worker thread, then makes the catalogue in use follow the view:
+     * it is made of the stars of the tiles intersecting the field of view, down to a magnitude
+     * limit that depends on the zoom (see {@link TiledCatalogue}). The stars are selected on
+     * a worker thread too, whenever the view changes, and only the latest selection is run if
+     * the view changes faster than they are. Apart from that, it behaves as
+     * {@link #loadCatalogue(Path, Path)}.
+     * <p>
+     * The search list only holds the stars of the current selection, whereas the favorite stars
+     * are looked up in the whole tiled catalogue: they are listed even when they are out of view.
+     *
+     * @param path the path to the tiled catalogue
+     * @return a future completed (on the JavaFX thread) with the first catalogue of visible stars
+     * once it is in use, or completed exceptionally if the tiled catalogue could not have been opened.
+     */
+    public CompletableFuture<StarCatalogue> loadTiledCatalogue(Path path) {
+        final int generation = ++catalogueGeneration;
+        stopFollowingView();
+        final Function<TiledCatalogue, StarCatalogue> selection = visibleStarsSelection();
+        final CompletableFuture<TiledCatalogue> opened = CompletableFuture.supplyAsync(() -> {
+            try {
+                return TiledCatalogue.open(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return opened
+                .thenApply(selection)
+                .thenApplyAsync(first -> {
+                    publishCatalogue(first, generation, true);
+                    if (generation == catalogueGeneration) {
+                        followView(opened.join(), generation);
+                    }
+                    return catalogue.get();
+                }, Platform::runLater);
+    }
+
+    /**
+     * @return the properties of the view, which the stars of a tiled catalogue depend on.
+     */
+    private List<Observable> viewProperties() {
+        final Canvas canvas = manager.canvas();
+        return List.of(date.dateProperty(), date.timeProperty(), date.zoneProperty(),
+                position.longitudeProperty(), position.latitudeProperty(), viewingParameters.centerProperty(),
+                viewingParameters.fieldOfViewProperty(), canvas.widthProperty(), canvas.heightProperty());
+    }
+
+    /**
+     * Makes the catalogue in use follow the view, with the stars of the provided tiled catalogue.
+     * Must be called on the JavaFX thread.
+     *
+     * @param tiled      a tiled catalogue
+     * @param generation the generation of the reload that opened the catalogue
+     */
+    private void followView(TiledCatalogue tiled, int generation) {
+        stopFollowingView();
+        tiledCatalogue = tiled;
+        viewListener = o -> {
+            if (generation != catalogueGeneration) {
+                return;
+            }
+            final Function<TiledCatalogue, StarCatalogue> selection = visibleStarsSelection();
+            final Runnable task = () -> {
+                final StarCatalogue visible;
+                try {
+                    visible = selection.apply(tiled);
+                } catch (RuntimeException e) {
+                    Logger.getLogger("Rigel").log(Level.SEVERE, "Could not select the visible stars, stack trace:", e);
+                    return;
+                }
+                // the tiled catalogue gives the same catalogue as long as the selected stars are the same
+                if (visible != lastSelection) {
+                    lastSelection = visible;
+                    Platform.runLater(() -> publishCatalogue(visible, generation, true));
+                }
+            };
+            if (pendingSelection.getAndSet(task) == null) {
+                starSelector.execute(() -> pendingSelection.getAndSet(null).run());
+            }
+        };
+        viewProperties().forEach(property -> property.addListener(viewListener));
+        // the view may have changed while the first stars were selected
+        viewListener.invalidated(null);
+    }
+
+    /**
+     * Stops making the catalogue in use follow the view, if it does, so that the tiled catalogue
+     * is not reachable anymore. Must be called on the JavaFX thread.
+     */
+    private void stopFollowingView() {
+        if (viewListener != null) {
+            viewProperties().forEach(property -> property.removeListener(viewListener));
+            viewListener = null;
+        }
+        tiledCatalogue = null;
+    }
+
+    /**
+     * Takes a snapshot of the current observation and viewing parameters. Must be called on
+     * the JavaFX thread.
+     *
+     * @return the function selecting the stars of a tiled catalogue that may be visible with
+     * the current observation and viewing parameters, which can be applied on any thread.
+     */
+    private Function<TiledCatalogue, StarCatalogue> visibleStarsSelection() {
+        final Canvas canvas = manager.canvas();
+        final double fieldOfView = viewingParameters.getFieldOfView();
+        // the field of view is the horizontal one, the corners of the canvas are farther away
+        // from the center: in a stereographic projection, the distances on the plane are
+        // proportional to the tangent of half the angles
+        final double diagonal = canvas.getWidth() > 0
+                ? Math.hypot(1d, canvas.getHeight() / canvas.getWidth())
+                : 1d;
+        final double radius = 2d * Math.atan(diagonal * Math.tan(Angle.ofDeg(fieldOfView) / 4d));
+        final EquatorialToHorizontalConversion conversion =
+                new EquatorialToHorizontalConversion(date.getZonedDateTime(), position.getCoordinates());
+        final HorizontalCoordinates center = viewingParameters.getCenter();
+        final float magnitudeLimit = TiledCatalogue.magnitudeLimit(fieldOfView);
+        return tiled -> tiled.visibleStars(conversion, center, radius, magnitudeLimit);
+    }
+
+    /**
+     * Reads and validates a HYG catalogue of stars and a catalogue of asterisms.
+     *
+     * @param stars     the path to the HYG catalogue of stars
+     * @param asterisms the path to the catalogue of asterisms, or {@code null} to load no asterisms
+     * @return the read catalogue.
+     * @throws UncheckedIOException     if one of the files could not have been read
+     * @throws IllegalArgumentException if one of the files holds invalid data
+     */
+    private static StarCatalogue readCatalogue(Path stars, Path asterisms) {
+        final StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        try {
+            try (final InputStream in = Files.newInputStream(stars)) {
+                builder.loadFrom(in, HygDatabaseLoader.INSTANCE);
+            }
+            if (asterisms != null) {
+                try (final InputStream in = Files.newInputStream(asterisms)) {
+                    builder.loadFrom(in, AsterismLoader.INSTANCE);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Asks the user for a catalogue of stars, then for an optional catalogue of asterisms, and loads them.
+     */
+    private void chooseCatalogue() {
+        final FileChooser chooser = new FileChooser();
+        chooser.setTitle("Catalogue d'étoiles");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Catalogue HYG", "*.csv"),
+                new FileChooser.ExtensionFilter("Catalogue par tuiles", "*" + TILES_EXTENSION),
+                new FileChooser.ExtensionFilter("Catalogue binaire", "*.*")
+        );
+        final File stars = chooser.showOpenDialog(finalPane.getScene().getWindow());
+        if (stars == null) {
+            return;
+        }
+        File asterisms = null;
+        if (!stars.getName().endsWith(TILES_EXTENSION)) {
+            chooser.setTitle("Catalogue d'astérismes (annuler pour n'en charger aucun)");
+            chooser.getExtensionFilters().setAll(new FileChooser.ExtensionFilter("Astérismes", "*.txt", "*.*"));
+            asterisms = chooser.showOpenDialog(finalPane.getScene().getWindow());
+        }
+        loadCatalogue(stars.toPath(), asterisms == null ? null : asterisms.toPath())
+                .exceptionally(e -> {
+                    final Throwable cause = e.getCause() == null ? e : e.getCause();
+                    Platform.runLater(() -> new Alert(Alert.AlertType.ERROR,
+                            "Le catalogue n'a pu être chargé : " + cause.getMessage()).show());
+                    return null;
+                });
+    }
+
     @Override
     public void onEnter() {
         manager.canvas().requestFocus();
@@ -448,14 +749,14 @@ public final class StarViewScreen extends Screen {
         searchObjects.bind(
                 Bindings.createObjectBinding(() -> {
                     if (search.getText().isBlank()) {
-                        return allObjects;
+                        return allObjects.get();
                     } else {
                         final String lowered = search.getText().toLowerCase();
-                        return allObjects.stream()
+                        return allObjects.get().stream()
                                 .filter(s -> s.name().toLowerCase().contains(lowered)) // simple criterion
                                 .collect(Collectors.toList());
                     }
-                }, search.textProperty())
+                }, search.textProperty(), allObjects)
         );
         final BorderPane lastPane = new BorderPane();
         lastPane.setTop(search);
@@ -488,13 +789,11 @@ public final class StarViewScreen extends Screen {
                     .map(c -> {
                         switch (c.getType()) {
                             case STAR:
-                                for (Star star : catalogue.stars()) {
-                                    // we use equals, here, to avoid unchecked casts
-                                    if (c.getIdentifier().equals(FavoritesList.identify(star))) {
-                                        return star;
-                                    }
-                                }
-                                break;
+                                final Star star = FavoritesList.findStar(c.getIdentifier(), catalogue.get());
+                                // the stars of a tiled catalogue out of view are not in the catalogue in use
+                                return star != null || tiledCatalogue == null
+                                        ? star
+                                        : FavoritesList.findStar(c.getIdentifier(), tiledCatalogue);
                             case PLANET:
                                 for (PlanetModel planet : PlanetModel.values()) {
                                     if (planet.getFrenchName().equals(c.getIdentifier())) {
@@ -511,7 +810,7 @@ public final class StarViewScreen extends Screen {
                         // and we store correctly our data
                     })
                     .collect(Collectors.toUnmodifiableList()), menu);
-        }, favoritesList.favoritesProperty()));
+        }, favoritesList.favoritesProperty(), catalogue));
         favoritesTab.setContent(contentPane);
         return favoritesTab;
     }
@@ -614,6 +913,11 @@ public final class StarViewScreen extends Screen {
      * @return the top menu bar for some miscellaneous settings.
      */
     private MenuBar createMenu() {
+        final MenuItem loadCatalogue = new MenuItem("Charger un catalogue...");
+        loadCatalogue.setOnAction(event -> chooseCatalogue());
+        final Menu file = new Menu("Fichier");
+        file.getItems().add(loadCatalogue);
+
         final Menu menu = new Menu("Affichage");
         menu.getItems().addAll(
                 createMenuItem("Astérismes", displayParameters.displayAsterismsProperty()),
@@ -623,7 +927,7 @@ public final class StarViewScreen extends Screen {
                 createMenuItem("Soleil", displayParameters.displaySunProperty()),
                 createMenuItem("Lune", displayParameters.displayMoonProperty())
         );
-        return new MenuBar(menu);
+        return new MenuBar(file, menu);
     }
 
     /**
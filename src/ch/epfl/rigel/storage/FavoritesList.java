@@ -2,6 +2,8 @@ package ch.epfl.rigel.storage;
 
 import ch.epfl.rigel.astronomy.CelestialObject;
 import ch.epfl.rigel.astronomy.Star;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.astronomy.TiledCatalogue;
 import ch.epfl.rigel.util.FileUtil;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableSet;
@@ -43,6 +45,58 @@ public class FavoritesList implements Serializable {
         return object.name();
     }
 
+    /**
+     * Finds the star with the provided identifier (see {@link #identify(CelestialObject)}) in the
+     * provided catalogue: only the stars with the Hipparcos ID of the identifier are compared to it.
+     *
+     * @param identifier the identifier of a star
+     * @param catalogue  the catalogue to search the star in
+     * @return the star of the catalogue with the provided identifier, or {@code null} if there is none.
+     */
+    public static Star findStar(Serializable identifier, StarCatalogue catalogue) {
+        final String text = identifier.toString();
+        final int hipparcosId;
+        try {
+            hipparcosId = Integer.parseInt(text.substring(0, text.indexOf(',')));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return null;
+        }
+        for (int index : catalogue.indicesOfHipparcosId(hipparcosId)) {
+            final Star star = catalogue.stars().get(index);
+            // we use equals, here, to avoid unchecked casts
+            if (identifier.equals(identify(star))) {
+                return star;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the star with the provided identifier (see {@link #identify(CelestialObject)}) in the
+     * provided tiled catalogue, with its Hipparcos ID and its position (see
+     * {@link TiledCatalogue#findStar(int, double, double)}).
+     *
+     * @param identifier the identifier of a star
+     * @param catalogue  the tiled catalogue to search the star in
+     * @return the star of the tiled catalogue with the provided identifier, or {@code null} if there
+     * is none.
+     */
+    public static Star findStar(Serializable identifier, TiledCatalogue catalogue) {
+        // the name may contain commas, but neither the ID, nor the coordinates
+        final String text = identifier.toString();
+        final int decStart = text.lastIndexOf(',') + 1;
+        final int raStart = text.lastIndexOf(',', decStart - 2) + 1;
+        final Star star;
+        try {
+            star = catalogue.findStar(Integer.parseInt(text.substring(0, text.indexOf(','))),
+                    Double.parseDouble(text.substring(raStart, decStart - 1)),
+                    Double.parseDouble(text.substring(decStart)));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return null;
+        }
+        return star != null && identifier.equals(identify(star)) ? star : null;
+    }
+
     private final String path;
     private final ObservableSet<FavoriteItem<?>> identifiers;
 
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
@@ -94,4 +95,59 @@ public class LAsterismLoaderTest {
         }
     }
 
+    @Test
+    void asterismIndexArrayMatchesIndices() {
+        for (Asterism asterism : catalogue.asterisms()) {
+            final int[] indices = catalogue.asterismIndexArray(asterism);
+            assertArrayEquals(catalogue.asterismIndices(asterism).stream().mapToInt(i -> i).toArray(), indices);
+            // the returned array is a copy
+            indices[0] = -1;
+            assertNotEquals(-1, catalogue.asterismIndexArray(asterism)[0]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> catalogue.asterismIndexArray(
+                new Asterism(List.of(catalogue.stars().get(0)))));
+    }
+
+    @Test
+    void forEachAsterismSegmentVisitsTheConsecutiveStars() {
+        for (Asterism asterism : catalogue.asterisms()) {
+            final int[] indices = catalogue.asterismIndexArray(asterism);
+            final List<Integer> visited = new ArrayList<>();
+            catalogue.forEachAsterismSegment(asterism, (from, to) -> {
+                visited.add(from);
+                visited.add(to);
+            });
+            assertEquals(2 * (indices.length - 1), visited.size());
+            for (int i = 0; i < indices.length - 1; i++) {
+                assertEquals(indices[i], visited.get(2 * i));
+                assertEquals(indices[i + 1], visited.get(2 * i + 1));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> catalogue.forEachAsterismSegment(
+                new Asterism(List.of(catalogue.stars().get(0))), (from, to) -> { }));
+    }
+
+    @Test
+    void usesLastStarOfDuplicateHipparcosIds() throws IOException {
+        final StarCatalogue catalogue = new StarCatalogue.Builder()
+                .addStar(3, "A", 0, 0, 0f, 0f)
+                .addStar(1, "B", 0, 0, 0f, 0f)
+                .addStar(3, "C", 0, 0, 0f, 0f)
+                .loadFrom(new ByteArrayInputStream("1,3\n3\n".getBytes(StandardCharsets.US_ASCII)),
+                        AsterismLoader.INSTANCE)
+                .build();
+        final Set<List<Integer>> indices = catalogue.asterisms().stream()
+                .map(catalogue::asterismIndices)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of(List.of(1, 2), List.of(2)), indices);
+    }
+
+    @Test
+    void failsOnUnknownHipparcosId() {
+        assertThrows(IllegalArgumentException.class, () -> new StarCatalogue.Builder()
+                .addStar(1, "A", 0, 0, 0f, 0f)
+                .loadFrom(new ByteArrayInputStream("1,2".getBytes(StandardCharsets.US_ASCII)),
+                        AsterismLoader.INSTANCE));
+    }
+
 }
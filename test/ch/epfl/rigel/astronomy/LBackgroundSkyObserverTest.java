@@ -0,0 +1,181 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public class LBackgroundSkyObserverTest {
+
+    private static final GeographicCoordinates WHERE = GeographicCoordinates.ofDeg(6.57, 46.52);
+    private static final StereographicProjection PROJECTION =
+            new StereographicProjection(HorizontalCoordinates.ofDeg(180, 30));
+
+    private static StarCatalogue catalogue;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        try (final InputStream in = LBackgroundSkyObserverTest.class.getResourceAsStream("/hygdata_v3.csv")) {
+            catalogue = new StarCatalogue.Builder().loadFrom(in, HygDatabaseLoader.INSTANCE).build();
+        }
+    }
+
+    /**
+     * An executor which only runs its tasks when asked to.
+     */
+    private static final class ManualExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        private int runAll() {
+            int count = 0;
+            while (!tasks.isEmpty()) {
+                tasks.poll().run();
+                count++;
+            }
+            return count;
+        }
+    }
+
+    @Test
+    void onlyTheLatestRequestIsComputed() {
+        final ZonedDateTime start = ZonedDateTime.now();
+        final ObservedSky initial = new ObservedSky(start, WHERE, PROJECTION, catalogue);
+        final ManualExecutor worker = new ManualExecutor();
+        final ManualExecutor delivery = new ManualExecutor();
+        final List<ObservedSky> delivered = new ArrayList<>();
+        final BackgroundSkyObserver observer = new BackgroundSkyObserver(initial, worker, delivery, delivered::add);
+
+        for (int i = 1; i <= 10; i++) {
+            observer.request(start.plusMinutes(i), WHERE, PROJECTION, catalogue);
+        }
+        assertEquals(1, worker.runAll());
+        assertEquals(1, delivery.runAll());
+        assertEquals(10, observer.requests());
+        assertEquals(1, observer.computations());
+        assertEquals(1, delivered.size());
+
+        final ObservedSky expected = new ObservedSky(start.plusMinutes(10), WHERE, PROJECTION, catalogue);
+        assertArrayEquals(expected.starPositions(), delivered.get(0).starPositions());
+        assertEquals(expected.moonPosition().x(), delivered.get(0).moonPosition().x());
+        assertEquals(expected.moonPosition().y(), delivered.get(0).moonPosition().y());
+    }
+
+    @Test
+    void skiesAreTheSkiesOfTheRequests() {
+        final ZonedDateTime start = ZonedDateTime.now();
+        final ObservedSky initial = new ObservedSky(start, WHERE, PROJECTION, catalogue);
+        final ManualExecutor worker = new ManualExecutor();
+        final ManualExecutor delivery = new ManualExecutor();
+        final List<ObservedSky> delivered = new ArrayList<>();
+        final BackgroundSkyObserver observer = new BackgroundSkyObserver(initial, worker, delivery, delivered::add);
+
+        // another moment, another place, another projection, then another moment again, so that
+        // the recycled buffers of the previous skies are refilled
+        final GeographicCoordinates elsewhere = GeographicCoordinates.ofDeg(-73.5, 45.5);
+        final StereographicProjection other = new StereographicProjection(HorizontalCoordinates.ofDeg(90, 45));
+        final Object[][] requests = {
+                {start.plusHours(1), WHERE, PROJECTION},
+                {start.plusHours(1), elsewhere, PROJECTION},
+                {start.plusHours(1), elsewhere, other},
+                {start.plusHours(2), elsewhere, other},
+                {start.plusHours(3), elsewhere, other},
+        };
+        for (Object[] request : requests) {
+            final ZonedDateTime when = (ZonedDateTime) request[0];
+            final GeographicCoordinates where = (GeographicCoordinates) request[1];
+            final StereographicProjection projection = (StereographicProjection) request[2];
+            observer.request(when, where, projection, catalogue);
+            worker.runAll();
+            delivery.runAll();
+
+            final ObservedSky sky = delivered.get(delivered.size() - 1);
+            assertEquals(when, sky.moment());
+            assertSame(projection, sky.projection());
+            final ObservedSky expected = new ObservedSky(when, where, projection, catalogue);
+            assertArrayEquals(expected.starPositions(), sky.starPositions());
+            assertArrayEquals(expected.planetPositions(), sky.planetPositions());
+        }
+        assertEquals(requests.length, delivered.size());
+    }
+
+    @Test
+    void unchangedSkiesAreNotDelivered() {
+        final ZonedDateTime start = ZonedDateTime.now();
+        final ObservedSky initial = new ObservedSky(start, WHERE, PROJECTION, catalogue);
+        final ManualExecutor worker = new ManualExecutor();
+        final ManualExecutor delivery = new ManualExecutor();
+        final List<ObservedSky> delivered = new ArrayList<>();
+        final BackgroundSkyObserver observer = new BackgroundSkyObserver(initial, worker, delivery, delivered::add);
+
+        observer.request(start, WHERE, PROJECTION, catalogue);
+        worker.runAll();
+        assertEquals(0, delivery.runAll());
+        assertEquals(1, observer.requests());
+        assertEquals(0, observer.computations());
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    void skiesComputedBeforeTheirDeliveryAreSkipped() {
+        final ZonedDateTime start = ZonedDateTime.now();
+        final ObservedSky initial = new ObservedSky(start, WHERE, PROJECTION, catalogue);
+        final ManualExecutor worker = new ManualExecutor();
+        final ManualExecutor delivery = new ManualExecutor();
+        final List<ObservedSky> delivered = new ArrayList<>();
+        final BackgroundSkyObserver observer = new BackgroundSkyObserver(initial, worker, delivery, delivered::add);
+
+        observer.request(start.plusMinutes(1), WHERE, PROJECTION, catalogue);
+        worker.runAll();
+        observer.request(start.plusMinutes(2), WHERE, PROJECTION, catalogue);
+        worker.runAll();
+        assertEquals(2, delivery.runAll());
+        assertEquals(2, observer.computations());
+        // only the latest sky is handed over
+        assertEquals(1, delivered.size());
+        assertEquals(start.plusMinutes(2), delivered.get(0).moment());
+    }
+
+    @Test
+    void solarSystemIsKeptDuringThePeriod() {
+        final ZonedDateTime start = ZonedDateTime.now();
+        final ObservedSky initial = new ObservedSky(start, WHERE, PROJECTION, catalogue);
+        final ManualExecutor worker = new ManualExecutor();
+        final List<ObservedSky> delivered = new ArrayList<>();
+        final BackgroundSkyObserver observer = new BackgroundSkyObserver(initial, worker, Runnable::run, delivered::add);
+        observer.setSolarSystemPeriod(Duration.ofMinutes(5));
+
+        observer.request(start.plusMinutes(1), WHERE, PROJECTION, catalogue);
+        worker.runAll();
+        assertSame(initial.moon(), delivered.get(0).moon());
+        observer.request(start.plusMinutes(10), WHERE, PROJECTION, catalogue);
+        worker.runAll();
+        assertNotSame(initial.moon(), delivered.get(1).moon());
+
+        assertThrows(IllegalArgumentException.class, () -> observer.setSolarSystemPeriod(Duration.ofMinutes(-1)));
+        assertThrows(NullPointerException.class, () -> observer.request(null, WHERE, PROJECTION, catalogue));
+    }
+
+}
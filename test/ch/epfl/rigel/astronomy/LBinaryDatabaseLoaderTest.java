@@ -0,0 +1,153 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.test.Bench;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public class LBinaryDatabaseLoaderTest {
+
+    private static final String HYG_CATALOGUE_NAME = "/hygdata_v3.csv";
+
+    private static StarCatalogue catalogue;
+    private static byte[] binary;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        catalogue = new StarCatalogue.Builder()
+                .loadFrom(LBinaryDatabaseLoaderTest.class.getResourceAsStream(HYG_CATALOGUE_NAME), HygDatabaseLoader.INSTANCE)
+                .build();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryDatabaseLoader.write(catalogue.stars(), out);
+        binary = out.toByteArray();
+    }
+
+    /**
+     * Asserts that both lists hold stars with the exact same data, in the same order.
+     */
+    private static void assertSameStars(List<Star> expected, List<Star> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            final Star e = expected.get(i);
+            final Star a = actual.get(i);
+            assertEquals(e.hipparcosId(), a.hipparcosId());
+            assertEquals(e.name(), a.name());
+            assertEquals(e.equatorialPos().ra(), a.equatorialPos().ra());
+            assertEquals(e.equatorialPos().dec(), a.equatorialPos().dec());
+            assertEquals(e.magnitude(), a.magnitude());
+            assertEquals(e.colorIndex(), a.colorIndex());
+            assertEquals(e.colorTemperature(), a.colorTemperature());
+        }
+    }
+
+    @Test
+    void loadsSameStarsAsHygLoader() throws IOException {
+        final StarCatalogue loaded = new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(binary), BinaryDatabaseLoader.INSTANCE)
+                .build();
+        assertSameStars(catalogue.stars(), loaded.stars());
+    }
+
+    @Test
+    void loadsMappedFile() throws IOException {
+        final Path file = Files.createTempFile("rigel", ".bin");
+        try {
+            Files.write(file, binary);
+            final StarCatalogue.Builder fromPath = new StarCatalogue.Builder();
+            BinaryDatabaseLoader.INSTANCE.load(file, fromPath);
+            assertSameStars(catalogue.stars(), fromPath.stars());
+
+            final StarCatalogue.Builder fromStream = new StarCatalogue.Builder()
+                    .loadFrom(new FileInputStream(file.toFile()), BinaryDatabaseLoader.INSTANCE);
+            assertSameStars(catalogue.stars(), fromStream.stars());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void converterWritesLoadableFile() throws IOException, URISyntaxException {
+        final Path out = Files.createTempFile("rigel", ".bin");
+        try {
+            BinaryDatabaseConverter.convert(Paths.get(getClass().getResource(HYG_CATALOGUE_NAME).toURI()), out);
+            assertArrayEquals(binary, Files.readAllBytes(out));
+        } finally {
+            Files.delete(out);
+        }
+    }
+
+    @Test
+    void rejectsCorruptData() {
+        final byte[] corrupt = binary.clone();
+        corrupt[corrupt.length / 2] ^= 0x01;
+        assertThrows(IOException.class, () -> new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(corrupt), BinaryDatabaseLoader.INSTANCE));
+    }
+
+    @Test
+    void rejectsOtherVersions() {
+        final byte[] stale = binary.clone();
+        stale[7] = (byte) (BinaryDatabaseLoader.VERSION + 1); // last byte of the version
+        assertThrows(IOException.class, () -> new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(stale), BinaryDatabaseLoader.INSTANCE));
+    }
+
+    @Test
+    void rejectsTruncatedOrForeignData() {
+        assertThrows(IOException.class, () -> new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(new byte[0]), BinaryDatabaseLoader.INSTANCE));
+        assertThrows(IOException.class, () -> new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(binary, 0, binary.length - 1), BinaryDatabaseLoader.INSTANCE));
+        assertThrows(IOException.class, () -> new StarCatalogue.Builder()
+                .loadFrom(LBinaryDatabaseLoaderTest.class.getResourceAsStream(HYG_CATALOGUE_NAME),
+                        BinaryDatabaseLoader.INSTANCE));
+    }
+
+    // DISABLED: Benchmarking
+    @Disabled
+    @Test
+    void benchmark() throws IOException {
+        final Path file = Files.createTempFile("rigel", ".bin");
+        Files.write(file, binary);
+        final int iterations = 100;
+        Bench.printBench(() -> {
+            for (int i = 0; i < iterations; i++) {
+                try (final InputStream in = getClass().getResourceAsStream(HYG_CATALOGUE_NAME)) {
+                    new StarCatalogue.Builder().loadFrom(in, HygDatabaseLoader.INSTANCE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }, iterations);
+        Bench.printBench(() -> {
+            for (int i = 0; i < iterations; i++) {
+                try {
+                    BinaryDatabaseLoader.INSTANCE.load(file, new StarCatalogue.Builder());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }, iterations);
+        Files.delete(file);
+    }
+
+}
@@ -0,0 +1,227 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.test.Bench;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public class LCatalogueCacheTest {
+
+    private static byte[] hyg;
+    private static byte[] asterisms;
+
+    private Path file;
+    private List<Runnable> pendingWrites;
+    private CatalogueCache cache;
+
+    @BeforeAll
+    static void setUpSources() throws IOException {
+        try (final InputStream hs = LCatalogueCacheTest.class.getResourceAsStream("/hygdata_v3.csv");
+             final InputStream as = LCatalogueCacheTest.class.getResourceAsStream("/asterisms.txt")) {
+            hyg = hs.readAllBytes();
+            asterisms = as.readAllBytes();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        final Path folder = Files.createTempDirectory("rigel");
+        file = folder.resolve("catalogue.cache");
+        // the writes are only run when asked to, so that the tests can tell parsing and cache hits apart
+        pendingWrites = new ArrayList<>();
+        cache = new CatalogueCache(file, pendingWrites::add);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.delete(file.getParent());
+    }
+
+    private StarCatalogue load(byte[] hyg, byte[] asterisms) throws IOException {
+        return cache.load(new ByteArrayInputStream(hyg), new ByteArrayInputStream(asterisms));
+    }
+
+    private void runPendingWrites() {
+        pendingWrites.forEach(Runnable::run);
+        pendingWrites.clear();
+    }
+
+    /**
+     * Asserts that both catalogues hold the same stars, in the same order, and the same asterisms.
+     */
+    private static void assertSameCatalogue(StarCatalogue expected, StarCatalogue actual) {
+        assertEquals(expected.starCount(), actual.starCount());
+        for (int i = 0; i < expected.starCount(); i++) {
+            assertEquals(expected.hipparcosId(i), actual.hipparcosId(i));
+            assertEquals(expected.starName(i), actual.starName(i));
+            assertEquals(expected.ra(i), actual.ra(i));
+            assertEquals(expected.dec(i), actual.dec(i));
+            assertEquals(expected.magnitude(i), actual.magnitude(i));
+            assertEquals(expected.colorIndex(i), actual.colorIndex(i));
+            assertEquals(expected.colorTemperature(i), actual.colorTemperature(i));
+        }
+        // the asterisms are not ordered, so they are compared through the indices of their stars
+        assertEquals(asterismCounts(expected), asterismCounts(actual));
+    }
+
+    private static Map<List<Integer>, Integer> asterismCounts(StarCatalogue catalogue) {
+        final Map<List<Integer>, Integer> counts = new HashMap<>();
+        for (Asterism asterism : catalogue.asterisms()) {
+            counts.merge(catalogue.asterismIndices(asterism), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    void parsesThenReadsSnapshot() throws IOException {
+        final StarCatalogue parsed = load(hyg, asterisms);
+        assertFalse(Files.exists(file));
+        assertEquals(1, pendingWrites.size());
+        runPendingWrites();
+        assertTrue(Files.exists(file));
+
+        final StarCatalogue cached = load(hyg, asterisms);
+        assertTrue(pendingWrites.isEmpty());
+        assertSameCatalogue(parsed, cached);
+        // the asterisms of the snapshot are made of the stars of the snapshot
+        for (Asterism asterism : cached.asterisms()) {
+            final int[] indices = cached.asterismIndexArray(asterism);
+            for (int i = 0; i < indices.length; i++) {
+                assertSame(cached.stars().get(indices[i]), asterism.stars().get(i));
+            }
+        }
+    }
+
+    @Test
+    void ignoresSnapshotOfOtherSources() throws IOException {
+        load(hyg, asterisms);
+        runPendingWrites();
+
+        // drop the last asterism
+        final String text = new String(asterisms, StandardCharsets.US_ASCII).strip();
+        final byte[] fewerAsterisms = text.substring(0, text.lastIndexOf('\n') + 1).getBytes(StandardCharsets.US_ASCII);
+        final StarCatalogue changed = load(hyg, fewerAsterisms);
+        assertEquals(1, pendingWrites.size());
+        runPendingWrites();
+
+        assertSameCatalogue(changed, load(hyg, fewerAsterisms));
+        assertTrue(pendingWrites.isEmpty());
+        assertEquals(changed.asterisms().size(), load(hyg, fewerAsterisms).asterisms().size());
+    }
+
+    @Test
+    void rebuildsCorruptOrTruncatedSnapshot() throws IOException {
+        final StarCatalogue parsed = load(hyg, asterisms);
+        runPendingWrites();
+        final byte[] snapshot = Files.readAllBytes(file);
+
+        for (int position : new int[]{snapshot.length / 2, 60, snapshot.length - 1}) {
+            final byte[] corrupt = snapshot.clone();
+            corrupt[position] ^= 0x01;
+            Files.write(file, corrupt);
+            assertSameCatalogue(parsed, load(hyg, asterisms));
+            assertEquals(1, pendingWrites.size());
+            runPendingWrites();
+            assertArrayEquals(snapshot, Files.readAllBytes(file));
+        }
+
+        Files.write(file, Arrays.copyOf(snapshot, snapshot.length / 3));
+        assertSameCatalogue(parsed, load(hyg, asterisms));
+        assertEquals(1, pendingWrites.size());
+        pendingWrites.clear();
+    }
+
+    @Test
+    void propagatesInvalidSources() {
+        assertThrows(IllegalArgumentException.class,
+                () -> load(hyg, "1,2,3\n".getBytes(StandardCharsets.US_ASCII)));
+        assertTrue(pendingWrites.isEmpty());
+    }
+
+    // DISABLED: Benchmarking
+    @Disabled
+    @Test
+    void benchmark() throws IOException {
+        load(hyg, asterisms);
+        runPendingWrites();
+        final int iterations = 100;
+        Bench.printBench(() -> {
+            for (int i = 0; i < iterations; i++) {
+                try {
+                    new StarCatalogue.Builder()
+                            .loadFrom(new ByteArrayInputStream(hyg), HygDatabaseLoader.INSTANCE)
+                            .loadFrom(new ByteArrayInputStream(asterisms), AsterismLoader.INSTANCE)
+                            .build();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }, iterations);
+        Bench.printBench(() -> {
+            for (int i = 0; i < iterations; i++) {
+                try {
+                    load(hyg, asterisms);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }, iterations);
+        assertTrue(pendingWrites.isEmpty());
+    }
+
+    /**
+     * @return the first observed sky, from the catalogue loaded from the cache.
+     */
+    private ObservedSky firstSky() {
+        try {
+            return new ObservedSky(ZonedDateTime.now(), GeographicCoordinates.ofDeg(6.57, 46.52),
+                    new StereographicProjection(HorizontalCoordinates.ofDeg(180, 15)), load(hyg, asterisms));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // DISABLED: Benchmarking
+    @Disabled
+    @Test
+    void benchmarkStartup() throws IOException {
+        // the time until the first sky is available, from the catalogue loaded from the cache: on the
+        // calling thread, then on a worker thread while the caller waits for it (the views themselves,
+        // which the caller would show in the meantime, need a display)
+        load(hyg, asterisms);
+        runPendingWrites();
+        for (int run = 0; run < 10; run++) {
+            Bench.printBench(this::firstSky, 1);
+            Bench.printBench(() -> CompletableFuture.supplyAsync(this::firstSky).join(), 1);
+        }
+    }
+
+}
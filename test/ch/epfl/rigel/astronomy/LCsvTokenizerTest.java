@@ -0,0 +1,102 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public class LCsvTokenizerTest {
+
+    private static CsvTokenizer tokenizer(String data) {
+        return new CsvTokenizer(new ByteArrayInputStream(data.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void readsAndSkipsFields() throws IOException {
+        final CsvTokenizer tokenizer = tokenizer("header,is,skipped\n12,,skip,Rigel,-0.25\r\n-3,4.5,,x\n\nnever,read\n");
+        assertTrue(tokenizer.nextRow());
+        assertEquals(12, tokenizer.nextInt(0));
+        assertEquals(7, tokenizer.nextInt(7));
+        tokenizer.skipField();
+        assertEquals("Rigel", tokenizer.nextString());
+        assertEquals(-0.25d, tokenizer.nextDouble());
+        assertTrue(tokenizer.nextRow());
+        assertEquals(-3, tokenizer.nextInt(0));
+        tokenizer.skipFields(2);
+        assertEquals("x", tokenizer.nextString());
+        // the empty line ends the data
+        assertFalse(tokenizer.nextRow());
+    }
+
+    @Test
+    void stopsAtEndOfInput() throws IOException {
+        final CsvTokenizer tokenizer = tokenizer("header\n1,2");
+        assertTrue(tokenizer.nextRow());
+        tokenizer.skipField();
+        assertEquals(2, tokenizer.nextInt(0));
+        // reading past the end of the row gives blank fields
+        assertEquals("", tokenizer.nextString());
+        assertFalse(tokenizer.nextRow());
+        assertFalse(tokenizer.nextRow());
+    }
+
+    @Test
+    void parsesDoublesExactly() throws IOException {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        final StringBuilder builder = new StringBuilder("header\n");
+        final String[] values = new String[10 * TestRandomizer.RANDOM_ITERATIONS];
+        for (int i = 0; i < values.length; i++) {
+            final double value = random.nextDouble(-10, 10);
+            switch (i % 4) {
+                case 0:
+                    values[i] = Double.toString(value);
+                    break;
+                case 1:
+                    values[i] = String.format(Locale.ROOT, "%.3f", value);
+                    break;
+                case 2:
+                    values[i] = String.format(Locale.ROOT, "%.17f", value / 1e6);
+                    break;
+                default:
+                    values[i] = Double.toString(value * 1e-9); // scientific notation
+            }
+            builder.append(values[i]).append('\n');
+        }
+        final CsvTokenizer tokenizer = tokenizer(builder.toString());
+        for (String value : values) {
+            assertTrue(tokenizer.nextRow());
+            assertEquals(Double.parseDouble(value), tokenizer.nextDouble());
+        }
+    }
+
+    @Test
+    void failsOnInvalidNumbers() {
+        assertThrows(NumberFormatException.class, () -> {
+            final CsvTokenizer tokenizer = tokenizer("header\nabc");
+            tokenizer.nextRow();
+            tokenizer.nextInt(0);
+        });
+        assertThrows(NumberFormatException.class, () -> {
+            final CsvTokenizer tokenizer = tokenizer("header\n1.2.3");
+            tokenizer.nextRow();
+            tokenizer.nextDouble(0d);
+        });
+        assertThrows(NumberFormatException.class, () -> {
+            final CsvTokenizer tokenizer = tokenizer("header\n,");
+            tokenizer.nextRow();
+            tokenizer.nextDouble();
+        });
+    }
+
+}
@@ -1,17 +1,19 @@
 package ch.epfl.rigel.astronomy;
 
 import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.test.Bench;
 import ch.epfl.test.TestRandomizer;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
-import java.io.IOException;
+import java.io.*;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.List;
-import java.util.SplittableRandom;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -87,6 +89,40 @@ public class LHygDatabaseLoaderTest {
         return new Star(0, "", EquatorialCoordinates.of(0, 0), 0, colorIndex).colorTemperature();
     }
 
+    /**
+     * The former, {@code String#split}-based, implementation of {@link HygDatabaseLoader#load},
+     * kept as a reference.
+     */
+    private static final StarCatalogue.Loader SPLIT_LOADER = (inputStream, builder) -> {
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream,
+                StandardCharsets.US_ASCII))) {
+            String str;
+            reader.readLine();
+            while ((str = reader.readLine()) != null && !str.equals("")) {
+                final String[] data = str.split(",");
+                builder.addStar(new Star(toInt(data[1]), buildName(data[6], data[27], data[29]),
+                        EquatorialCoordinates.of(Double.parseDouble(data[23]), Double.parseDouble(data[24])),
+                        (float) toDouble(data[13]), (float) toDouble(data[16])));
+            }
+        }
+    };
+
+    /**
+     * @param rows the number of rows of the catalogue to create
+     * @return an HYG catalogue of {@code rows} rows, made of the rows of the bundled catalogue,
+     * repeated as many times as needed.
+     */
+    private static byte[] largeCatalogue(int rows) throws IOException, URISyntaxException {
+        final List<String> lines = Files.readAllLines(
+                Paths.get(LHygDatabaseLoaderTest.class.getResource(HYG_CATALOGUE_NAME).toURI()),
+                StandardCharsets.US_ASCII);
+        final StringBuilder builder = new StringBuilder(lines.get(0)).append('\n');
+        for (int i = 0; i < rows; i++) {
+            builder.append(lines.get(1 + i % (lines.size() - 1))).append('\n');
+        }
+        return builder.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
     private static StarCatalogue catalogue;
 
     private static StarCatalogue loadWithBuilder() throws IOException {
@@ -172,4 +208,99 @@ public class LHygDatabaseLoaderTest {
         }
     }
 
+    /**
+     * Asserts that both lists hold stars with the exact same data, in the same order.
+     */
+    private static void assertSameStars(List<Star> expected, List<Star> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            final Star e = expected.get(i);
+            final Star a = actual.get(i);
+            assertEquals(e.hipparcosId(), a.hipparcosId());
+            assertEquals(e.name(), a.name());
+            assertEquals(e.equatorialPos().ra(), a.equatorialPos().ra());
+            assertEquals(e.equatorialPos().dec(), a.equatorialPos().dec());
+            assertEquals(e.magnitude(), a.magnitude());
+            assertEquals(e.colorIndex(), a.colorIndex());
+        }
+    }
+
+    @Test
+    void sameStarsAsSplitLoader() throws IOException {
+        final StarCatalogue reference = new StarCatalogue.Builder()
+                .loadFrom(getClass().getResourceAsStream(HYG_CATALOGUE_NAME), SPLIT_LOADER)
+                .build();
+        assertSameStars(reference.stars(), catalogue.stars());
+    }
+
+    @Test
+    void parallelLoadKeepsRowOrder() throws IOException, URISyntaxException {
+        final Path path = Paths.get(getClass().getResource(HYG_CATALOGUE_NAME).toURI());
+        for (int chunkSize : new int[]{1, 100, 4096, 1 << 20, Integer.MAX_VALUE}) {
+            final StarCatalogue.Builder builder = new StarCatalogue.Builder();
+            HygDatabaseLoader.INSTANCE.loadParallel(path, builder, chunkSize);
+            assertSameStars(catalogue.stars(), builder.stars());
+        }
+    }
+
+    @Test
+    void parallelLoadStopsAtEmptyLine() throws IOException, URISyntaxException {
+        final List<String> lines = Files.readAllLines(
+                Paths.get(getClass().getResource(HYG_CATALOGUE_NAME).toURI()), StandardCharsets.US_ASCII);
+        final List<String> truncated = new ArrayList<>(lines);
+        truncated.add(1000, "");
+        final Path path = Files.createTempFile("rigel", ".csv");
+        try {
+            Files.write(path, truncated, StandardCharsets.US_ASCII);
+            final StarCatalogue.Builder builder = new StarCatalogue.Builder();
+            HygDatabaseLoader.INSTANCE.loadParallel(path, builder, 4096);
+            assertSameStars(catalogue.stars().subList(0, 999), builder.stars());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    // DISABLED: Benchmarking
+    @Disabled
+    @Test
+    void benchmark() throws IOException, URISyntaxException {
+        final byte[] bundled = getClass().getResourceAsStream(HYG_CATALOGUE_NAME).readAllBytes();
+        final byte[] large = largeCatalogue(120_000);
+        for (byte[] data : new byte[][]{bundled, large}) {
+            final int iterations = data == bundled ? 200 : 20;
+            final Path path = Files.createTempFile("rigel", ".csv");
+            Files.write(path, data);
+            final Map<String, Runnable> modes = new LinkedHashMap<>();
+            for (StarCatalogue.Loader loader : new StarCatalogue.Loader[]{SPLIT_LOADER, HygDatabaseLoader.INSTANCE}) {
+                modes.put(loader == SPLIT_LOADER ? "split" : "tokenizer", () -> {
+                    try {
+                        new StarCatalogue.Builder().loadFrom(new ByteArrayInputStream(data), loader);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            modes.put("parallel", () -> {
+                try {
+                    HygDatabaseLoader.INSTANCE.loadParallel(path, new StarCatalogue.Builder());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            for (Map.Entry<String, Runnable> mode : modes.entrySet()) {
+                // warm up
+                for (int i = 0; i < iterations; i++) {
+                    mode.getValue().run();
+                }
+                System.out.print(mode.getKey() + ", " + data.length + " bytes: ");
+                Bench.printBench(() -> {
+                    for (int i = 0; i < iterations; i++) {
+                        mode.getValue().run();
+                    }
+                }, iterations);
+            }
+            Files.delete(path);
+        }
+    }
+
 }
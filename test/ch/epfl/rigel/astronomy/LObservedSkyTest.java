@@ -0,0 +1,441 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.CartesianCoordinates;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.test.Bench;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.DoubleBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public class LObservedSkyTest {
+
+    private static ObservedSky sky;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        final StarCatalogue catalogue;
+        try (final InputStream in = LObservedSkyTest.class.getResourceAsStream("/hygdata_v3.csv")) {
+            catalogue = new StarCatalogue.Builder().loadFrom(in, HygDatabaseLoader.INSTANCE).build();
+        }
+        sky = new ObservedSky(ZonedDateTime.now(), GeographicCoordinates.ofDeg(6.57, 46.52),
+                new StereographicProjection(HorizontalCoordinates.ofDeg(180, 30)), catalogue);
+    }
+
+    private static void assertPosition(double x, double y, CartesianCoordinates position) {
+        assertEquals(x, position.x());
+        assertEquals(y, position.y());
+    }
+
+    @Test
+    void locateFindsAllObjects() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        final double[] stars = sky.starPositions();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            final int index = random.nextInt(sky.stars().size());
+            assertPosition(stars[2 * index], stars[2 * index + 1], sky.locate(sky.stars().get(index)));
+        }
+        final double[] planets = sky.planetPositions();
+        for (int i = 0; i < sky.planets().size(); i++) {
+            assertPosition(planets[2 * i], planets[2 * i + 1], sky.locate(sky.planets().get(i)));
+        }
+        assertSame(sky.sunPosition(), sky.locate(sky.sun()));
+        assertSame(sky.moonPosition(), sky.locate(sky.moon()));
+    }
+
+    @Test
+    void locateFindsThePlanetsByName() {
+        final double[] planets = sky.planetPositions();
+        int slot = 0;
+        for (PlanetModel model : PlanetModel.ALL) {
+            if (model != PlanetModel.EARTH) {
+                assertPosition(planets[2 * slot], planets[2 * slot + 1], sky.locate(model.empty()));
+                slot++;
+            }
+        }
+        assertNull(sky.locate(new Planet("Pluton", EquatorialCoordinates.of(0, 0), 0f, 0f)));
+    }
+
+    @Test
+    void locateReturnsNullForStarsOfOtherCatalogues() {
+        // such a star used to be located as the first planet
+        assertNull(sky.locate(new Star(0, "Other", EquatorialCoordinates.of(0, 0), 0f, 0f)));
+        assertThrows(NullPointerException.class, () -> sky.locate(null));
+    }
+
+    @Test
+    void locateAllAgreesWithLocate() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        final List<CelestialObject> objects = new ArrayList<>();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            objects.add(sky.stars().get(random.nextInt(sky.stars().size())));
+        }
+        objects.addAll(sky.planets());
+        objects.add(sky.sun());
+        objects.add(sky.moon());
+        objects.add(new Star(0, "Other", EquatorialCoordinates.of(0, 0), 0f, 0f));
+
+        final double[] positions = sky.locateAll(objects);
+        assertEquals(2 * objects.size(), positions.length);
+        for (int i = 0; i < objects.size() - 1; i++) {
+            assertPosition(positions[2 * i], positions[2 * i + 1], sky.locate(objects.get(i)));
+        }
+        assertTrue(Double.isNaN(positions[positions.length - 2]));
+        assertTrue(Double.isNaN(positions[positions.length - 1]));
+        assertEquals(0, sky.locateAll(List.of()).length);
+    }
+
+    @Test
+    void starPositionsAreTheProjectionsOfTheStars() {
+        final ZonedDateTime when = ZonedDateTime.now();
+        final GeographicCoordinates where = GeographicCoordinates.ofDeg(-73.5, 45.5);
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(10, 70));
+        final ObservedSky observed = new ObservedSky(when, where, projection, sky.catalogue());
+        final Function<EquatorialCoordinates, CartesianCoordinates> fullProjection =
+                projection.compose(new EquatorialToHorizontalConversion(when, where));
+        final double[] positions = observed.starPositions();
+        for (int i = 0; i < observed.stars().size(); i++) {
+            final CartesianCoordinates expected = fullProjection.apply(observed.stars().get(i).equatorialPos());
+            // the stars are projected from their unit vectors, hence the rounding errors
+            final double tolerance = 1e-12 * (1 + expected.x() * expected.x() + expected.y() * expected.y());
+            assertEquals(expected.x(), positions[2 * i], tolerance);
+            assertEquals(expected.y(), positions[2 * i + 1], tolerance);
+        }
+    }
+
+    @Test
+    void visibleStarsAreTheStarsAboveTheAltitudeAndInTheCone() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        for (int i = 0; i < 20; i++) {
+            final ZonedDateTime when = ZonedDateTime.now().plusMinutes(random.nextInt(60 * 24 * 365));
+            final GeographicCoordinates where =
+                    GeographicCoordinates.ofDeg(random.nextDouble(-180, 180), random.nextDouble(-90, 90));
+            final HorizontalCoordinates center =
+                    HorizontalCoordinates.ofDeg(random.nextDouble(0, 360), random.nextDouble(-90, 90));
+            final ObservedSky observed = new ObservedSky(when, where, new StereographicProjection(center), sky.catalogue());
+            final double minAltitude = random.nextDouble(-Math.PI / 2, Math.PI / 2);
+            final double maxAngularDistance = random.nextDouble(0, Math.PI);
+            final int[] visible = observed.visibleStars(minAltitude, maxAngularDistance);
+
+            final EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(when, where);
+            int next = 0;
+            for (int j = 0; j < observed.stars().size(); j++) {
+                final HorizontalCoordinates position = conversion.apply(observed.stars().get(j).equatorialPos());
+                final double cosDistance = Math.sin(position.alt()) * Math.sin(center.alt())
+                        + Math.cos(position.alt()) * Math.cos(center.alt()) * Math.cos(position.az() - center.az());
+                final double altitudeMargin = position.alt() - minAltitude;
+                final double distanceMargin = cosDistance - Math.cos(maxAngularDistance);
+                final boolean isVisible = next < visible.length && visible[next] == j;
+                if (isVisible) {
+                    next++;
+                }
+                // the stars on the edges may go either way, because of the rounding errors
+                if (Math.abs(altitudeMargin) > 1e-9 && Math.abs(distanceMargin) > 1e-9) {
+                    assertEquals(altitudeMargin > 0 && distanceMargin > 0, isVisible);
+                }
+            }
+            // the indices are increasing, hence all found in order
+            assertEquals(visible.length, next);
+        }
+        assertEquals(sky.stars().size(), sky.visibleStars(-Math.PI / 2, Math.PI).length);
+    }
+
+    @Test
+    void visibleStarsIntoAnArrayAgreesWithVisibleStars() {
+        final int[] selected = new int[sky.stars().size() + 10];
+        Arrays.fill(selected, -1);
+        for (double maxAngularDistance : new double[]{0, Math.PI / 4, Math.PI}) {
+            final int[] expected = sky.visibleStars(0, maxAngularDistance);
+            final int count = sky.visibleStars(0, maxAngularDistance, selected);
+            assertArrayEquals(expected, Arrays.copyOf(selected, count));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> sky.visibleStars(0, Math.PI, new int[sky.stars().size() - 1]));
+    }
+
+    @Test
+    void culledStarsCanStillBeLocated() {
+        final int[] visible = sky.visibleStars(0, Math.PI / 4);
+        assertTrue(visible.length < sky.stars().size());
+        final double[] positions = sky.starPositions();
+        for (int i = 0, next = 0; i < sky.stars().size(); i++) {
+            if (next < visible.length && visible[next] == i) {
+                next++;
+            } else {
+                assertPosition(positions[2 * i], positions[2 * i + 1], sky.locate(sky.stars().get(i)));
+            }
+        }
+    }
+
+    @Test
+    void withMomentWithoutAgeIsTheSkyAtTheMoment() {
+        final ZonedDateTime start = ZonedDateTime.now();
+        final GeographicCoordinates where = GeographicCoordinates.ofDeg(6.57, 46.52);
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 30));
+        ObservedSky current = new ObservedSky(start, where, projection, sky.catalogue());
+        for (int i = 1; i <= 10; i++) {
+            final ZonedDateTime when = start.plusSeconds(50L * i);
+            current = current.withMoment(when, Duration.ZERO, null);
+            final ObservedSky expected = new ObservedSky(when, where, projection, sky.catalogue());
+            assertArrayEquals(expected.starPositions(), current.starPositions());
+            assertArrayEquals(expected.planetPositions(), current.planetPositions());
+            assertEquals(expected.sunPosition().x(), current.sunPosition().x());
+            assertEquals(expected.moonPosition().y(), current.moonPosition().y());
+        }
+    }
+
+    @Test
+    void withMomentKeepsTheSolarSystemUntilItIsTooOld() {
+        final ZonedDateTime start = ZonedDateTime.now();
+        final GeographicCoordinates where = GeographicCoordinates.ofDeg(-73.5, 45.5);
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(90, 45));
+        final ObservedSky first = new ObservedSky(start, where, projection, sky.catalogue());
+        final Duration period = Duration.ofMinutes(5);
+        ObservedSky spare = null;
+        ObservedSky last = first;
+        for (int i = 1; i <= 5; i++) {
+            final ZonedDateTime when = start.plusMinutes(i);
+            final ObservedSky current = last.withMoment(when, period, spare);
+            spare = last;
+            last = current;
+
+            final ObservedSky expected = new ObservedSky(when, where, projection, sky.catalogue());
+            assertArrayEquals(expected.starPositions(), current.starPositions());
+            // the Sun, the Moon and the planets are the ones of the first sky, seen at the new moment
+            assertSame(first.sun(), current.sun());
+            assertSame(first.moon(), current.moon());
+            assertSame(first.planets(), current.planets());
+            final CartesianCoordinates moon = projection.apply(
+                    new EquatorialToHorizontalConversion(when, where).apply(first.moon().equatorialPos()));
+            assertPosition(moon.x(), moon.y(), current.moonPosition());
+            assertSame(current.moon(), current.objectClosestTo(current.moonPosition(), 1e-9).orElseThrow());
+        }
+        // once they are too old, they are computed again
+        final ObservedSky later = last.withMoment(start.plusMinutes(6), period, spare);
+        assertNotSame(first.moon(), later.moon());
+        assertEquals(new ObservedSky(start.plusMinutes(6), where, projection, sky.catalogue()).moon().equatorialPos().ra(),
+                later.moon().equatorialPos().ra());
+        assertThrows(NullPointerException.class, () -> first.withMoment(null, period, null));
+        assertThrows(NullPointerException.class, () -> first.withMoment(start, null, null));
+    }
+
+    // DISABLED: Benchmarking
+    @Disabled
+    @Test
+    void benchmarkWithMoment() {
+        final GeographicCoordinates where = GeographicCoordinates.ofDeg(6.57, 46.52);
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 30));
+        final ZonedDateTime start = ZonedDateTime.now();
+        final int frames = 1000;
+        for (int run = 0; run < 5; run++) {
+            for (Duration period : List.of(Duration.ZERO, Duration.ofMinutes(5))) {
+                System.out.print(period + " ");
+                Bench.printBench(() -> {
+                    ObservedSky spare = null;
+                    ObservedSky last = new ObservedSky(start, where, projection, sky.catalogue());
+                    for (int i = 0; i < frames; i++) {
+                        // as with TIMES_3000 at 60 frames per second
+                        final ObservedSky current = last.withMoment(start.plusSeconds(50L * i), period, spare);
+                        spare = last;
+                        last = current;
+                    }
+                }, frames);
+            }
+        }
+    }
+
+    /**
+     * @return a catalogue of the provided number of random stars.
+     */
+    private static StarCatalogue randomCatalogue(SplittableRandom random, int count) {
+        final StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        for (int i = 0; i < count; i++) {
+            builder.addStar(new Star(i, "Star " + i, EquatorialCoordinates.of(random.nextDouble(0, 2 * Math.PI),
+                    random.nextDouble(-Math.PI / 2, Math.PI / 2)), (float) random.nextDouble(-1, 12), 0f));
+        }
+        return builder.build();
+    }
+
+    @Test
+    void starPositionsDoNotDependOnTheProjectionMode() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        final StarCatalogue large = randomCatalogue(random, ObservedSky.PARALLEL_THRESHOLD + 1234);
+        for (StarCatalogue catalogue : List.of(sky.catalogue(), large)) {
+            final ZonedDateTime when = ZonedDateTime.now().plusMinutes(random.nextInt(60 * 24 * 365));
+            final GeographicCoordinates where =
+                    GeographicCoordinates.ofDeg(random.nextDouble(-180, 180), random.nextDouble(-90, 90));
+            final StereographicProjection projection = new StereographicProjection(
+                    HorizontalCoordinates.ofDeg(random.nextDouble(0, 360), random.nextDouble(-90, 90)));
+            final double[] expected = new ObservedSky(when, where, projection, catalogue, null,
+                    ObservedSky.StarProjectionMode.SEQUENTIAL).starPositions();
+            for (ObservedSky.StarProjectionMode mode : ObservedSky.StarProjectionMode.values()) {
+                assertArrayEquals(expected, new ObservedSky(when, where, projection, catalogue, null, mode).starPositions());
+            }
+        }
+    }
+
+    @Test
+    void withCatalogueKeepsTheProjectionMode() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        final StarCatalogue large = randomCatalogue(random, 3 * 1024 + 17);
+        final ZonedDateTime when = ZonedDateTime.now();
+        final GeographicCoordinates where = GeographicCoordinates.ofDeg(6.57, 46.52);
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 30));
+        final ObservedSky parallel = new ObservedSky(when, where, projection, sky.catalogue(), null,
+                ObservedSky.StarProjectionMode.PARALLEL).withCatalogue(large);
+        final ObservedSky sequential = new ObservedSky(when, where, projection, large, null,
+                ObservedSky.StarProjectionMode.SEQUENTIAL);
+        assertArrayEquals(sequential.starPositions(), parallel.starPositions());
+        assertThrows(NullPointerException.class,
+                () -> new ObservedSky(when, where, projection, large, null, null));
+    }
+
+    // DISABLED: Benchmarking
+    @Disabled
+    @Test
+    void benchmarkProjectionModes() {
+        final StarCatalogue large = randomCatalogue(TestRandomizer.newRandom(), 120_000);
+        final GeographicCoordinates where = GeographicCoordinates.ofDeg(6.57, 46.52);
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 30));
+        final ZonedDateTime start = ZonedDateTime.now();
+        final int frames = 200;
+        for (int run = 0; run < 5; run++) {
+            for (ObservedSky.StarProjectionMode mode : ObservedSky.StarProjectionMode.values()) {
+                System.out.print(mode + " ");
+                Bench.printBench(() -> {
+                    ObservedSky spare = null;
+                    ObservedSky last = null;
+                    for (int i = 0; i < frames; i++) {
+                        final ObservedSky current =
+                                new ObservedSky(start.plusMinutes(i), where, projection, large, spare, mode);
+                        spare = last;
+                        last = current;
+                    }
+                }, frames);
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes allocated by the current thread so far.
+     */
+    private static long allocatedBytes() {
+        // getCurrentThreadAllocatedBytes only exists since Java 14
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Test
+    void recycledSkyHasTheSamePositions() {
+        final StarCatalogue catalogue = sky.catalogue();
+        final SplittableRandom random = TestRandomizer.newRandom();
+        ObservedSky spare = null;
+        ObservedSky last = null;
+        for (int i = 0; i < 20; i++) {
+            final ZonedDateTime when = ZonedDateTime.now().plusMinutes(random.nextInt(60 * 24 * 365));
+            final GeographicCoordinates where =
+                    GeographicCoordinates.ofDeg(random.nextDouble(-180, 180), random.nextDouble(-90, 90));
+            final StereographicProjection projection = new StereographicProjection(
+                    HorizontalCoordinates.ofDeg(random.nextDouble(0, 360), random.nextDouble(-90, 90)));
+            final ObservedSky recycled = new ObservedSky(when, where, projection, catalogue, spare);
+            final ObservedSky expected = new ObservedSky(when, where, projection, catalogue);
+            assertArrayEquals(expected.starPositions(), recycled.starPositions());
+            for (int j = 0; j < 100; j++) {
+                final CartesianCoordinates point =
+                        CartesianCoordinates.of(random.nextDouble(-2, 2), random.nextDouble(-2, 2));
+                final CelestialObject expectedObject = expected.objectClosestTo(point, 0.05).orElse(null);
+                final CelestialObject object = recycled.objectClosestTo(point, 0.05).orElse(null);
+                // the stars are the same instances, the other objects are computed by each sky
+                if (expectedObject instanceof Star || expectedObject == null) {
+                    assertSame(expectedObject, object);
+                } else {
+                    assertEquals(expectedObject.name(), object.name());
+                }
+            }
+            spare = last;
+            last = recycled;
+        }
+    }
+
+    @Test
+    void recycledSkiesPickTheSameObjectsWhenOnlySomeArePicked() {
+        final StarCatalogue catalogue = sky.catalogue();
+        final SplittableRandom random = TestRandomizer.newRandom();
+        final GeographicCoordinates where = GeographicCoordinates.ofDeg(6.57, 46.52);
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 30));
+        final ZonedDateTime start = ZonedDateTime.now();
+        ObservedSky spare = null;
+        ObservedSky last = null;
+        for (int i = 0; i < 12; i++) {
+            final ObservedSky recycled = new ObservedSky(start.plusHours(i), where, projection, catalogue, spare);
+            // the grid of the skies that are never picked is only built by the skies recycling them
+            if (i % 3 == 2) {
+                final ObservedSky expected = new ObservedSky(start.plusHours(i), where, projection, catalogue);
+                for (int j = 0; j < 100; j++) {
+                    final CartesianCoordinates point =
+                            CartesianCoordinates.of(random.nextDouble(-2, 2), random.nextDouble(-2, 2));
+                    final CelestialObject expectedObject = expected.objectClosestTo(point, 0.05).orElse(null);
+                    final CelestialObject object = recycled.objectClosestTo(point, 0.05).orElse(null);
+                    if (expectedObject instanceof Star || expectedObject == null) {
+                        assertSame(expectedObject, object);
+                    } else {
+                        assertEquals(expectedObject.name(), object.name());
+                    }
+                }
+            }
+            spare = last;
+            last = recycled;
+        }
+    }
+
+    @Test
+    void recycledSkyDoesNotAllocatePerStar() {
+        final StarCatalogue catalogue = sky.catalogue();
+        final GeographicCoordinates where = GeographicCoordinates.ofDeg(6.57, 46.52);
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 30));
+        final ZonedDateTime start = ZonedDateTime.now();
+        ObservedSky spare = null;
+        ObservedSky last = null;
+        long allocated = 0;
+        final int warmUpFrames = 200;
+        final int frames = 50;
+        for (int i = 0; i < warmUpFrames + frames; i++) {
+            if (i == warmUpFrames) {
+                allocated = allocatedBytes();
+            }
+            // as during an animation, each frame is one minute later
+            final ObservedSky current =
+                    new ObservedSky(start.plusMinutes(i), where, projection, catalogue, spare);
+            spare = last;
+            last = current;
+        }
+        final double bytesPerStarPerFrame = (double) (allocatedBytes() - allocated) / frames / catalogue.starCount();
+        // the sky itself takes a few kilobytes, whereas a single object per star would take at least 16 bytes
+        assertTrue(bytesPerStarPerFrame < 8, "allocated " + bytesPerStarPerFrame + " bytes per star per frame");
+    }
+
+}
@@ -0,0 +1,162 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.CartesianCoordinates;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.test.Bench;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public class LPositionGridTest {
+
+    /**
+     * The linear search that the grid must agree with: the first one of the closest positions.
+     */
+    private static int linearSearch(double[] positions, CartesianCoordinates where, double maxDistance) {
+        double best = Double.MAX_VALUE;
+        int closest = -1;
+        for (int i = 0; i < positions.length / 2; i++) {
+            final double d = where.distSquared(positions[2 * i], positions[2 * i + 1]);
+            if (best > d && d <= maxDistance * maxDistance) {
+                closest = i;
+                best = d;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * @return random positions, mostly within the unit disc, some of them far away or repeated.
+     */
+    private static double[] randomPositions(SplittableRandom random, int count) {
+        final double[] positions = new double[2 * count];
+        for (int i = 0; i < count; i++) {
+            final double choice = random.nextDouble();
+            if (choice < 0.05 && i > 0) {
+                // same position as a previous one, to test the ties
+                final int j = random.nextInt(i);
+                positions[2 * i] = positions[2 * j];
+                positions[2 * i + 1] = positions[2 * j + 1];
+            } else if (choice < 0.1) {
+                positions[2 * i] = random.nextDouble(-100, 100);
+                positions[2 * i + 1] = random.nextDouble(-100, 100);
+            } else {
+                positions[2 * i] = random.nextDouble(-1.5, 1.5);
+                positions[2 * i + 1] = random.nextDouble(-1.5, 1.5);
+            }
+        }
+        return positions;
+    }
+
+    @Test
+    void closestToAgreesWithLinearSearch() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS / 10; i++) {
+            final double[] positions = randomPositions(random, random.nextInt(0, 3000));
+            final PositionGrid grid = new PositionGrid(positions);
+            for (int j = 0; j < 100; j++) {
+                final CartesianCoordinates where =
+                        CartesianCoordinates.of(random.nextDouble(-6, 6), random.nextDouble(-6, 6));
+                final double maxDistance = random.nextDouble() < 0.5
+                        ? random.nextDouble(0, 0.1)
+                        : random.nextDouble(0, 20);
+                assertEquals(linearSearch(positions, where, maxDistance), grid.closestTo(where, maxDistance));
+            }
+        }
+    }
+
+    @Test
+    void closestToAgreesWithLinearSearchOnPositionsOfTheGrid() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        final double[] positions = randomPositions(random, 2000);
+        final PositionGrid grid = new PositionGrid(positions);
+        for (int i = 0; i < positions.length / 2; i++) {
+            final CartesianCoordinates where = CartesianCoordinates.of(positions[2 * i], positions[2 * i + 1]);
+            assertEquals(linearSearch(positions, where, 0), grid.closestTo(where, 0));
+            assertEquals(linearSearch(positions, where, 0.01), grid.closestTo(where, 0.01));
+        }
+    }
+
+    @Test
+    void closestToIgnoresPositionsThatAreNotFinite() {
+        final double[] positions = {
+                Double.NaN, 0,
+                Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                0.5, 0.5
+        };
+        final PositionGrid grid = new PositionGrid(positions);
+        assertEquals(2, grid.closestTo(CartesianCoordinates.of(0, 0), 1));
+        assertEquals(-1, grid.closestTo(CartesianCoordinates.of(0, 0), 0.5));
+        assertEquals(-1, new PositionGrid(new double[0]).closestTo(CartesianCoordinates.of(0, 0), 10));
+    }
+
+    @Test
+    void objectClosestToAgreesWithLinearSearchOnAllObjects() throws IOException {
+        final StarCatalogue catalogue;
+        try (final InputStream in = getClass().getResourceAsStream("/hygdata_v3.csv")) {
+            catalogue = new StarCatalogue.Builder().loadFrom(in, HygDatabaseLoader.INSTANCE).build();
+        }
+        final SplittableRandom random = TestRandomizer.newRandom();
+        for (int i = 0; i < 10; i++) {
+            final ObservedSky sky = new ObservedSky(ZonedDateTime.now().plusHours(random.nextInt(24 * 365)),
+                    GeographicCoordinates.ofDeg(random.nextDouble(-180, 180), random.nextDouble(-90, 90)),
+                    new StereographicProjection(
+                            HorizontalCoordinates.ofDeg(random.nextDouble(0, 360), random.nextDouble(-90, 90))),
+                    catalogue);
+            for (int j = 0; j < TestRandomizer.RANDOM_ITERATIONS; j++) {
+                final CartesianCoordinates where =
+                        CartesianCoordinates.of(random.nextDouble(-2, 2), random.nextDouble(-2, 2));
+                final double maxDistance = random.nextDouble(0, 0.2);
+                CelestialObject expected = null;
+                double best = Double.MAX_VALUE;
+                for (ObservedSky.CelestialPair pair : sky.all()) {
+                    final double d = pair.position().distSquared(where);
+                    if (best > d && d <= maxDistance * maxDistance) {
+                        expected = pair.object();
+                        best = d;
+                    }
+                }
+                assertSame(expected, sky.objectClosestTo(where, maxDistance).orElse(null));
+            }
+        }
+    }
+
+    // DISABLED: Benchmarking
+    @Disabled
+    @Test
+    void benchmark() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        final double[] positions = randomPositions(random, 100_000);
+        final CartesianCoordinates[] queries = new CartesianCoordinates[100 * TestRandomizer.RANDOM_ITERATIONS];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = CartesianCoordinates.of(random.nextDouble(-1.5, 1.5), random.nextDouble(-1.5, 1.5));
+        }
+        final PositionGrid[] grid = new PositionGrid[1];
+        Bench.printBench(() -> grid[0] = new PositionGrid(positions), 1);
+        Bench.printBench(() -> {
+            for (CartesianCoordinates query : queries) {
+                grid[0].closestTo(query, 0.01);
+            }
+        }, queries.length);
+        Bench.printBench(() -> {
+            for (int i = 0; i < queries.length / 100; i++) {
+                linearSearch(positions, queries[i], 0.01);
+            }
+        }, queries.length / 100);
+    }
+
+}
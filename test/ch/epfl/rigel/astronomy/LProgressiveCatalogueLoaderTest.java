@@ -0,0 +1,170 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public class LProgressiveCatalogueLoaderTest {
+
+    private static final String HYG_CATALOGUE_NAME = "/hygdata_v3.csv";
+    private static final String AST_CATALOGUE_NAME = "/asterisms.txt";
+
+    private static StarCatalogue catalogue;
+    private static Path sorted;
+    private static Path unsorted;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        final StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        try (final InputStream hyg = LProgressiveCatalogueLoaderTest.class.getResourceAsStream(HYG_CATALOGUE_NAME);
+             final InputStream asterisms = LProgressiveCatalogueLoaderTest.class.getResourceAsStream(AST_CATALOGUE_NAME)) {
+            catalogue = builder.loadFrom(hyg, HygDatabaseLoader.INSTANCE)
+                    .loadFrom(asterisms, AsterismLoader.INSTANCE)
+                    .build();
+        }
+        sorted = Files.createTempFile("rigel", ".bin");
+        try (final OutputStream out = Files.newOutputStream(sorted)) {
+            BinaryDatabaseLoader.writeByMagnitude(catalogue, out);
+        }
+        unsorted = Files.createTempFile("rigel", ".bin");
+        try (final OutputStream out = Files.newOutputStream(unsorted)) {
+            BinaryDatabaseLoader.write(catalogue, out);
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        Files.delete(sorted);
+        Files.delete(unsorted);
+    }
+
+    private static InputStream asterisms() {
+        return LProgressiveCatalogueLoaderTest.class.getResourceAsStream(AST_CATALOGUE_NAME);
+    }
+
+    private static List<StarCatalogue> loadAll(Path path, float firstMagnitude, int chunkSize) {
+        final List<StarCatalogue> published = new ArrayList<>();
+        final StarCatalogue complete = ProgressiveCatalogueLoader
+                .load(path, asterisms(), firstMagnitude, chunkSize, published::add, Runnable::run)
+                .join();
+        assertSame(complete, published.get(published.size() - 1));
+        return published;
+    }
+
+    private static List<Integer> sortedHipparcosIds(StarCatalogue catalogue) {
+        final List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < catalogue.starCount(); i++) {
+            ids.add(catalogue.hipparcosId(i));
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    @Test
+    void publishesTheBrightestStarsFirst() {
+        final List<StarCatalogue> published = loadAll(sorted, 4f, 1000);
+        final StarCatalogue first = published.get(0);
+        int brightCount = 0;
+        for (int i = 0; i < catalogue.starCount(); i++) {
+            if (catalogue.magnitude(i) <= 4f) {
+                brightCount++;
+            }
+        }
+        assertEquals(brightCount, first.starCount());
+        for (int i = 0; i < first.starCount(); i++) {
+            assertTrue(first.magnitude(i) <= 4f);
+        }
+        assertTrue(first.asterisms().isEmpty());
+    }
+
+    @Test
+    void catalogueStartsWithThePreviousOne() {
+        final List<StarCatalogue> published = loadAll(sorted, 2f, 1000);
+        assertTrue(published.size() > 2);
+        for (int i = 1; i < published.size(); i++) {
+            final StarCatalogue previous = published.get(i - 1);
+            final StarCatalogue current = published.get(i);
+            assertTrue(current.starCount() > previous.starCount() || i == published.size() - 1);
+            assertTrue(current.startsWithPositionsOf(previous));
+            for (int j = 0; j < previous.starCount(); j++) {
+                assertEquals(previous.hipparcosId(j), current.hipparcosId(j));
+                assertEquals(previous.magnitude(j), current.magnitude(j));
+            }
+        }
+    }
+
+    @Test
+    void completeCatalogueHoldsAllStarsAndAsterisms() {
+        final List<StarCatalogue> published = loadAll(sorted, 4f, 5000);
+        final StarCatalogue complete = published.get(published.size() - 1);
+        assertEquals(sortedHipparcosIds(catalogue), sortedHipparcosIds(complete));
+        assertEquals(catalogue.asterisms().size(), complete.asterisms().size());
+        for (Asterism asterism : complete.asterisms()) {
+            for (int index : complete.asterismIndices(asterism)) {
+                assertTrue(index >= 0 && index < complete.starCount());
+            }
+        }
+    }
+
+    @Test
+    void unsortedCatalogueIsPublishedAtOnce() {
+        final List<StarCatalogue> published = loadAll(unsorted, 4f, 1000);
+        assertEquals(1, published.size());
+        assertEquals(catalogue.starCount(), published.get(0).starCount());
+        assertEquals(catalogue.asterisms().size(), published.get(0).asterisms().size());
+    }
+
+    @Test
+    void withCatalogueGivesTheSamePositionsAsAFullProjection() {
+        final List<StarCatalogue> published = loadAll(sorted, 3f, 20_000);
+        final ZonedDateTime when = ZonedDateTime.now();
+        final GeographicCoordinates where = GeographicCoordinates.ofDeg(6.57, 46.52);
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 45));
+        ObservedSky sky = new ObservedSky(when, where, projection, published.get(0));
+        for (StarCatalogue current : published) {
+            sky = sky.withCatalogue(current);
+            assertSame(current, sky.catalogue());
+            assertArrayEquals(new ObservedSky(when, where, projection, current).starPositions(), sky.starPositions());
+        }
+        // a catalogue that does not start with the observed one is projected entirely
+        final ObservedSky other = sky.withCatalogue(catalogue);
+        assertArrayEquals(new ObservedSky(when, where, projection, catalogue).starPositions(), other.starPositions());
+        assertSame(sky.sun(), other.sun());
+        assertSame(other, other.withCatalogue(catalogue));
+    }
+
+    @Test
+    void failsOnInvalidFiles() throws IOException {
+        final Path empty = Files.createTempFile("rigel", ".bin");
+        try {
+            assertThrows(CompletionException.class, () -> ProgressiveCatalogueLoader
+                    .load(empty, null, 4f, 1000, c -> {}, Runnable::run).join());
+        } finally {
+            Files.delete(empty);
+        }
+        assertThrows(IllegalArgumentException.class, () -> ProgressiveCatalogueLoader
+                .load(sorted, null, 4f, 0, c -> {}, Runnable::run));
+    }
+
+}
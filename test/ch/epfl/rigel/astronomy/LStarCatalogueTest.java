@@ -134,4 +134,130 @@ public class LStarCatalogueTest {
                 () -> new StarCatalogue.Builder().asterisms().add(null));
     }
 
+    @Test
+    void primitiveAccessorsMatchStars() throws IOException {
+        StarCatalogue catalogue = new StarCatalogue.Builder()
+                .loadFrom(getClass().getResourceAsStream(HYG_CATALOGUE_NAME), HygDatabaseLoader.INSTANCE)
+                .build();
+        assertEquals(catalogue.stars().size(), catalogue.starCount());
+        for (int i = 0; i < catalogue.starCount(); i++) {
+            final Star star = catalogue.stars().get(i);
+            assertEquals(star.hipparcosId(), catalogue.hipparcosId(i));
+            assertEquals(star.name(), catalogue.starName(i));
+            assertEquals(star.equatorialPos().ra(), catalogue.ra(i));
+            assertEquals(star.equatorialPos().dec(), catalogue.dec(i));
+            assertEquals(star.magnitude(), catalogue.magnitude(i));
+            assertEquals(star.colorTemperature(), catalogue.colorTemperature(i));
+        }
+    }
+
+    @Test
+    void starViewsAreUnique() {
+        Star s1 = new Star(1, "Hello", EquatorialCoordinates.of(0, 0), 0f, 0f);
+        StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                .addStar(s1)
+                .addStar(2, "World", 1d, 0.5d, 1.5f, 0.25f);
+        // the provided instances are kept, the others are created once
+        assertSame(s1, builder.stars().get(0));
+        final Star s2 = builder.stars().get(1);
+        assertSame(s2, builder.stars().get(1));
+        assertEquals(2, s2.hipparcosId());
+        assertEquals("World", s2.name());
+        assertEquals(1d, s2.equatorialPos().ra());
+        assertEquals(0.5d, s2.equatorialPos().dec());
+        assertEquals(1.5f, (float) s2.magnitude());
+        assertEquals(0.25f, s2.colorIndex());
+
+        StarCatalogue catalogue = builder.addAsterism(new Asterism(List.of(s2, s1))).build();
+        assertSame(s1, catalogue.stars().get(0));
+        assertSame(s2, catalogue.stars().get(1));
+        assertEquals(List.of(1, 0), catalogue.asterismIndices(catalogue.asterisms().iterator().next()));
+    }
+
+    @Test
+    void addStarFromPropertiesChecksArguments() {
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.addStar(-1, "", 0, 0, 0f, 0f));
+        assertThrows(IllegalArgumentException.class, () -> builder.addStar(0, "", 2 * Math.PI, 0, 0f, 0f));
+        assertThrows(IllegalArgumentException.class, () -> builder.addStar(0, "", 0, 2, 0f, 0f));
+        assertThrows(IllegalArgumentException.class, () -> builder.addStar(0, "", 0, 0, 0f, 5.6f));
+        assertThrows(NullPointerException.class, () -> builder.addStar(0, null, 0, 0, 0f, 0f));
+        assertEquals(0, builder.stars().size());
+    }
+
+    @Test
+    void builtCatalogueIsIndependentFromBuilder() {
+        StarCatalogue.Builder builder = new StarCatalogue.Builder().addStar(1, "Hello", 0, 0, 0f, 0f);
+        StarCatalogue catalogue = builder.build();
+        builder.addStar(2, "World", 0, 0, 0f, 0f);
+        assertEquals(1, catalogue.stars().size());
+        assertEquals(1, catalogue.starCount());
+        assertThrows(UnsupportedOperationException.class, () -> catalogue.stars().set(0, null));
+    }
+
+    @Test
+    void indexOfFindsTheInstancesOfTheCatalogue() throws IOException {
+        final StarCatalogue catalogue = new StarCatalogue.Builder()
+                .loadFrom(getClass().getResourceAsStream(HYG_CATALOGUE_NAME), HygDatabaseLoader.INSTANCE)
+                .build();
+        final SplittableRandom random = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            final int index = random.nextInt(catalogue.starCount());
+            final Star star = catalogue.stars().get(index);
+            assertEquals(index, catalogue.indexOf(star));
+            // an equal star which is not the instance of the catalogue is not found
+            assertEquals(-1, catalogue.indexOf(new Star(star.hipparcosId(), star.name(), star.equatorialPos(),
+                    (float) star.magnitude(), star.colorIndex())));
+        }
+    }
+
+    @Test
+    void indexOfKeepsTheInstancesTheCatalogueIsBuiltWith() {
+        final Star s1 = new Star(1, "Hello", EquatorialCoordinates.of(0, 0), 0f, 0f);
+        final Star s2 = new Star(2, "World", EquatorialCoordinates.of(0, 0), 0f, 0f);
+        final StarCatalogue catalogue = new StarCatalogue(List.of(s1, s2, s1), List.of());
+        // the last index of an instance added several times
+        assertEquals(2, catalogue.indexOf(s1));
+        assertEquals(1, catalogue.indexOf(s2));
+        final StarCatalogue.Builder builder = new StarCatalogue.Builder().addStar(s2).addStar(s1);
+        assertEquals(1, builder.build().indexOf(s1));
+        assertEquals(0, builder.build().indexOf(s2));
+        // also when the stars come from another builder
+        builder.addStars(new StarCatalogue.Builder().addStar(s2));
+        assertEquals(2, builder.build().indexOf(s2));
+    }
+
+    @Test
+    void indexOfHipparcosIdReturnsTheFirstStar() throws IOException {
+        final StarCatalogue catalogue = new StarCatalogue.Builder()
+                .loadFrom(getClass().getResourceAsStream(HYG_CATALOGUE_NAME), HygDatabaseLoader.INSTANCE)
+                .build();
+        final Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < catalogue.starCount(); i++) {
+            expected.putIfAbsent(catalogue.hipparcosId(i), i);
+        }
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), catalogue.indexOfHipparcosId(entry.getKey()));
+        }
+        assertEquals(-1, catalogue.indexOfHipparcosId(Integer.MAX_VALUE));
+        assertEquals(-1, new StarCatalogue(List.of(), List.of()).indexOfHipparcosId(0));
+    }
+
+    @Test
+    void indicesOfHipparcosIdReturnsAllTheStars() throws IOException {
+        final StarCatalogue catalogue = new StarCatalogue.Builder()
+                .loadFrom(getClass().getResourceAsStream(HYG_CATALOGUE_NAME), HygDatabaseLoader.INSTANCE)
+                .build();
+        final Map<Integer, List<Integer>> expected = new HashMap<>();
+        for (int i = 0; i < catalogue.starCount(); i++) {
+            expected.computeIfAbsent(catalogue.hipparcosId(i), id -> new ArrayList<>()).add(i);
+        }
+        for (Map.Entry<Integer, List<Integer>> entry : expected.entrySet()) {
+            final int[] indices = catalogue.indicesOfHipparcosId(entry.getKey());
+            assertArrayEquals(entry.getValue().stream().mapToInt(Integer::intValue).toArray(), indices);
+        }
+        assertEquals(0, catalogue.indicesOfHipparcosId(Integer.MAX_VALUE).length);
+        assertEquals(0, new StarCatalogue(List.of(), List.of()).indicesOfHipparcosId(0).length);
+    }
+
 }
@@ -0,0 +1,196 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public class LTiledCatalogueTest {
+
+    private static final String HYG_CATALOGUE_NAME = "/hygdata_v3.csv";
+
+    private static StarCatalogue catalogue;
+    private static Path file;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        try (final InputStream in = LTiledCatalogueTest.class.getResourceAsStream(HYG_CATALOGUE_NAME)) {
+            catalogue = new StarCatalogue.Builder().loadFrom(in, HygDatabaseLoader.INSTANCE).build();
+        }
+        file = Files.createTempFile("rigel", ".tiles");
+        try (final OutputStream out = Files.newOutputStream(file)) {
+            TiledCatalogue.write(catalogue, 8, 16, out);
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    /**
+     * @return a textual key holding all the data of the star at the provided index.
+     */
+    private static String keyOf(StarCatalogue catalogue, int index) {
+        return catalogue.hipparcosId(index) + "," + catalogue.starName(index) + "," + catalogue.ra(index) + ","
+                + catalogue.dec(index) + "," + catalogue.magnitude(index) + "," + catalogue.colorIndex(index);
+    }
+
+    private static List<String> sortedKeys(StarCatalogue catalogue) {
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < catalogue.starCount(); i++) {
+            keys.add(keyOf(catalogue, i));
+        }
+        Collections.sort(keys);
+        return keys;
+    }
+
+    @Test
+    void wholeSkyHoldsAllStars() throws IOException {
+        final TiledCatalogue tiled = TiledCatalogue.open(file);
+        assertEquals(catalogue.starCount(), tiled.starCount());
+        final EquatorialToHorizontalConversion conversion =
+                new EquatorialToHorizontalConversion(ZonedDateTime.now(), GeographicCoordinates.ofDeg(6.57, 46.52));
+        final StarCatalogue all = tiled.visibleStars(conversion, HorizontalCoordinates.ofDeg(0, 45),
+                Math.PI, Float.POSITIVE_INFINITY);
+        assertEquals(sortedKeys(catalogue), sortedKeys(all));
+        assertTrue(all.asterisms().isEmpty());
+    }
+
+    @Test
+    void visibleStarsHoldsAllStarsOfTheFieldOfView() throws IOException {
+        final TiledCatalogue tiled = TiledCatalogue.open(file);
+        final SplittableRandom random = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS / 10; i++) {
+            final EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(
+                    ZonedDateTime.now().plusHours(random.nextInt(24 * 365)),
+                    GeographicCoordinates.ofDeg(random.nextDouble(-180, 180), random.nextDouble(-90, 90)));
+            final HorizontalCoordinates center =
+                    HorizontalCoordinates.ofDeg(random.nextDouble(0, 360), random.nextDouble(-90, 90));
+            final double radius = random.nextDouble(0.05, 1.5);
+            final float limit = (float) random.nextDouble(-1, 8);
+
+            final StarCatalogue visible = tiled.visibleStars(conversion, center, radius, limit);
+            final Set<String> visibleKeys = new HashSet<>();
+            for (int j = 0; j < visible.starCount(); j++) {
+                assertTrue(visible.magnitude(j) <= limit);
+                visibleKeys.add(keyOf(visible, j));
+            }
+            for (int j = 0; j < catalogue.starCount(); j++) {
+                final HorizontalCoordinates position =
+                        conversion.apply(EquatorialCoordinates.of(catalogue.ra(j), catalogue.dec(j)));
+                if (catalogue.magnitude(j) <= limit && position.angularDistanceTo(center) <= radius) {
+                    assertTrue(visibleKeys.contains(keyOf(catalogue, j)));
+                }
+            }
+            // the selection of the tiles is conservative, yet it should not load the whole sky
+            if (radius < 0.2) {
+                assertTrue(visible.starCount() < catalogue.starCount() / 2);
+            }
+        }
+    }
+
+    @Test
+    void sameStarsGiveTheSameCatalogue() throws IOException {
+        final TiledCatalogue tiled = TiledCatalogue.open(file);
+        final ZonedDateTime now = ZonedDateTime.now();
+        final GeographicCoordinates where = GeographicCoordinates.ofDeg(6.57, 46.52);
+        final HorizontalCoordinates center = HorizontalCoordinates.ofDeg(0, 45);
+        final StarCatalogue all = tiled.visibleStars(new EquatorialToHorizontalConversion(now, where), center,
+                Math.PI, Float.POSITIVE_INFINITY);
+        // another moment and another limit, yet still all the stars of all the tiles
+        assertSame(all, tiled.visibleStars(new EquatorialToHorizontalConversion(now.plusHours(1), where), center,
+                Math.PI, 100f));
+
+        final StarCatalogue bright = tiled.visibleStars(new EquatorialToHorizontalConversion(now, where), center,
+                Math.PI, 2f);
+        assertNotSame(all, bright);
+        assertSame(bright, tiled.visibleStars(new EquatorialToHorizontalConversion(now, where), center,
+                Math.PI, 2f));
+        final StarCatalogue narrow = tiled.visibleStars(new EquatorialToHorizontalConversion(now, where), center,
+                0.1, 2f);
+        assertNotSame(bright, narrow);
+        assertTrue(narrow.starCount() < bright.starCount());
+    }
+
+    @Test
+    void findStarFindsTheStarsByIdAndPosition() throws IOException {
+        final TiledCatalogue tiled = TiledCatalogue.open(file);
+        final SplittableRandom random = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            final int index = random.nextInt(catalogue.starCount());
+            final Star star = tiled.findStar(catalogue.hipparcosId(index), catalogue.ra(index), catalogue.dec(index));
+            assertNotNull(star);
+            assertEquals(catalogue.hipparcosId(index), star.hipparcosId());
+            assertEquals(catalogue.starName(index), star.name());
+            assertEquals(catalogue.ra(index), star.equatorialPos().ra());
+            assertEquals(catalogue.dec(index), star.equatorialPos().dec());
+            assertEquals(catalogue.magnitude(index), star.magnitude());
+            assertNull(tiled.findStar(catalogue.hipparcosId(index), catalogue.ra(index),
+                    Math.nextUp(catalogue.dec(index))));
+        }
+        assertNull(tiled.findStar(0, 10, 0));
+        assertNull(tiled.findStar(0, Double.NaN, 0));
+    }
+
+    @Test
+    void keepsAtMostCacheSizeTiles() throws IOException {
+        final TiledCatalogue tiled = TiledCatalogue.open(file, 4);
+        final EquatorialToHorizontalConversion conversion =
+                new EquatorialToHorizontalConversion(ZonedDateTime.now(), GeographicCoordinates.ofDeg(0, 0));
+        final HorizontalCoordinates center = HorizontalCoordinates.ofDeg(0, 0);
+        final StarCatalogue bright = tiled.visibleStars(conversion, center, Math.PI, 2f);
+        assertEquals(4, tiled.cachedTileCount());
+        // going deeper decodes the tiles again, and still gives the bright stars first
+        final StarCatalogue faint = tiled.visibleStars(conversion, center, Math.PI, 20f);
+        assertEquals(4, tiled.cachedTileCount());
+        assertEquals(catalogue.starCount(), faint.starCount());
+        // a shallower query served from deeper cached tiles is filtered
+        assertEquals(sortedKeys(bright), sortedKeys(tiled.visibleStars(conversion, center, Math.PI, 2f)));
+    }
+
+    @Test
+    void magnitudeLimitGrowsWithZoom() {
+        assertEquals(6.5f, TiledCatalogue.magnitudeLimit(150));
+        assertEquals(11.5f, TiledCatalogue.magnitudeLimit(15), 1e-5);
+        assertTrue(TiledCatalogue.magnitudeLimit(30) > TiledCatalogue.magnitudeLimit(100));
+    }
+
+    @Test
+    void rejectsOtherFilesAndInvalidArguments() throws URISyntaxException {
+        assertThrows(IOException.class,
+                () -> TiledCatalogue.open(Paths.get(getClass().getResource(HYG_CATALOGUE_NAME).toURI())));
+        assertThrows(IllegalArgumentException.class, () -> TiledCatalogue.open(file, 0));
+        assertThrows(IllegalArgumentException.class, () -> TiledCatalogue.write(catalogue, 0, 4, OutputStream.nullOutputStream()));
+        // more than 2 GiB of tile offsets
+        assertThrows(IOException.class,
+                () -> TiledCatalogue.write(catalogue, 1 << 16, 1 << 16, OutputStream.nullOutputStream()));
+    }
+
+}
@@ -0,0 +1,159 @@
+package ch.epfl.rigel.coordinates;
+
+import ch.epfl.test.Bench;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the batch conversions of the coordinates give exactly the results of the conversions
+ * of the objects.
+ *
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public class LBatchConversionTest {
+
+    private static final int COUNT = 1000;
+
+    private static double[] randomArray(SplittableRandom random, double from, double to) {
+        final double[] values = new double[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = random.nextDouble(from, to);
+        }
+        return values;
+    }
+
+    private static ZonedDateTime randomMoment(SplittableRandom random) {
+        return ZonedDateTime.now().plusMinutes(random.nextInt(60 * 24 * 365 * 50));
+    }
+
+    @Test
+    void eclipticToEquatorialBatchAgreesWithApply() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS / 100; i++) {
+            final EclipticToEquatorialConversion conversion = new EclipticToEquatorialConversion(randomMoment(random));
+            final double[] lon = randomArray(random, 0, 2 * Math.PI);
+            final double[] lat = randomArray(random, -Math.PI / 2, Math.PI / 2);
+            final double[] ra = new double[COUNT];
+            final double[] dec = new double[COUNT];
+            conversion.apply(lon, lat, ra, dec, COUNT);
+            for (int j = 0; j < COUNT; j++) {
+                final EquatorialCoordinates expected = conversion.apply(EclipticCoordinates.of(lon[j], lat[j]));
+                assertEquals(expected.ra(), ra[j]);
+                assertEquals(expected.dec(), dec[j]);
+            }
+        }
+    }
+
+    @Test
+    void equatorialToHorizontalBatchAgreesWithApply() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS / 100; i++) {
+            final EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(
+                    randomMoment(random),
+                    GeographicCoordinates.ofDeg(random.nextDouble(-180, 180), random.nextDouble(-90, 90)));
+            final double[] ra = randomArray(random, 0, 2 * Math.PI);
+            final double[] dec = randomArray(random, -Math.PI / 2, Math.PI / 2);
+            final double[] az = new double[COUNT];
+            final double[] alt = new double[COUNT];
+            conversion.apply(ra, dec, az, alt, COUNT);
+            for (int j = 0; j < COUNT; j++) {
+                final HorizontalCoordinates expected = conversion.apply(EquatorialCoordinates.of(ra[j], dec[j]));
+                assertEquals(expected.az(), az[j]);
+                assertEquals(expected.alt(), alt[j]);
+            }
+        }
+    }
+
+    @Test
+    void stereographicBatchesAgreeWithApplyAndInverseApply() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS / 100; i++) {
+            final StereographicProjection projection = new StereographicProjection(
+                    HorizontalCoordinates.ofDeg(random.nextDouble(0, 360), random.nextDouble(-90, 90)));
+            final double[] az = randomArray(random, 0, 2 * Math.PI);
+            final double[] alt = randomArray(random, -Math.PI / 2, Math.PI / 2);
+            final double[] x = new double[COUNT];
+            final double[] y = new double[COUNT];
+            projection.apply(az, alt, x, y, COUNT);
+            for (int j = 0; j < COUNT; j++) {
+                final CartesianCoordinates expected = projection.apply(HorizontalCoordinates.of(az[j], alt[j]));
+                assertEquals(expected.x(), x[j]);
+                assertEquals(expected.y(), y[j]);
+            }
+
+            final double[] backAz = new double[COUNT];
+            final double[] backAlt = new double[COUNT];
+            projection.inverseApply(x, y, backAz, backAlt, COUNT);
+            for (int j = 0; j < COUNT; j++) {
+                final HorizontalCoordinates expected = projection.inverseApply(CartesianCoordinates.of(x[j], y[j]));
+                assertEquals(expected.az(), backAz[j]);
+                assertEquals(expected.alt(), backAlt[j]);
+            }
+        }
+    }
+
+    @Test
+    void inverseApplyOfTheOriginIsTheCenter() {
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.of(1, 0.5));
+        final double[] azAlt = new double[3];
+        projection.inverseApply(0, 0, azAlt, 1);
+        assertArrayEquals(new double[]{0, 1, 0.5}, azAlt);
+    }
+
+    @Test
+    void batchesOnlyWriteTheFirstValues() {
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.of(0, 0));
+        final double[] x = {7, 7, 7};
+        final double[] y = {7, 7, 7};
+        projection.apply(new double[]{0, 0, 0}, new double[]{0, 0, 0}, x, y, 2);
+        assertArrayEquals(new double[]{0, 0, 7}, x);
+        assertArrayEquals(new double[]{0, 0, 7}, y);
+        assertThrows(ArrayIndexOutOfBoundsException.class,
+                () -> projection.apply(new double[2], new double[2], x, y, 3));
+    }
+
+    // DISABLED: Benchmarking
+    @Disabled
+    @Test
+    void benchmark() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        final int count = 100_000;
+        final double[] ra = new double[count];
+        final double[] dec = new double[count];
+        final EquatorialCoordinates[] coordinates = new EquatorialCoordinates[count];
+        for (int i = 0; i < count; i++) {
+            ra[i] = random.nextDouble(0, 2 * Math.PI);
+            dec[i] = random.nextDouble(-Math.PI / 2, Math.PI / 2);
+            coordinates[i] = EquatorialCoordinates.of(ra[i], dec[i]);
+        }
+        final EquatorialToHorizontalConversion conversion =
+                new EquatorialToHorizontalConversion(ZonedDateTime.now(), GeographicCoordinates.ofDeg(6.57, 46.52));
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 30));
+        final double[] az = new double[count];
+        final double[] alt = new double[count];
+        final double[] x = new double[count];
+        final double[] y = new double[count];
+        for (int run = 0; run < 5; run++) {
+            Bench.printBench(() -> {
+                for (int i = 0; i < count; i++) {
+                    final CartesianCoordinates position = projection.apply(conversion.apply(coordinates[i]));
+                    x[i] = position.x();
+                    y[i] = position.y();
+                }
+            }, count);
+            Bench.printBench(() -> {
+                conversion.apply(ra, dec, az, alt, count);
+                projection.apply(az, alt, x, y, count);
+            }, count);
+        }
+    }
+
+}
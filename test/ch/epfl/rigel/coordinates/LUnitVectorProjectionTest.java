@@ -0,0 +1,204 @@
+package ch.epfl.rigel.coordinates;
+
+import ch.epfl.test.Bench;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public class LUnitVectorProjectionTest {
+
+    /**
+     * The error allowed on a coordinate of norm r: the projection magnifies the rounding errors
+     * of the vectors by 1 + r^2 (the derivative of 2tan(a/2) is 1 + tan^2(a/2)).
+     */
+    private static double tolerance(double x, double y) {
+        return 1e-12 * (1 + x * x + y * y);
+    }
+
+    @Test
+    void unitVectorIsTheUnitVectorOfTheCoordinates() {
+        final double[] vector = new double[4];
+        UnitVectorProjection.unitVector(0, 0, vector, 1);
+        assertArrayEquals(new double[]{0, 1, 0, 0}, vector, 1e-15);
+        UnitVectorProjection.unitVector(Math.PI / 2, 0, vector, 1);
+        assertArrayEquals(new double[]{0, 0, 1, 0}, vector, 1e-15);
+        UnitVectorProjection.unitVector(1, Math.PI / 2, vector, 0);
+        assertArrayEquals(new double[]{0, 0, 1}, new double[]{vector[0], vector[1], vector[2]}, 1e-15);
+    }
+
+    @Test
+    void applyAgreesWithTheComposedFunctions() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS / 10; i++) {
+            final EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(
+                    ZonedDateTime.now().plusMinutes(random.nextInt(60 * 24 * 365 * 10)),
+                    GeographicCoordinates.ofDeg(random.nextDouble(-180, 180), random.nextDouble(-89.9, 89.9)));
+            final StereographicProjection projection = new StereographicProjection(
+                    HorizontalCoordinates.ofDeg(random.nextDouble(0, 360), random.nextDouble(-90, 90)));
+            final Function<EquatorialCoordinates, CartesianCoordinates> composed = projection.compose(conversion);
+            final UnitVectorProjection unitVectorProjection = new UnitVectorProjection(conversion, projection);
+
+            final int count = 100;
+            final double[] ra = new double[count];
+            final double[] dec = new double[count];
+            final double[] vectors = new double[3 * count];
+            for (int j = 0; j < count; j++) {
+                ra[j] = random.nextDouble(0, 2 * Math.PI);
+                dec[j] = random.nextDouble(-Math.PI / 2, Math.PI / 2);
+                UnitVectorProjection.unitVector(ra[j], dec[j], vectors, 3 * j);
+            }
+            final double[] positions = new double[2 * count];
+            unitVectorProjection.apply(vectors, 0, count, positions);
+            for (int j = 0; j < count; j++) {
+                final CartesianCoordinates expected = composed.apply(EquatorialCoordinates.of(ra[j], dec[j]));
+                final double tolerance = tolerance(expected.x(), expected.y());
+                assertEquals(expected.x(), positions[2 * j], tolerance);
+                assertEquals(expected.y(), positions[2 * j + 1], tolerance);
+            }
+        }
+    }
+
+    @Test
+    void applyOnComponentArraysAgreesWithTheScalarProjection() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS / 10; i++) {
+            final EquatorialToHorizontalConversion conversion = new EquatorialToHorizontalConversion(
+                    ZonedDateTime.now().plusMinutes(random.nextInt(60 * 24 * 365 * 10)),
+                    GeographicCoordinates.ofDeg(random.nextDouble(-180, 180), random.nextDouble(-89.9, 89.9)));
+            final StereographicProjection projection = new StereographicProjection(
+                    HorizontalCoordinates.ofDeg(random.nextDouble(0, 360), random.nextDouble(-90, 90)));
+            final UnitVectorProjection unitVectorProjection = new UnitVectorProjection(conversion, projection);
+
+            // an odd count, so that the loop does not only run on whole SIMD registers
+            final int count = 101;
+            final double[] ra = new double[count];
+            final double[] dec = new double[count];
+            final double[] vectors = new double[3 * count];
+            final double[] x = new double[count];
+            final double[] y = new double[count];
+            final double[] z = new double[count];
+            for (int j = 0; j < count; j++) {
+                ra[j] = random.nextDouble(0, 2 * Math.PI);
+                dec[j] = random.nextDouble(-Math.PI / 2, Math.PI / 2);
+                UnitVectorProjection.unitVector(ra[j], dec[j], vectors, 3 * j);
+                x[j] = vectors[3 * j];
+                y[j] = vectors[3 * j + 1];
+                z[j] = vectors[3 * j + 2];
+            }
+            final double[] positions = new double[2 * count];
+            unitVectorProjection.apply(vectors, 0, count, positions);
+            final double[] projectedX = new double[count];
+            final double[] projectedY = new double[count];
+            unitVectorProjection.apply(x, y, z, 0, count, projectedX, projectedY);
+            final double[] azAlt = new double[2];
+            final double[] expected = new double[2];
+            for (int j = 0; j < count; j++) {
+                // the same operations as the interleaved layout, hence the same results
+                assertEquals(positions[2 * j], projectedX[j]);
+                assertEquals(positions[2 * j + 1], projectedY[j]);
+                conversion.apply(ra[j], dec[j], azAlt, 0);
+                projection.apply(azAlt[0], azAlt[1], expected, 0);
+                final double tolerance = tolerance(expected[0], expected[1]);
+                assertEquals(expected[0], projectedX[j], tolerance);
+                assertEquals(expected[1], projectedY[j], tolerance);
+            }
+        }
+    }
+
+    @Test
+    void applyOnComponentArraysOnlyWritesTheProvidedRange() {
+        final UnitVectorProjection projection = new UnitVectorProjection(
+                new EquatorialToHorizontalConversion(ZonedDateTime.now(), GeographicCoordinates.ofDeg(0, 0)),
+                new StereographicProjection(HorizontalCoordinates.ofDeg(0, 0)));
+        final double[] projectedX = {7, 7, 7};
+        final double[] projectedY = {7, 7, 7};
+        projection.apply(new double[]{1, 0, 0}, new double[]{0, 1, 0}, new double[]{0, 0, 1}, 1, 2,
+                projectedX, projectedY);
+        assertEquals(7, projectedX[0]);
+        assertNotEquals(7, projectedX[1]);
+        assertEquals(7, projectedX[2]);
+        assertEquals(7, projectedY[0]);
+        assertNotEquals(7, projectedY[1]);
+        assertEquals(7, projectedY[2]);
+    }
+
+    @Test
+    void applyOnlyWritesTheProvidedRange() {
+        final UnitVectorProjection projection = new UnitVectorProjection(
+                new EquatorialToHorizontalConversion(ZonedDateTime.now(), GeographicCoordinates.ofDeg(0, 0)),
+                new StereographicProjection(HorizontalCoordinates.ofDeg(0, 0)));
+        final double[] vectors = {1, 0, 0, 0, 1, 0, 0, 0, 1};
+        final double[] positions = {7, 7, 7, 7, 7, 7};
+        projection.apply(vectors, 1, 2, positions);
+        assertEquals(7, positions[0]);
+        assertEquals(7, positions[1]);
+        assertNotEquals(7, positions[2]);
+        assertNotEquals(7, positions[3]);
+        assertEquals(7, positions[4]);
+        assertEquals(7, positions[5]);
+    }
+
+    // DISABLED: Benchmarking
+    @Disabled
+    @Test
+    void benchmark() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        final int count = 5_000;
+        final EquatorialCoordinates[] coordinates = new EquatorialCoordinates[count];
+        final double[] vectors = new double[3 * count];
+        for (int i = 0; i < count; i++) {
+            coordinates[i] = EquatorialCoordinates.of(random.nextDouble(0, 2 * Math.PI),
+                    random.nextDouble(-Math.PI / 2, Math.PI / 2));
+            UnitVectorProjection.unitVector(coordinates[i].ra(), coordinates[i].dec(), vectors, 3 * i);
+        }
+        final EquatorialToHorizontalConversion conversion =
+                new EquatorialToHorizontalConversion(ZonedDateTime.now(), GeographicCoordinates.ofDeg(6.57, 46.52));
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 30));
+        final Function<EquatorialCoordinates, CartesianCoordinates> composed = projection.compose(conversion);
+        final double[] positions = new double[2 * count];
+        final double[] x = new double[count];
+        final double[] y = new double[count];
+        final double[] z = new double[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = vectors[3 * i];
+            y[i] = vectors[3 * i + 1];
+            z[i] = vectors[3 * i + 2];
+        }
+        final double[] projectedX = new double[count];
+        final double[] projectedY = new double[count];
+        // the catalogue of the stars holds about 5000 of them, small enough to stay in the cache
+        final int repetitions = 1000;
+        final UnitVectorProjection unitVectorProjection = new UnitVectorProjection(conversion, projection);
+        for (int run = 0; run < 5; run++) {
+            Bench.printBench(() -> {
+                for (int i = 0; i < count; i++) {
+                    final CartesianCoordinates position = composed.apply(coordinates[i]);
+                    positions[2 * i] = position.x();
+                    positions[2 * i + 1] = position.y();
+                }
+            }, count);
+            Bench.printBench(() -> {
+                for (int r = 0; r < repetitions; r++) {
+                    unitVectorProjection.apply(vectors, 0, count, positions);
+                }
+            }, repetitions * count);
+            Bench.printBench(() -> {
+                for (int r = 0; r < repetitions; r++) {
+                    unitVectorProjection.apply(x, y, z, 0, count, projectedX, projectedY);
+                }
+            }, repetitions * count);
+        }
+    }
+
+}
@@ -1,7 +1,9 @@
 package ch.epfl.rigel.gui;
 
+import ch.epfl.test.Bench;
 import ch.epfl.test.TestRandomizer;
 import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -13,6 +15,9 @@ import java.util.SplittableRandom;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * @author Oscar Davis (SCIPER: 311193)
@@ -42,4 +47,53 @@ public class BlackBodyColorTest {
         }
     }
 
+    @Test
+    void paletteIndicesGiveTheColorsOfTheTemperatures() {
+        for (int temperature = 1000; temperature <= 40_000; temperature++) {
+            final int index = BlackBodyColor.paletteIndex(temperature);
+            assertEquals(Math.round(temperature / 100f) - 10, index);
+            assertSame(BlackBodyColor.fromTemperature(temperature), BlackBodyColor.fromPaletteIndex(index));
+        }
+        for (int index = 0; index < BlackBodyColor.PALETTE_SIZE; index++) {
+            assertNotNull(BlackBodyColor.fromPaletteIndex(index));
+        }
+        assertEquals(391, BlackBodyColor.PALETTE_SIZE);
+        assertThrows(IllegalArgumentException.class, () -> BlackBodyColor.paletteIndex(999));
+        assertThrows(IllegalArgumentException.class, () -> BlackBodyColor.paletteIndex(40_001));
+        assertThrows(IndexOutOfBoundsException.class, () -> BlackBodyColor.fromPaletteIndex(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> BlackBodyColor.fromPaletteIndex(BlackBodyColor.PALETTE_SIZE));
+    }
+
+    // DISABLED: Benchmarking
+    @Disabled
+    @Test
+    void benchmark() {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        final int count = 5_000;
+        final int[] temperatures = new int[count];
+        final short[] indices = new short[count];
+        for (int i = 0; i < count; i++) {
+            temperatures[i] = random.nextInt(1000, 40_001);
+            indices[i] = (short) BlackBodyColor.paletteIndex(temperatures[i]);
+        }
+        final Color[] colors = new Color[count];
+        final int repetitions = 1000;
+        for (int run = 0; run < 5; run++) {
+            Bench.printBench(() -> {
+                for (int r = 0; r < repetitions; r++) {
+                    for (int i = 0; i < count; i++) {
+                        colors[i] = BlackBodyColor.fromTemperature(temperatures[i]);
+                    }
+                }
+            }, repetitions * count);
+            Bench.printBench(() -> {
+                for (int r = 0; r < repetitions; r++) {
+                    for (int i = 0; i < count; i++) {
+                        colors[i] = BlackBodyColor.fromPaletteIndex(indices[i]);
+                    }
+                }
+            }, repetitions * count);
+        }
+    }
+
 }
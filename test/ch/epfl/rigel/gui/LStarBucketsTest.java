@@ -0,0 +1,144 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.HygDatabaseLoader;
+import ch.epfl.rigel.astronomy.ObservedSky;
+import ch.epfl.rigel.astronomy.Star;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.test.Bench;
+import ch.epfl.test.TestRandomizer;
+import javafx.geometry.Point2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.transform.Transform;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Oscar Davis (SCIPER: 311193)
+ * @author Alexandre Doukhan (SCIPER: 316706)
+ * Creation date: 17/10/2026
+ */
+public class LStarBucketsTest {
+
+    /**
+     * @return a catalogue of the provided number of random stars, of random magnitudes and colors.
+     */
+    private static StarCatalogue randomCatalogue(SplittableRandom random, int count) {
+        final StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        for (int i = 0; i < count; i++) {
+            builder.addStar(new Star(i, "Star " + i, EquatorialCoordinates.of(random.nextDouble(0, 2 * Math.PI),
+                    random.nextDouble(-Math.PI / 2, Math.PI / 2)), (float) random.nextDouble(-3, 12),
+                    (float) random.nextDouble(-0.5, 5.5)));
+        }
+        return builder.build();
+    }
+
+    private static StarCatalogue hygCatalogue() throws IOException {
+        try (final InputStream in = LStarBucketsTest.class.getResourceAsStream("/hygdata_v3.csv")) {
+            return new StarCatalogue.Builder().loadFrom(in, HygDatabaseLoader.INSTANCE).build();
+        }
+    }
+
+    @Test
+    void bucketsAreTheColorsAndTheSizesOfTheStars() throws IOException {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        for (StarCatalogue catalogue : new StarCatalogue[]{hygCatalogue(), randomCatalogue(random, 10_000)}) {
+            final StarBuckets buckets = new StarBuckets(catalogue);
+            assertSame(catalogue, buckets.catalogue());
+            assertEquals(catalogue.starCount(), buckets.keys().length);
+            for (int i = 0; i < catalogue.starCount(); i++) {
+                final int key = buckets.keys()[i];
+                final double size = SkyCanvasPainter.sizeFactor(catalogue.magnitude(i));
+                assertEquals(size, buckets.sizes()[i]);
+                assertEquals(BlackBodyColor.paletteIndex(catalogue.colorTemperature(i)), StarBuckets.paletteIndex(key));
+                assertEquals(StarBuckets.sizeClass(size), key % StarBuckets.SIZE_CLASSES);
+                assertTrue(key >= 0 && key < StarBuckets.BUCKET_COUNT);
+            }
+        }
+    }
+
+    @Test
+    void sizeClassesGrowWithTheSizes() {
+        assertEquals(0, StarBuckets.sizeClass(SkyCanvasPainter.sizeFactor(5)));
+        assertEquals(0, StarBuckets.sizeClass(SkyCanvasPainter.sizeFactor(12)));
+        assertEquals(StarBuckets.SIZE_CLASSES - 1, StarBuckets.sizeClass(SkyCanvasPainter.sizeFactor(-2)));
+        assertEquals(StarBuckets.SIZE_CLASSES - 1, StarBuckets.sizeClass(SkyCanvasPainter.sizeFactor(-30)));
+        int previous = 0;
+        for (double magnitude = 5; magnitude >= -2; magnitude -= 0.01) {
+            final int sizeClass = StarBuckets.sizeClass(SkyCanvasPainter.sizeFactor(magnitude));
+            assertTrue(sizeClass >= previous);
+            previous = sizeClass;
+        }
+    }
+
+    @Test
+    void emptyCatalogueHasNoBuckets() {
+        final StarBuckets buckets = new StarBuckets(new StarCatalogue.Builder().build());
+        assertEquals(0, buckets.keys().length);
+        assertEquals(0, buckets.sizes().length);
+        assertThrows(NullPointerException.class, () -> new StarBuckets(null));
+    }
+
+    // DISABLED: Benchmarking
+    @Disabled
+    @Test
+    void benchmarkFrameTimes() throws IOException {
+        final SplittableRandom random = TestRandomizer.newRandom();
+        final StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 45));
+        // the whole hemisphere fits in the canvas, as with the widest field of view
+        final Transform transform = Transform.affine(300, 0, 0, -300, 400, 300);
+        final Canvas canvas = new Canvas(800, 600);
+        final GraphicsContext gfx = canvas.getGraphicsContext2D();
+        final SkyCanvasPainter painter = new SkyCanvasPainter(canvas);
+        final int frames = 100;
+        for (StarCatalogue catalogue : new StarCatalogue[]{hygCatalogue(), randomCatalogue(random, 100_000)}) {
+            final ObservedSky sky = new ObservedSky(ZonedDateTime.now(), GeographicCoordinates.ofDeg(6.57, 46.52),
+                    projection, catalogue);
+            final double[] positions = sky.starPositions();
+            final double[] transformed = new double[positions.length];
+            final double sunSize = projection.applyToAngle(Math.toRadians(0.5));
+            System.out.println(catalogue.starCount() + " stars, "
+                    + sky.visibleStars(0, Math.PI).length + " above the horizon, one frame per operation:");
+            for (int run = 0; run < 10; run++) {
+                // the previous painting: the fill is set before each star, in the order of the catalogue
+                Bench.printBench(() -> {
+                    for (int f = 0; f < frames; f++) {
+                        painter.clear();
+                        for (int i = 0; i < positions.length; i += 2) {
+                            transformed[i] = transform.getMxx() * positions[i] + transform.getMxy() * positions[i + 1]
+                                    + transform.getTx();
+                            transformed[i + 1] = transform.getMyx() * positions[i] + transform.getMyy() * positions[i + 1]
+                                    + transform.getTy();
+                        }
+                        for (int i : sky.visibleStars(0, Math.PI)) {
+                            gfx.setFill(BlackBodyColor.fromTemperature(catalogue.colorTemperature(i)));
+                            final Point2D point = new Point2D(transformed[2 * i], transformed[2 * i + 1]);
+                            final double diameter = Math.abs(transform.deltaTransform(
+                                    SkyCanvasPainter.sizeFactor(catalogue.magnitude(i)) * sunSize, 0).getX());
+                            gfx.fillOval(point.getX() - diameter / 2d, point.getY() - diameter / 2d, diameter, diameter);
+                        }
+                    }
+                }, frames);
+                // the painting by buckets of color
+                Bench.printBench(() -> {
+                    for (int f = 0; f < frames; f++) {
+                        painter.clear();
+                        painter.drawStars(sky, projection, transform, 0);
+                    }
+                }, frames);
+            }
+        }
+    }
+
+}